@@ -0,0 +1,38 @@
+package io.github.guobao2333.bbcoeter.benchmarks;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.ast.ASTOptimizer;
+import io.github.guobao2333.bbcoeter.parser.BBCodeParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ASTOptimizer 优化基准
+ * 优化会原地修改AST，所以每次调用前都重新解析一棵新树
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ASTOptimizerBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE", "ADVERSARIAL"})
+    public Corpus corpus;
+
+    private final BBCodeParser parser = new BBCodeParser();
+    private final ASTOptimizer optimizer = new ASTOptimizer();
+    private ASTNode ast;
+
+    @Setup(Level.Invocation)
+    public void parse() {
+        ast = parser.parse(corpus.bbcode());
+    }
+
+    @Benchmark
+    public ASTNode optimize() {
+        return optimizer.optimize(ast);
+    }
+}
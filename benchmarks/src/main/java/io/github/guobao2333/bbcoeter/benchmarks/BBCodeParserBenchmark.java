@@ -0,0 +1,94 @@
+package io.github.guobao2333.bbcoeter.benchmarks;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.ast.ASTOptimizer;
+import io.github.guobao2333.bbcoeter.parser.BBCodeListener;
+import io.github.guobao2333.bbcoeter.parser.BBCodeParser;
+import io.github.guobao2333.bbcoeter.parser.BBCodeTag;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BBCodeParser 解析基准
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BBCodeParserBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE", "ADVERSARIAL", "PLAIN_TEXT", "TAG_DENSE", "MALFORMED"})
+    public Corpus corpus;
+
+    private String input;
+    private byte[] utf8;
+    private BBCodeParser parser;
+    private BBCodeParser optimizingParser;
+    private ASTOptimizer optimizer;
+
+    @Setup
+    public void setup() {
+        input = corpus.bbcode();
+        utf8 = input.getBytes(StandardCharsets.UTF_8);
+        parser = new BBCodeParser();
+        optimizingParser = new BBCodeParser(true);
+        optimizer = new ASTOptimizer();
+    }
+
+    @Benchmark
+    public ASTNode parse() {
+        return parser.parse(input);
+    }
+
+    /**
+     * 先构建原始树，再单独优化一遍
+     */
+    @Benchmark
+    public ASTNode parseThenOptimize() {
+        return optimizer.optimize(parser.parse(input));
+    }
+
+    /**
+     * 构建时优化
+     */
+    @Benchmark
+    public ASTNode parseOptimized() {
+        return optimizingParser.parse(input);
+    }
+
+    /**
+     * UTF-8内容先解码为字符串再解析
+     */
+    @Benchmark
+    public ASTNode decodeThenParse() {
+        return parser.parse(new String(utf8, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 直接在UTF-8字节上解析
+     */
+    @Benchmark
+    public ASTNode parseUtf8() {
+        return parser.parse(utf8);
+    }
+
+    @Benchmark
+    public void parseEvents(Blackhole blackhole) {
+        parser.parse(input, new BBCodeListener() {
+            @Override
+            public void startTag(BBCodeTag tag, String attribute) {
+                blackhole.consume(tag);
+            }
+
+            @Override
+            public void text(CharSequence text, int start, int end) {
+                blackhole.consume(end - start);
+            }
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.guobao2333.bbcoeter.benchmarks;
+
+import io.github.guobao2333.bbcoeter.BBCodeConverter;
+import io.github.guobao2333.bbcoeter.ConversionResult;
+import io.github.guobao2333.bbcoeter.dom.JsoupDOMAdapter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量转换基准，观察吞吐量随线程数的变化
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchConversionBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private List<String> posts;
+    private ForkJoinPool pool;
+    private BBCodeConverter converter;
+
+    @Setup
+    public void setup() {
+        posts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            posts.add(Corpus.forumPost(1024 + (i % 16) * 256));
+        }
+        pool = new ForkJoinPool(parallelism);
+        converter = BBCodeConverter.builder(new JsoupDOMAdapter())
+            .forkJoinPool(pool)
+            .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<ConversionResult> convertAll() {
+        return converter.convertAll(posts);
+    }
+}
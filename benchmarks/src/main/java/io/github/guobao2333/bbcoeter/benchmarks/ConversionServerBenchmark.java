@@ -0,0 +1,102 @@
+package io.github.guobao2333.bbcoeter.benchmarks;
+
+import io.github.guobao2333.bbcoeter.BBCodeConverter;
+import io.github.guobao2333.bbcoeter.dom.NativeDOMAdapter;
+import io.github.guobao2333.bbcoeter.server.ConversionServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地转换服务的负载基准：16个线程并发通过HTTP/1.1（保持连接）请求同一个服务
+ * virtualThreads=true在低于Java 21的运行时上被忽略，与false相同
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class ConversionServerBenchmark {
+
+    @Param({"SMALL", "MEDIUM"})
+    public Corpus corpus;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private ConversionServer server;
+    private URL bbcodeToHtml;
+    private URL htmlToBBCode;
+    private byte[] bbcode;
+    private byte[] html;
+
+    @State(Scope.Thread)
+    public static class ReadBuffer {
+        final byte[] bytes = new byte[8192];
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        server = ConversionServer.builder(BBCodeConverter.builder(new NativeDOMAdapter()).build())
+            .port(0)
+            .maxConcurrentRequests(64)
+            .virtualThreads(virtualThreads)
+            .tcpNoDelay(true)
+            .build()
+            .start();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        bbcodeToHtml = new URL(base + "/bbcode-to-html");
+        htmlToBBCode = new URL(base + "/html-to-bbcode");
+        bbcode = corpus.bbcode().getBytes(StandardCharsets.UTF_8);
+        html = corpus.html().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public long bbcodeToHtml(ReadBuffer buffer) throws IOException {
+        return post(bbcodeToHtml, bbcode, buffer.bytes);
+    }
+
+    @Benchmark
+    public long htmlToBBCode(ReadBuffer buffer) throws IOException {
+        return post(htmlToBBCode, html, buffer.bytes);
+    }
+
+    /**
+     * 发送请求并读完响应体，返回响应体字节数；读完响应体连接才能被复用
+     */
+    private static long post(URL url, byte[] body, byte[] buffer) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "text/plain; charset=utf-8");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        int status = connection.getResponseCode();
+        if (status != 200) {
+            throw new IllegalStateException("Unexpected status " + status + " from " + url);
+        }
+        long total = 0;
+        try (InputStream in = connection.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                total += read;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.guobao2333.bbcoeter.benchmarks;
+
+import io.github.guobao2333.bbcoeter.BBCodeConverter;
+import io.github.guobao2333.bbcoeter.dom.JsoupDOMAdapter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整转换流程基准，对比返回String与直接写入Writer
+ * 配合 -prof gc 查看每次转换的分配量（gc.alloc.rate.norm）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConverterBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public Corpus corpus;
+
+    private String input;
+    private BBCodeConverter converter;
+    private Writer sink;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        input = corpus.bbcode();
+        converter = new BBCodeConverter(new JsoupDOMAdapter());
+        sink = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+                blackhole.consume(buffer);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Benchmark
+    public void bbcodeToHtmlString(Blackhole blackhole) {
+        blackhole.consume(converter.bbcodeToHtml(input));
+    }
+
+    @Benchmark
+    public void bbcodeToHtmlWriter() throws IOException {
+        converter.bbcodeToHtml(input, sink);
+    }
+}
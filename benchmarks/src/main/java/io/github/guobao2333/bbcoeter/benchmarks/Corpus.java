@@ -0,0 +1,268 @@
+package io.github.guobao2333.bbcoeter.benchmarks;
+
+import io.github.guobao2333.bbcoeter.BBCodeConverter;
+import io.github.guobao2333.bbcoeter.dom.JsoupDOMAdapter;
+
+import java.util.Random;
+
+/**
+ * 基准测试输入语料
+ * 内容由固定种子生成，保证每次运行的输入一致
+ */
+public enum Corpus {
+    SMALL {
+        @Override
+        String generateBBCode() {
+            return "[b]Hello[/b] [url=https://github.com]Github[/url]! [i]BBCode[/i] post.";
+        }
+    },
+    MEDIUM {
+        @Override
+        String generateBBCode() {
+            return forumPost(4 * 1024);
+        }
+    },
+    HUGE {
+        @Override
+        String generateBBCode() {
+            return forumPost(1024 * 1024);
+        }
+    },
+    ADVERSARIAL {
+        @Override
+        String generateBBCode() {
+            StringBuilder sb = new StringBuilder();
+            // 深层嵌套
+            for (int i = 0; i < 1000; i++) {
+                sb.append(i % 2 == 0 ? "[quote]" : "[b]");
+            }
+            sb.append("deep");
+            // 未闭合的参数、孤立的括号和不匹配的闭合标签
+            for (int i = 0; i < 2000; i++) {
+                sb.append("[url=x [ [/ ]] [/i][unknown=1]text[/nothing][*");
+            }
+            return sb.toString();
+        }
+
+        @Override
+        String generateHtml() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                sb.append(i % 2 == 0 ? "<div><span>" : "<font><x-wrap>");
+            }
+            sb.append("deep");
+            for (int i = 0; i < 2000; i++) {
+                sb.append("<b><i>unclosed <a href=\"#\" onclick=\"x()\">a</b> &amp;&lt; <td>stray</tr>");
+            }
+            return sb.toString();
+        }
+    },
+    PLAIN_TEXT {
+        @Override
+        String generateBBCode() {
+            StringBuilder sb = new StringBuilder();
+            while (sb.length() < 256 * 1024) {
+                sb.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ");
+            }
+            return sb.toString();
+        }
+    },
+    TAG_DENSE {
+        @Override
+        String generateBBCode() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; sb.length() < 256 * 1024; i++) {
+                sb.append("[b]x[/b][i][url=http://example.com/").append(i)
+                  .append("]y[/url][/i][color=red]z[/color]");
+            }
+            return sb.toString();
+        }
+    },
+    NESTED_SOUP {
+        @Override
+        String generateBBCode() {
+            StringBuilder sb = new StringBuilder();
+            for (int block = 0; block < 20; block++) {
+                for (int i = 0; i < 500; i++) {
+                    sb.append(i % 2 == 0 ? "[quote]" : "[b]").append("level ").append(i).append(' ');
+                }
+                for (int i = 499; i >= 0; i--) {
+                    sb.append(i % 2 == 0 ? "[/quote]" : "[/b]").append(" tail ");
+                }
+            }
+            return sb.toString();
+        }
+
+        @Override
+        String generateHtml() {
+            // 编辑器粘贴出的层层包装：文本与span/div/未知标签交错，深度500
+            StringBuilder sb = new StringBuilder();
+            for (int block = 0; block < 20; block++) {
+                for (int i = 0; i < 500; i++) {
+                    sb.append(i % 3 == 0 ? "<div>" : i % 3 == 1 ? "<span>" : "<x-wrap>").append("level ").append(i).append(' ');
+                }
+                sb.append("<b>deep</b>");
+                for (int i = 499; i >= 0; i--) {
+                    sb.append(i % 3 == 0 ? "</div>" : i % 3 == 1 ? "</span>" : "</x-wrap>").append(" tail ");
+                }
+            }
+            return sb.toString();
+        }
+    },
+    PASTED_HTML {
+        @Override
+        String generateBBCode() {
+            return new BBCodeConverter(new JsoupDOMAdapter()).htmlToBBCode(html());
+        }
+
+        @Override
+        String generateHtml() {
+            // 从文字处理软件和网页中粘贴出的HTML：带样式的span、class、实体、注释和Office命名空间标签
+            Random random = new Random(16);
+            StringBuilder sb = new StringBuilder("<html><head><meta charset=\"utf-8\"><title>Draft</title>"
+                + "<style>p.MsoNormal{margin:0}</style></head><body><!--StartFragment-->");
+            while (sb.length() < 64 * 1024) {
+                switch (random.nextInt(5)) {
+                    case 0:
+                        sb.append("<p class=\"MsoNormal\" style=\"margin:0cm;line-height:150%\"><span lang=\"EN-US\" ")
+                          .append("style=\"font-size:12.0pt;font-family:&quot;Calibri&quot;,sans-serif;color:#1F3864\">")
+                          .append(escapedWords(random, 12)).append("&nbsp;</span><b><span style=\"font-size:12.0pt\">")
+                          .append(escapedWords(random, 3)).append("</span></b><o:p></o:p></p>\n");
+                        break;
+                    case 1:
+                        sb.append("<div class=\"content\"><span style=\"color: rgb(51, 51, 51); background-color: ")
+                          .append("rgb(255, 255, 255);\">").append(escapedWords(random, 10))
+                          .append(" &mdash; <a href=\"https://example.com/post?id=").append(random.nextInt(1000))
+                          .append("&amp;ref=paste\" target=\"_blank\" rel=\"noopener\">").append(escapedWords(random, 2))
+                          .append("</a>&nbsp;&nbsp;&#8220;").append(escapedWords(random, 3)).append("&#8221;</span></div>\n");
+                        break;
+                    case 2:
+                        sb.append("<ul style=\"margin-top:0\">");
+                        for (int i = 0; i < 4; i++) {
+                            sb.append("<li><span style=\"font-family:Arial\">").append(escapedWords(random, 5)).append("</span>");
+                        }
+                        sb.append("</ul>\n");
+                        break;
+                    case 3:
+                        sb.append("<table border=\"1\" cellspacing=\"0\"><tbody>");
+                        for (int row = 0; row < 3; row++) {
+                            sb.append("<tr>");
+                            for (int cell = 0; cell < 3; cell++) {
+                                sb.append("<td width=\"120\" valign=\"top\"><p>").append(escapedWords(random, 2)).append("</p></td>");
+                            }
+                            sb.append("</tr>");
+                        }
+                        sb.append("</tbody></table>\n");
+                        break;
+                    default:
+                        sb.append("<p><font color=\"#C00000\" face=\"宋体\"><i>").append(escapedWords(random, 6))
+                          .append("<br>").append(escapedWords(random, 4)).append("</i></font><img src=\"https://example.com/")
+                          .append(random.nextInt(100)).append(".png\" width=\"64\" alt=\"\"></p>\n");
+                        break;
+                }
+            }
+            return sb.append("<!--EndFragment--></body></html>").toString();
+        }
+    },
+    MALFORMED {
+        @Override
+        String generateBBCode() {
+            StringBuilder sb = new StringBuilder();
+            while (sb.length() < 256 * 1024) {
+                sb.append("[a=b [ [/ ]x[= [*");
+            }
+            return sb.toString();
+        }
+    };
+
+    private String bbcode;
+    private String html;
+
+    abstract String generateBBCode();
+
+    /**
+     * 默认的HTML输入为BBCode渲染结果，模拟论坛页面中复制出的HTML
+     */
+    String generateHtml() {
+        return new BBCodeConverter(new JsoupDOMAdapter()).bbcodeToHtml(bbcode());
+    }
+
+    public synchronized String bbcode() {
+        if (bbcode == null) {
+            bbcode = generateBBCode();
+        }
+        return bbcode;
+    }
+
+    public synchronized String html() {
+        if (html == null) {
+            html = generateHtml();
+        }
+        return html;
+    }
+
+    private static final String[] WORDS = {
+        "论坛", "帖子", "quote", "reply", "the", "converter", "BBCode", "&", "<tag>", "example",
+        "内容", "测试", "lorem", "ipsum", "\n", "  "
+    };
+
+    /**
+     * 生成接近真实论坛帖子的BBCode
+     */
+    static String forumPost(int targetLength) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(targetLength + 256);
+        while (sb.length() < targetLength) {
+            switch (random.nextInt(12)) {
+                case 0:
+                    sb.append("[b]").append(words(random, 3)).append("[/b] ");
+                    break;
+                case 1:
+                    sb.append("[i]").append(words(random, 2)).append("[/i] ");
+                    break;
+                case 2:
+                    sb.append("[url=https://example.com/t/").append(random.nextInt(100000)).append("]")
+                      .append(words(random, 2)).append("[/url] ");
+                    break;
+                case 3:
+                    sb.append("[img]https://img.example.com/").append(random.nextInt(1000)).append(".png[/img]\n");
+                    break;
+                case 4:
+                    sb.append("[quote]").append(words(random, 12)).append("[/quote]\n");
+                    break;
+                case 5:
+                    sb.append("[list][*]").append(words(random, 3)).append("[*]").append(words(random, 3)).append("[/list]\n");
+                    break;
+                case 6:
+                    sb.append("[color=#FF0000]").append(words(random, 2)).append("[/color] ");
+                    break;
+                case 7:
+                    sb.append("[code]for (int i = 0; i < n; i++) { a[i] = b[i]; }[/code]\n");
+                    break;
+                case 8:
+                    sb.append("[table=100%][tr][td]").append(words(random, 1)).append("[/td][td]")
+                      .append(words(random, 1)).append("[/td][/tr][/table]\n");
+                    break;
+                default:
+                    sb.append(words(random, 20)).append('\n');
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String escapedWords(Random random, int count) {
+        return words(random, count).replace("&", "&amp;").replace("<", "&lt;");
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.guobao2333.bbcoeter.benchmarks;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.ast.ASTOptimizer;
+import io.github.guobao2333.bbcoeter.ast.FlatAST;
+import io.github.guobao2333.bbcoeter.parser.BBCodeParser;
+import io.github.guobao2333.bbcoeter.renderer.HTMLRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ASTNode对象树与FlatAST紧凑树的对比基准
+ * 配合 -prof gc 对比每次解析的分配量
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlatASTBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public Corpus corpus;
+
+    private final BBCodeParser parser = new BBCodeParser();
+    private final ASTOptimizer optimizer = new ASTOptimizer();
+    private final HTMLRenderer renderer = new HTMLRenderer();
+    private String input;
+
+    @Setup
+    public void setup() {
+        input = corpus.bbcode();
+    }
+
+    @Benchmark
+    public String objectTree() {
+        ASTNode ast = optimizer.optimize(parser.parse(input));
+        return renderer.render(ast);
+    }
+
+    @Benchmark
+    public String flatTree() {
+        FlatAST ast = optimizer.optimize(parser.parseFlat(input));
+        return renderer.render(ast);
+    }
+}
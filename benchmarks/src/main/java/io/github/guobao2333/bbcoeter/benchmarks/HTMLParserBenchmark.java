@@ -0,0 +1,44 @@
+package io.github.guobao2333.bbcoeter.benchmarks;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.dom.DOMAdapter;
+import io.github.guobao2333.bbcoeter.dom.JsoupDOMAdapter;
+import io.github.guobao2333.bbcoeter.dom.NativeDOMAdapter;
+import io.github.guobao2333.bbcoeter.parser.HTMLParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTMLParser 解析基准
+ * 对比Jsoup与内置的轻量DOM适配器，分配量用 -prof gc 查看
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HTMLParserBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE", "ADVERSARIAL", "NESTED_SOUP", "PASTED_HTML"})
+    public Corpus corpus;
+
+    @Param({"jsoup", "native"})
+    public String adapter;
+
+    private String input;
+    private HTMLParser parser;
+
+    @Setup
+    public void setup() {
+        input = corpus.html();
+        DOMAdapter domAdapter = adapter.equals("native") ? new NativeDOMAdapter() : new JsoupDOMAdapter();
+        parser = new HTMLParser(domAdapter);
+    }
+
+    @Benchmark
+    public ASTNode parse() {
+        return parser.parse(input);
+    }
+}
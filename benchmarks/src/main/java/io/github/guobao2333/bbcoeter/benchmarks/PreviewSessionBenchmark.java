@@ -0,0 +1,51 @@
+package io.github.guobao2333.bbcoeter.benchmarks;
+
+import io.github.guobao2333.bbcoeter.BBCodeConverter;
+import io.github.guobao2333.bbcoeter.PreviewSession;
+import io.github.guobao2333.bbcoeter.dom.JsoupDOMAdapter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编辑器预览基准：在草稿中间输入一个字符
+ * 对比每次完整转换与预览会话的增量转换，增量转换的耗时应不随草稿长度增长
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PreviewSessionBenchmark {
+
+    @Param({"4", "32", "256"})
+    public int draftKilobytes;
+
+    private String draft;
+    private int offset;
+    private BBCodeConverter converter;
+    private PreviewSession session;
+    private boolean inserted;
+
+    @Setup
+    public void setup() {
+        draft = Corpus.forumPost(draftKilobytes * 1024);
+        offset = draft.length() / 2;
+        converter = new BBCodeConverter(new JsoupDOMAdapter());
+        session = converter.newPreviewSession(draft);
+    }
+
+    @Benchmark
+    public String fullConversion() {
+        String edited = draft.substring(0, offset) + "x" + draft.substring(offset);
+        return converter.bbcodeToHtml(edited);
+    }
+
+    @Benchmark
+    public PreviewSession.Change incrementalEdit() {
+        // 交替插入和删除同一个字符，草稿长度保持不变
+        inserted = !inserted;
+        return inserted ? session.edit(offset, 0, "x") : session.edit(offset, 1, "");
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.guobao2333.bbcoeter.benchmarks;
+
+import io.github.guobao2333.bbcoeter.BBCodeConverter;
+import io.github.guobao2333.bbcoeter.cache.RenderCache;
+import io.github.guobao2333.bbcoeter.dom.JsoupDOMAdapter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 渲染缓存基准：按Zipf分布反复读取一组帖子，模拟热门帖子被频繁浏览
+ * cacheMegabytes为0时不启用缓存；工作集约为40MB，缓存只能容纳其中一部分
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderCacheBenchmark {
+
+    private static final int POSTS = 2000;
+    private static final int SAMPLES = 1 << 16;
+
+    @Param({"0", "4", "16"})
+    public int cacheMegabytes;
+
+    private String[] posts;
+    private int[] sequence;
+    private BBCodeConverter converter;
+    private RenderCache cache;
+
+    @Setup
+    public void setup() {
+        String body = Corpus.forumPost(4 * 1024);
+        posts = new String[POSTS];
+        for (int i = 0; i < POSTS; i++) {
+            posts[i] = "#" + i + "\n" + body;
+        }
+        sequence = zipf(POSTS, SAMPLES, 1.0, new Random(42));
+        BBCodeConverter.Builder builder = BBCodeConverter.builder(new JsoupDOMAdapter());
+        if (cacheMegabytes > 0) {
+            cache = new RenderCache(cacheMegabytes * 1024L * 1024L);
+            builder.renderCache(cache);
+        }
+        converter = builder.build();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String bbcodeToHtml(Cursor cursor) {
+        int index = sequence[cursor.next++ & (SAMPLES - 1)];
+        return converter.bbcodeToHtml(posts[index]);
+    }
+
+    @TearDown
+    public void report() {
+        if (cache != null) {
+            System.out.println();
+            System.out.println(cache.getStats() + String.format(" hitRate=%.3f", cache.getStats().getHitRate()));
+        }
+    }
+
+    /**
+     * 按Zipf分布抽样的下标序列，0号最热门
+     */
+    private static int[] zipf(int n, int samples, double exponent, Random random) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        int[] result = new int[samples];
+        for (int i = 0; i < samples; i++) {
+            double u = random.nextDouble() * sum;
+            int low = 0;
+            int high = n - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cdf[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            result[i] = low;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.guobao2333.bbcoeter.benchmarks;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.ast.ASTOptimizer;
+import io.github.guobao2333.bbcoeter.parser.BBCodeParser;
+import io.github.guobao2333.bbcoeter.renderer.BBCodeRenderer;
+import io.github.guobao2333.bbcoeter.renderer.HTMLRenderer;
+import io.github.guobao2333.bbcoeter.renderer.MarkdownRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各渲染器的渲染基准，输入为已优化的AST
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RendererBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE", "ADVERSARIAL"})
+    public Corpus corpus;
+
+    private ASTNode ast;
+    private final HTMLRenderer htmlRenderer = new HTMLRenderer();
+    private final BBCodeRenderer bbcodeRenderer = new BBCodeRenderer();
+    private final MarkdownRenderer markdownRenderer = new MarkdownRenderer();
+    // 模拟HTTP响应体，每次调用前清空，容量在调用之间保留
+    private final ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+    @Setup
+    public void setup() {
+        ast = new ASTOptimizer().optimize(new BBCodeParser().parse(corpus.bbcode()));
+    }
+
+    @Benchmark
+    public String html() {
+        return htmlRenderer.render(ast);
+    }
+
+    @Benchmark
+    public String bbcode() {
+        return bbcodeRenderer.render(ast);
+    }
+
+    @Benchmark
+    public String markdown() {
+        return markdownRenderer.render(ast);
+    }
+
+    /**
+     * 先渲染为String再编码为UTF-8写入响应
+     */
+    @Benchmark
+    public int htmlThenEncode() throws IOException {
+        response.reset();
+        response.write(htmlRenderer.render(ast).getBytes(StandardCharsets.UTF_8));
+        return response.size();
+    }
+
+    /**
+     * 直接以UTF-8字节写入响应
+     */
+    @Benchmark
+    public int htmlUtf8() throws IOException {
+        response.reset();
+        htmlRenderer.render(ast, response);
+        return response.size();
+    }
+}
@@ -0,0 +1,576 @@
+package io.github.guobao2333.bbcoeter;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.dom.DOMAdapter;
+import io.github.guobao2333.bbcoeter.ast.ASTOptimizer;
+import io.github.guobao2333.bbcoeter.cache.RenderCache;
+import io.github.guobao2333.bbcoeter.parser.BBCodeListener;
+import io.github.guobao2333.bbcoeter.parser.BBCodeParser;
+import io.github.guobao2333.bbcoeter.parser.HTMLParser;
+import io.github.guobao2333.bbcoeter.parser.HTMLSanitizer;
+import io.github.guobao2333.bbcoeter.renderer.BBCodeRenderer;
+import io.github.guobao2333.bbcoeter.renderer.HTMLRenderer;
+import io.github.guobao2333.bbcoeter.renderer.Utf8Output;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 统一BBCode转换器 - 整合所有功能
+ * 这是对外暴露的主要API
+ * 实例不可变，解析器和渲染器不保存每次调用的状态，可在所有线程间共享
+ */
+public class BBCodeConverter {
+    private final DOMAdapter domAdapter;
+    private final BBCodeParser bbcodeParser;
+    private final HTMLParser htmlParser;
+    private final BBCodeRenderer bbcodeRenderer;
+    private final HTMLRenderer htmlRenderer;
+    private final ASTOptimizer optimizer;
+    
+    // 流式输出时的缓冲区大小（字符）
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+    // 批量转换时每个工作线程平均分到的任务块数，用于负载均衡
+    private static final int BATCH_SPLITS_PER_WORKER = 4;
+    
+    // 配置选项
+    private final boolean allowBBCode;
+    private final boolean allowHTML;
+    private final boolean allowImgCode;
+    private final boolean escapeHtmlInOutput;
+    private final boolean optimizeAST;
+    private final ForkJoinPool pool;
+    private final HTMLSanitizer sanitizer;
+    // 渲染缓存，为null时不缓存
+    private final RenderCache cache;
+    // 缓存键中的转换方向和配置
+    private final String bbcodeToHtmlVariant;
+    private final String htmlToBBCodeVariant;
+    
+    /**
+     * 构造函数，使用默认配置
+     * @param domAdapter DOM适配器实现
+     */
+    public BBCodeConverter(DOMAdapter domAdapter) {
+        this(builder(domAdapter));
+    }
+    
+    private BBCodeConverter(Builder builder) {
+        this.domAdapter = Objects.requireNonNull(builder.domAdapter, "DOMAdapter cannot be null");
+        this.allowBBCode = builder.allowBBCode;
+        this.allowHTML = builder.allowHTML;
+        this.allowImgCode = builder.allowImgCode;
+        this.escapeHtmlInOutput = builder.escapeHtmlInOutput;
+        this.optimizeAST = builder.optimizeAST;
+        this.pool = builder.pool != null ? builder.pool : ForkJoinPool.commonPool();
+        this.sanitizer = builder.sanitizer;
+        this.cache = builder.cache;
+        String config = "bbcode=" + allowBBCode + ",html=" + allowHTML + ",img=" + allowImgCode
+            + ",escape=" + escapeHtmlInOutput + ",optimize=" + optimizeAST
+            + ",dom=" + domAdapter.getClass().getName() + ",sanitizer=" + sanitizer;
+        // 配置相同的转换器得到同一个字符串实例，键比较时直接命中引用相等
+        this.bbcodeToHtmlVariant = ("bbcode>html;" + config).intern();
+        this.htmlToBBCodeVariant = ("html>bbcode;" + config).intern();
+        // 启用优化时由解析器在构建过程中完成，不再单独遍历一次
+        this.bbcodeParser = new BBCodeParser(optimizeAST);
+        this.htmlParser = new HTMLParser(domAdapter, optimizeAST, sanitizer);
+        this.bbcodeRenderer = new BBCodeRenderer();
+        this.htmlRenderer = new HTMLRenderer(escapeHtmlInOutput);
+        this.optimizer = new ASTOptimizer();
+    }
+    
+    /**
+     * 创建转换器构建器
+     * @param domAdapter DOM适配器实现
+     */
+    public static Builder builder(DOMAdapter domAdapter) {
+        return new Builder(domAdapter);
+    }
+    
+    /**
+     * 以当前配置为基础创建构建器，用于派生不同配置的转换器
+     */
+    public Builder toBuilder() {
+        return new Builder(domAdapter)
+            .allowBBCode(allowBBCode)
+            .allowHTML(allowHTML)
+            .allowImgCode(allowImgCode)
+            .escapeHtmlInOutput(escapeHtmlInOutput)
+            .optimizeAST(optimizeAST)
+            .forkJoinPool(pool)
+            .htmlSanitizer(sanitizer)
+            .renderCache(cache);
+    }
+    
+    /**
+     * BBCode转HTML - 核心方法
+     * @param bbcode BBCode字符串
+     * @return HTML字符串
+     */
+    public String bbcodeToHtml(String bbcode) {
+        if (bbcode == null || bbcode.isEmpty()) return bbcode;
+        
+        if (cache != null) {
+            return cache.get(bbcodeToHtmlVariant, bbcode, this::convertBBCodeToHtml);
+        }
+        return convertBBCodeToHtml(bbcode);
+    }
+    
+    private String convertBBCodeToHtml(String bbcode) {
+        // 阶段1: 解析BBCode为AST
+        ASTNode ast = bbcodeParser.parse(bbcode);
+        
+        // 阶段2: 优化AST（可选，构建时已优化则跳过）
+        ast = optimize(ast);
+        
+        // 阶段3: 渲染为HTML
+        return htmlRenderer.render(ast);
+    }
+    
+    /**
+     * 批量BBCode转HTML，在配置的ForkJoinPool中并行执行
+     * 结果顺序与输入一致，单条内容出错不会中断整个批次
+     * @param posts BBCode内容列表
+     * @return 与输入一一对应的转换结果
+     */
+    public List<ConversionResult> convertAll(List<String> posts) {
+        Objects.requireNonNull(posts, "Posts cannot be null");
+        ConversionResult[] results = new ConversionResult[posts.size()];
+        if (results.length > 0) {
+            int threshold = Math.max(1, results.length / (pool.getParallelism() * BATCH_SPLITS_PER_WORKER));
+            pool.invoke(new BatchTask(posts, results, 0, results.length, threshold));
+        }
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * 批量BBCode转HTML的Stream版本，在配置的ForkJoinPool中以并行流执行
+     * 结果顺序与流的遇到顺序一致，单条内容出错不会中断整个批次
+     * @param posts BBCode内容流
+     * @return 与输入一一对应的转换结果
+     */
+    public List<ConversionResult> convertAll(Stream<String> posts) {
+        Objects.requireNonNull(posts, "Posts cannot be null");
+        // 在目标池的任务中执行并行流，流的拆分会使用该池的工作线程
+        return pool.submit(() -> posts.parallel()
+                .map(this::convertSafely)
+                .collect(Collectors.toList()))
+            .join();
+    }
+    
+    private ConversionResult convertSafely(String bbcode) {
+        try {
+            return ConversionResult.success(bbcodeToHtml(bbcode));
+        } catch (RuntimeException | StackOverflowError e) {
+            return ConversionResult.failure(e);
+        }
+    }
+    
+    /**
+     * 批量转换任务，按下标区间二分拆分
+     */
+    private class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        // 任务只在当前ForkJoinPool中执行，不会被序列化
+        private final transient List<String> posts;
+        private final transient ConversionResult[] results;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        
+        BatchTask(List<String> posts, ConversionResult[] results, int from, int to, int threshold) {
+            this.posts = posts;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    results[i] = convertSafely(posts.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchTask(posts, results, from, mid, threshold),
+                      new BatchTask(posts, results, mid, to, threshold));
+        }
+    }
+    
+    /**
+     * BBCode转HTML - 流式输出版本，结果直接写入writer（如Servlet响应流）
+     * 输出经过有界缓冲，完成后writer会被flush但不会被关闭
+     * @param bbcode BBCode内容
+     * @param writer 输出目标
+     */
+    public void bbcodeToHtml(CharSequence bbcode, Writer writer) throws IOException {
+        Objects.requireNonNull(writer, "Writer cannot be null");
+        if (bbcode == null || bbcode.length() == 0) return;
+        
+        if (cache != null) {
+            // 启用缓存时需要完整的输出字符串才能写入缓存
+            writer.write(bbcodeToHtml(bbcode.toString()));
+            writer.flush();
+            return;
+        }
+        
+        ASTNode ast = bbcodeParser.parse(bbcode.toString());
+        
+        ast = optimize(ast);
+        
+        Writer out = buffered(writer);
+        htmlRenderer.render(ast, out);
+        out.flush();
+    }
+    
+    /**
+     * BBCode转HTML - UTF-8字节输出版本，编码后直接写入流（如HTTP响应体），不生成中间的String
+     * 完成后流会被flush但不会被关闭
+     * @param bbcode BBCode内容
+     * @param out 输出流
+     */
+    public void bbcodeToHtml(CharSequence bbcode, OutputStream out) throws IOException {
+        Objects.requireNonNull(out, "OutputStream cannot be null");
+        if (bbcode == null || bbcode.length() == 0) return;
+        
+        if (cache != null) {
+            Utf8Output utf8 = new Utf8Output(out);
+            utf8.append(bbcodeToHtml(bbcode.toString()));
+            utf8.flush();
+            return;
+        }
+        
+        ASTNode ast = bbcodeParser.parse(bbcode.toString());
+        
+        ast = optimize(ast);
+        
+        htmlRenderer.render(ast, out);
+    }
+    
+    /**
+     * BBCode转HTML - UTF-8字节输入输出版本，直接在字节上解析，文本不解码，原样复制到输出
+     * 适合内容本身以UTF-8存储的场景；启用缓存时先解码为字符串再使用缓存
+     * 完成后流会被flush但不会被关闭
+     * @param utf8 UTF-8编码的BBCode内容
+     * @param out 输出流
+     */
+    public void bbcodeToHtml(byte[] utf8, OutputStream out) throws IOException {
+        Objects.requireNonNull(out, "OutputStream cannot be null");
+        if (utf8 == null || utf8.length == 0) return;
+        
+        if (cache != null) {
+            bbcodeToHtml(new String(utf8, StandardCharsets.UTF_8), out);
+            return;
+        }
+        
+        ASTNode ast = bbcodeParser.parse(utf8);
+        
+        ast = optimize(ast);
+        
+        htmlRenderer.render(ast, out);
+    }
+    
+    /**
+     * BBCode转HTML - 解析ByteBuffer剩余部分的UTF-8字节，写入调用方提供的输出目标
+     * 输出为Utf8Output时文本直接复制字节；批量转换时可以在多条内容之间复用同一个输出目标
+     * 不改变ByteBuffer的位置，也不会flush输出目标
+     * @param utf8 UTF-8编码的BBCode内容
+     * @param out 输出目标
+     */
+    public void bbcodeToHtml(ByteBuffer utf8, Appendable out) throws IOException {
+        Objects.requireNonNull(out, "Appendable cannot be null");
+        if (utf8 == null || !utf8.hasRemaining()) return;
+        
+        if (cache != null) {
+            byte[] bytes = new byte[utf8.remaining()];
+            utf8.duplicate().get(bytes);
+            out.append(bbcodeToHtml(new String(bytes, StandardCharsets.UTF_8)));
+            return;
+        }
+        
+        ASTNode ast = bbcodeParser.parse(utf8);
+        
+        ast = optimize(ast);
+        
+        htmlRenderer.render(ast, out);
+    }
+    
+    /**
+     * 创建编辑器实时预览会话，之后每次编辑只重新解析受影响的顶层区域
+     * 会话的输出与bbcodeToHtml相同，但不经过渲染缓存
+     * @param bbcode 初始内容，可以为null
+     */
+    public PreviewSession newPreviewSession(String bbcode) {
+        return new PreviewSession(bbcodeParser, this::convertBBCodeToHtml, bbcode);
+    }
+
+    /**
+     * HTML转BBCode - 核心方法
+     * @param html HTML字符串
+     * @return BBCode字符串
+     */
+    public String htmlToBBCode(String html) {
+        if (html == null || html.isEmpty()) return html;
+        
+        if (cache != null) {
+            return cache.get(htmlToBBCodeVariant, html, this::convertHtmlToBBCode);
+        }
+        return convertHtmlToBBCode(html);
+    }
+    
+    private String convertHtmlToBBCode(String html) {
+        // 阶段1: 解析HTML为AST
+        ASTNode ast = htmlParser.parse(html);
+        
+        // 阶段2: 优化AST（可选，构建时已优化则跳过）
+        ast = optimize(ast);
+        
+        // 阶段3: 渲染为BBCode
+        return bbcodeRenderer.render(ast);
+    }
+    
+    /**
+     * HTML转BBCode - 已解析文档版本，调用方已有文档时避免重复解析
+     * 例如 converter.htmlToBBCode(JsoupDOMAdapter.wrap(jsoupDocument))；结果不经过渲染缓存
+     * @param document 已解析的HTML文档，不会被修改
+     * @return BBCode字符串
+     */
+    public String htmlToBBCode(DOMAdapter.DOMDocument document) {
+        ASTNode ast = htmlParser.parse(document);
+        
+        ast = optimize(ast);
+        
+        return bbcodeRenderer.render(ast);
+    }
+    
+    /**
+     * HTML转BBCode - 流式输出版本，结果直接写入writer
+     * 输出经过有界缓冲，完成后writer会被flush但不会被关闭
+     * @param html HTML内容
+     * @param writer 输出目标
+     */
+    public void htmlToBBCode(CharSequence html, Writer writer) throws IOException {
+        Objects.requireNonNull(writer, "Writer cannot be null");
+        if (html == null || html.length() == 0) return;
+        
+        if (cache != null) {
+            writer.write(htmlToBBCode(html.toString()));
+            writer.flush();
+            return;
+        }
+        
+        ASTNode ast = htmlParser.parse(html.toString());
+        
+        ast = optimize(ast);
+        
+        Writer out = buffered(writer);
+        bbcodeRenderer.render(ast, out);
+        out.flush();
+    }
+    
+    /**
+     * 解析为AST（用于调试或进一步处理）
+     * @param input 输入字符串
+     * @param format 格式类型 ("bbcode" 或 "html")
+     * @return AST根节点
+     */
+    public ASTNode parseToAST(String input, String format) {
+        if (input == null || input.isEmpty()) {
+            return new ASTNode(ASTNode.NodeType.DOCUMENT);
+        }
+        
+        ASTNode ast;
+        if ("bbcode".equalsIgnoreCase(format)) {
+            ast = bbcodeParser.parse(input);
+        } else if ("html".equalsIgnoreCase(format)) {
+            ast = htmlParser.parse(input);
+        } else {
+            throw new IllegalArgumentException("Unsupported format: " + format + ". Use 'bbcode' or 'html'.");
+        }
+        
+        ast = optimize(ast);
+        
+        return ast;
+    }
+    
+    /**
+     * 按配置优化AST，已标记为优化过的树直接返回
+     */
+    private ASTNode optimize(ASTNode ast) {
+        if (optimizeAST && !ast.isOptimized()) {
+            return optimizer.optimize(ast);
+        }
+        return ast;
+    }
+    
+    /**
+     * 以事件方式解析BBCode，不构建AST（用于统计链接、提取文本等单遍处理）
+     * @param bbcode BBCode字符串
+     * @param listener 事件监听器
+     */
+    public void parseBBCode(String bbcode, BBCodeListener listener) {
+        bbcodeParser.parse(bbcode, listener);
+    }
+    
+    /**
+     * 从AST渲染为指定格式
+     * @param ast AST根节点
+     * @param format 目标格式 ("bbcode" 或 "html")
+     * @return 渲染后的字符串
+     */
+    public String renderFromAST(ASTNode ast, String format) {
+        if (ast == null) {
+            return "";
+        }
+        
+        ast = optimize(ast);
+        
+        if ("bbcode".equalsIgnoreCase(format)) {
+            return bbcodeRenderer.render(ast);
+        } else if ("html".equalsIgnoreCase(format)) {
+            return htmlRenderer.render(ast);
+        } else {
+            throw new IllegalArgumentException("Unsupported format: " + format + ". Use 'bbcode' or 'html'.");
+        }
+    }
+    
+    private static Writer buffered(Writer writer) {
+        return writer instanceof BufferedWriter ? writer : new BufferedWriter(writer, OUTPUT_BUFFER_SIZE);
+    }
+    
+    // ============ 配置 ============
+    
+    public boolean isAllowBBCode() {
+        return allowBBCode;
+    }
+    
+    public boolean isAllowHTML() {
+        return allowHTML;
+    }
+    
+    public boolean isAllowImgCode() {
+        return allowImgCode;
+    }
+    
+    public boolean isEscapeHtmlInOutput() {
+        return escapeHtmlInOutput;
+    }
+    
+    public boolean isOptimizeAST() {
+        return optimizeAST;
+    }
+    
+    public ForkJoinPool getForkJoinPool() {
+        return pool;
+    }
+    
+    public HTMLSanitizer getHtmlSanitizer() {
+        return sanitizer;
+    }
+    
+    /**
+     * 渲染缓存，未启用时为null
+     */
+    public RenderCache getRenderCache() {
+        return cache;
+    }
+    
+    /**
+     * BBCode转HTML的配置指纹：库版本和影响输出的全部配置
+     * 指纹相同的转换器对同一输入产生相同的输出，可用于判断已保存的转换结果是否需要重新生成。
+     * 不是从jar中加载（没有Implementation-Version）时版本记为dev，此时升级库不会改变指纹
+     */
+    public String getBbcodeToHtmlFingerprint() {
+        String version = BBCodeConverter.class.getPackage().getImplementationVersion();
+        return "bbcoeter " + (version != null ? version : "dev") + ";" + bbcodeToHtmlVariant;
+    }
+    
+    /**
+     * 转换器构建器
+     */
+    public static class Builder {
+        private final DOMAdapter domAdapter;
+        private boolean allowBBCode = true;
+        private boolean allowHTML = false;
+        private boolean allowImgCode = true;
+        private boolean escapeHtmlInOutput = true;
+        private boolean optimizeAST = true;
+        private ForkJoinPool pool;
+        private HTMLSanitizer sanitizer = HTMLSanitizer.DEFAULT;
+        private RenderCache cache;
+        
+        private Builder(DOMAdapter domAdapter) {
+            this.domAdapter = Objects.requireNonNull(domAdapter, "DOMAdapter cannot be null");
+        }
+        
+        public Builder allowBBCode(boolean allowBBCode) {
+            this.allowBBCode = allowBBCode;
+            return this;
+        }
+        
+        public Builder allowHTML(boolean allowHTML) {
+            this.allowHTML = allowHTML;
+            return this;
+        }
+        
+        public Builder allowImgCode(boolean allowImgCode) {
+            this.allowImgCode = allowImgCode;
+            return this;
+        }
+        
+        public Builder escapeHtmlInOutput(boolean escapeHtmlInOutput) {
+            this.escapeHtmlInOutput = escapeHtmlInOutput;
+            return this;
+        }
+        
+        public Builder optimizeAST(boolean optimizeAST) {
+            this.optimizeAST = optimizeAST;
+            return this;
+        }
+        
+        /**
+         * 批量转换使用的线程池，默认为公共池
+         */
+        public Builder forkJoinPool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+        
+        /**
+         * HTML转BBCode时应用的清理策略，默认为HTMLSanitizer.DEFAULT
+         */
+        public Builder htmlSanitizer(HTMLSanitizer sanitizer) {
+            this.sanitizer = Objects.requireNonNull(sanitizer, "Sanitizer cannot be null");
+            return this;
+        }
+        
+        /**
+         * 启用渲染缓存，bbcodeToHtml和htmlToBBCode会先查询缓存
+         * 同一个缓存可以在多个转换器之间共享，不同配置的结果互不影响
+         * @param cache 渲染缓存，为null时不缓存
+         */
+        public Builder renderCache(RenderCache cache) {
+            this.cache = cache;
+            return this;
+        }
+        
+        public BBCodeConverter build() {
+            return new BBCodeConverter(this);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import io.github.guobao2333.bbcoeter.dom.DOMAdapter;
 import io.github.guobao2333.bbcoeter.dom.JsoupDOMAdapter;
 import io.github.guobao2333.bbcoeter.renderer.MarkdownRenderer;
 
+import java.util.Arrays;
+
 /**
  * 使用示例和测试
  */
@@ -14,10 +16,11 @@ public class BBCodeConverterExample {
     public static String main(String str) {
 
         DOMAdapter adapter = new JsoupDOMAdapter();
-        BBCodeConverter converter = new BBCodeConverter(adapter);
 
         // 配置
-        converter.setEscapeHtmlInOutput(true);
+        BBCodeConverter converter = BBCodeConverter.builder(adapter)
+            .escapeHtmlInOutput(true)
+            .build();
 
         // 示例1: BBCode转HTML
         String html = demonstrateBBCodeToHTML(converter, str);
@@ -108,7 +111,9 @@ public class BBCodeConverterExample {
     }
 
     private static void printAST(ASTNode node, int depth) {
-        String indent = "  ".repeat(depth);
+        char[] spaces = new char[depth * 2];
+        Arrays.fill(spaces, ' ');
+        String indent = new String(spaces);
         String content = node.getContent().isEmpty() ? "" : " [" + 
                         (node.getContent().length() > 20 ? 
                          node.getContent().substring(0, 20) + "..." : 
@@ -0,0 +1,48 @@
+package io.github.guobao2333.bbcoeter;
+
+/**
+ * 批量转换中单条内容的结果
+ * 成功时包含输出，失败时包含异常，单条失败不会影响整个批次
+ */
+public final class ConversionResult {
+    private final String output;
+    private final Throwable error;
+
+    private ConversionResult(String output, Throwable error) {
+        this.output = output;
+        this.error = error;
+    }
+
+    public static ConversionResult success(String output) {
+        return new ConversionResult(output, null);
+    }
+
+    public static ConversionResult failure(Throwable error) {
+        return new ConversionResult(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * 转换输出，失败时为null
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * 失败原因，成功时为null
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess()
+            ? "ConversionResult{output=" + (output != null && output.length() > 20 ? output.substring(0, 20) + "..." : output) + "}"
+            : "ConversionResult{error=" + error + "}";
+    }
+}
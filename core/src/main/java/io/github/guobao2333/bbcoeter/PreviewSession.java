@@ -0,0 +1,268 @@
+package io.github.guobao2333.bbcoeter;
+
+import io.github.guobao2333.bbcoeter.parser.BBCodeLexer;
+import io.github.guobao2333.bbcoeter.parser.BBCodeParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * 编辑器实时预览会话 - 增量BBCode转HTML
+ *
+ * 文档按顶层分段点（标签栈为空时出现的已知开放标签）切分，每段保存源文本长度和渲染结果。
+ * 编辑后只从受影响的分段开始重新解析，遇到编辑之后、且与原分段点重合的分段点即停止，
+ * 其后的分段原样复用。因此单个字符的编辑只重新解析所在的顶层区域，耗时不随文档增长；
+ * 只有改变了标签结构的编辑（例如插入一个未闭合的开放标签）才会影响到文档末尾。
+ *
+ * 输出与BBCodeConverter.bbcodeToHtml相同。实例保存编辑状态，不是线程安全的，每个编辑器一个。
+ */
+public final class PreviewSession {
+    // 查找分段点时一次复制的编辑后文本长度
+    private static final int WINDOW_SIZE = 4096;
+
+    private final BBCodeParser parser;
+    private final Function<String, String> converter;
+    private final List<Segment> segments = new ArrayList<>();
+    // 编辑在原处进行，不必每次复制整篇文档
+    private final StringBuilder text = new StringBuilder();
+    // 完整输出，编辑后失效，需要时再拼接
+    private String html = "";
+
+    PreviewSession(BBCodeParser parser, Function<String, String> converter, String text) {
+        this.parser = parser;
+        this.converter = converter;
+        if (text != null && !text.isEmpty()) {
+            edit(0, 0, text);
+        }
+    }
+
+    /**
+     * 应用一次文本编辑
+     * @param offset 编辑位置
+     * @param removedLength 删除的字符数
+     * @param inserted 插入的文本
+     * @return HTML的变化：在原输出的htmlOffset处，以新片段替换removedLength个字符
+     */
+    public Change edit(int offset, int removedLength, String inserted) {
+        Objects.requireNonNull(inserted, "inserted cannot be null");
+        if (offset < 0 || removedLength < 0 || offset + removedLength > text.length()) {
+            throw new IndexOutOfBoundsException(
+                "offset " + offset + ", removedLength " + removedLength + ", length " + text.length());
+        }
+
+        // 编辑可能与前一个词法单元相连（例如补全了"[b"的右括号），从包含offset-1的分段开始
+        int first = 0;
+        int start = 0;
+        int htmlOffset = 0;
+        while (first < segments.size() && start + segments.get(first).length < offset) {
+            Segment segment = segments.get(first);
+            start += segment.length;
+            htmlOffset += segment.html.length();
+            first++;
+        }
+        // 编辑落在分段开头的标签内时，该位置不一定还是分段点，改从前一个分段开始
+        if (first > 0 && first < segments.size() && offset < start + segments.get(first).tagLength) {
+            first--;
+            Segment previous = segments.get(first);
+            start -= previous.length;
+            htmlOffset -= previous.html.length();
+        }
+
+        text.replace(offset, offset + removedLength, inserted);
+        int length = text.length();
+        int editEnd = offset + inserted.length();
+
+        // 只复制从start开始的一段文本来查找分段点，找不到重合的分段点时加倍扩大范围
+        String window;
+        Resync resync;
+        int limit = Math.min(length, editEnd + WINDOW_SIZE);
+        while (true) {
+            window = text.substring(start, limit);
+            resync = new Resync(first, start, editEnd, inserted.length() - removedLength);
+            parser.findTopLevelBoundaries(window, 0, resync);
+            if (resync.matched || limit == length) {
+                break;
+            }
+            limit = (int) Math.min(length, start + 2L * (limit - start));
+        }
+        int end = resync.matched ? resync.resyncAt : length;
+        int last = resync.matched ? resync.index : segments.size();
+
+        // 重新解析并渲染[start, end)之间的分段
+        List<Segment> replacement = new ArrayList<>(resync.count + 1);
+        StringBuilder fragment = new StringBuilder();
+        int from = start;
+        for (int i = 0; i <= resync.count; i++) {
+            int to = i < resync.count ? resync.boundaries[i] : end;
+            if (to > from) {
+                String source = window.substring(from - start, to - start);
+                String output = converter.apply(source);
+                replacement.add(new Segment(source, output));
+                fragment.append(output);
+            }
+            from = to;
+        }
+
+        List<Segment> replaced = segments.subList(first, last);
+        int removedHtml = 0;
+        for (Segment segment : replaced) {
+            removedHtml += segment.html.length();
+        }
+        replaced.clear();
+        segments.addAll(first, replacement);
+        html = null;
+        return new Change(htmlOffset, removedHtml, fragment.toString());
+    }
+
+    /**
+     * 以新内容替换整个文档，与原内容相同的前后部分仍会复用
+     */
+    public Change setText(String text) {
+        return edit(0, this.text.length(), text != null ? text : "");
+    }
+
+    public String getText() {
+        return text.toString();
+    }
+
+    /**
+     * 当前文档的完整HTML
+     */
+    public String getHtml() {
+        if (html == null) {
+            int length = 0;
+            for (Segment segment : segments) {
+                length += segment.html.length();
+            }
+            StringBuilder sb = new StringBuilder(length);
+            for (Segment segment : segments) {
+                sb.append(segment.html);
+            }
+            html = sb.toString();
+        }
+        return html;
+    }
+
+    /**
+     * 顶层分段数
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * 一次编辑引起的HTML变化
+     */
+    public static final class Change {
+        private final int htmlOffset;
+        private final int removedLength;
+        private final String html;
+
+        Change(int htmlOffset, int removedLength, String html) {
+            this.htmlOffset = htmlOffset;
+            this.removedLength = removedLength;
+            this.html = html;
+        }
+
+        /**
+         * 变化在编辑前输出中的起始位置
+         */
+        public int getHtmlOffset() {
+            return htmlOffset;
+        }
+
+        /**
+         * 编辑前输出中被替换的字符数
+         */
+        public int getRemovedLength() {
+            return removedLength;
+        }
+
+        /**
+         * 替换进去的HTML片段
+         */
+        public String getHtml() {
+            return html;
+        }
+
+        /**
+         * 把变化应用到编辑前的输出上
+         */
+        public String applyTo(String previousHtml) {
+            return previousHtml.substring(0, htmlOffset) + html + previousHtml.substring(htmlOffset + removedLength);
+        }
+
+        @Override
+        public String toString() {
+            return "Change{htmlOffset=" + htmlOffset + ", removedLength=" + removedLength
+                + ", html=" + (html.length() > 20 ? html.substring(0, 20) + "..." : html) + "}";
+        }
+    }
+
+    private static final class Segment {
+        final int length;
+        // 开头标签的长度，编辑落在其中时分段点可能失效
+        final int tagLength;
+        final String html;
+
+        Segment(String source, String html) {
+            BBCodeLexer lexer = new BBCodeLexer(source);
+            lexer.next();
+            this.length = source.length();
+            this.tagLength = lexer.getEnd();
+            this.html = html;
+        }
+    }
+
+    /**
+     * 收集新的分段点，直到找到编辑之后与原分段点重合的位置
+     */
+    private final class Resync implements IntPredicate {
+        // 查找范围在编辑后文本中的起始位置
+        private final int base;
+        private final int editEnd;
+        private final int delta;
+        // 下一个待比较的原分段及其在原文中的起始位置
+        int index;
+        int oldStart;
+        int[] boundaries = new int[8];
+        int count;
+        boolean matched;
+        int resyncAt;
+
+        Resync(int index, int oldStart, int editEnd, int delta) {
+            this.base = oldStart;
+            this.index = index;
+            this.oldStart = oldStart;
+            this.editEnd = editEnd;
+            this.delta = delta;
+        }
+
+        @Override
+        public boolean test(int relative) {
+            int boundary = base + relative;
+            if (boundary >= editEnd) {
+                // 之后的文本与原文相同，分段点对应原文的boundary - delta
+                int oldBoundary = boundary - delta;
+                while (index < segments.size() && oldStart < oldBoundary) {
+                    oldStart += segments.get(index).length;
+                    index++;
+                }
+                if (index < segments.size() && oldStart == oldBoundary) {
+                    matched = true;
+                    resyncAt = boundary;
+                    return false;
+                }
+            }
+            if (count == boundaries.length) {
+                boundaries = Arrays.copyOf(boundaries, count * 2);
+            }
+            boundaries[count++] = boundary;
+            return true;
+        }
+    }
+}
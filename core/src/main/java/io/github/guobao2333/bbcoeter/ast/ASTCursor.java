@@ -0,0 +1,56 @@
+package io.github.guobao2333.bbcoeter.ast;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode.NodeType;
+
+/**
+ * AST只读游标 - 渲染器遍历树的统一接口
+ * 对象树（ASTNode）和紧凑树（FlatAST）都提供实现，渲染器不依赖具体的树结构。
+ * 游标只能在起始节点的子树内移动。
+ */
+public interface ASTCursor {
+
+    /**
+     * 当前节点类型
+     */
+    NodeType getType();
+
+    /**
+     * 当前节点内容
+     */
+    String getContent();
+
+    /**
+     * 当前节点内容，可能直接指向源文本，不要求拼接成String
+     */
+    CharSequence getContentSequence();
+
+    /**
+     * 当前节点的属性值，不存在时返回null
+     */
+    String getAttribute(String key);
+
+    boolean hasAttribute(String key);
+
+    /**
+     * 当前节点的已知属性值，不存在时返回null
+     */
+    String getAttribute(AttributeKey key);
+
+    /**
+     * 移动到第一个子节点
+     * @return 没有子节点时返回false，游标位置不变
+     */
+    boolean firstChild();
+
+    /**
+     * 移动到下一个兄弟节点
+     * @return 没有兄弟节点时返回false，游标位置不变
+     */
+    boolean nextSibling();
+
+    /**
+     * 移动到父节点
+     * @return 已在起始节点时返回false，游标位置不变
+     */
+    boolean parent();
+}
@@ -0,0 +1,259 @@
+package io.github.guobao2333.bbcoeter.ast;
+
+import java.util.*;
+
+/**
+ * 统一AST节点定义
+ * 这是所有格式转换的中间表示
+ */
+public class ASTNode {
+    /**
+     * 节点类型枚举
+     */
+    public enum NodeType {
+        DOCUMENT,      // 文档根节点
+        PARAGRAPH,     // 段落
+        TEXT,          // 纯文本
+        BOLD,          // 粗体
+        ITALIC,        // 斜体
+        UNDERLINE,     // 下划线
+        STRIKETHROUGH, // 删除线
+        LINK,          // 链接
+        IMAGE,         // 图片
+        CODE_BLOCK,    // 代码块
+        CODE_INLINE,   // 行内代码
+        QUOTE,         // 引用
+        LIST,          // 列表
+        LIST_ITEM,     // 列表项
+        TABLE,         // 表格
+        TABLE_ROW,     // 表格行
+        TABLE_CELL,    // 表格单元格
+        LINEBREAK,     // 换行
+        HORIZONTAL_RULE, // 水平线
+        FONT,          // 字体样式
+        COLOR,         // 颜色
+        SIZE,          // 字号
+        HTML_RAW       // 原始HTML
+    }
+    
+    private final NodeType type;
+    // String，或解析时指向源文本的TextContent，按字节解析时为Utf8Text
+    private CharSequence content;
+    // 已知属性的槽位（按AttributeKey序号），首次设置时分配
+    private String[] typedAttributes;
+    // 其他属性，首次设置时分配
+    private Map<String, String> extraAttributes;
+    private final List<ASTNode> children;
+    private ASTNode parent;
+    // 子树已经由ASTOptimizer的规则优化过
+    private boolean optimized;
+    // 子树对应的源文本长度，渲染器据此预估输出大小，0表示未知
+    private int sizeHint;
+    
+    public ASTNode(NodeType type) {
+        this.type = Objects.requireNonNull(type, "Node type cannot be null");
+        this.content = "";
+        this.children = new ArrayList<>();
+    }
+    
+    public ASTNode(NodeType type, String content) {
+        this(type);
+        this.content = content != null ? content : "";
+    }
+    
+    // Public getters
+    public NodeType getType() { 
+        return type; 
+    }
+    
+    public String getContent() { 
+        if (!(content instanceof String)) {
+            content = content.toString();
+        }
+        return (String) content; 
+    }
+    
+    /**
+     * 节点内容，不会把源文本片段拼接成String
+     */
+    public CharSequence getContentSequence() {
+        return content;
+    }
+    
+    /**
+     * 在内容后追加源文本片段，不复制字符
+     */
+    public void appendContent(CharSequence text, int start, int end) {
+        if (end <= start) {
+            return;
+        }
+        if (content instanceof TextContent) {
+            ((TextContent) content).append(text, start, end);
+        } else if (content.length() == 0) {
+            // 完整的字节文本直接保留，UTF-8输出时可以原样复制字节
+            content = text instanceof Utf8Text && start == 0 && end == text.length()
+                    ? text : new TextContent(text, start, end);
+        } else {
+            TextContent merged = new TextContent(content, 0, content.length());
+            merged.append(text, start, end);
+            content = merged;
+        }
+    }
+    
+    /**
+     * 追加文本，与最后一个文本子节点相邻时直接合并
+     */
+    public void appendText(CharSequence text, int start, int end) {
+        if (end <= start) {
+            return;
+        }
+        if (!children.isEmpty()) {
+            ASTNode last = children.get(children.size() - 1);
+            if (last.type == NodeType.TEXT) {
+                last.appendContent(text, start, end);
+                return;
+            }
+        }
+        ASTNode node = new ASTNode(NodeType.TEXT);
+        node.appendContent(text, start, end);
+        appendChild(node);
+    }
+    
+    public void setContent(String content) { 
+        this.content = content != null ? content : ""; 
+    }
+    
+    /**
+     * 所有属性的只读快照，已知属性在前（按AttributeKey顺序），其他属性按插入顺序在后
+     */
+    public Map<String, String> getAttributes() { 
+        if (typedAttributes == null && extraAttributes == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> attributes = new LinkedHashMap<>();
+        if (typedAttributes != null) {
+            for (int i = 0; i < typedAttributes.length; i++) {
+                if (typedAttributes[i] != null) {
+                    attributes.put(AttributeKey.byOrdinal(i).getName(), typedAttributes[i]);
+                }
+            }
+        }
+        if (extraAttributes != null) {
+            attributes.putAll(extraAttributes);
+        }
+        return Collections.unmodifiableMap(attributes); 
+    }
+    
+    public void setAttribute(String key, String value) { 
+        if (key != null && value != null) {
+            AttributeKey typed = AttributeKey.of(key);
+            if (typed != null) {
+                setAttribute(typed, value);
+            } else {
+                if (extraAttributes == null) {
+                    extraAttributes = new LinkedHashMap<>();
+                }
+                extraAttributes.put(key, value); 
+            }
+        }
+    }
+    
+    public String getAttribute(String key) { 
+        AttributeKey typed = AttributeKey.of(key);
+        if (typed != null) {
+            return getAttribute(typed);
+        }
+        return extraAttributes != null ? extraAttributes.get(key) : null; 
+    }
+    
+    public boolean hasAttribute(String key) { 
+        return getAttribute(key) != null; 
+    }
+    
+    public void setAttribute(AttributeKey key, String value) {
+        if (key != null && value != null) {
+            if (typedAttributes == null) {
+                typedAttributes = new String[AttributeKey.count()];
+            }
+            typedAttributes[key.ordinal()] = value;
+        }
+    }
+    
+    public String getAttribute(AttributeKey key) {
+        return typedAttributes != null ? typedAttributes[key.ordinal()] : null;
+    }
+    
+    public boolean hasAttribute(AttributeKey key) {
+        return getAttribute(key) != null;
+    }
+    
+    public List<ASTNode> getChildren() { 
+        return Collections.unmodifiableList(children); 
+    }
+    
+    public void appendChild(ASTNode child) { 
+        if (child != null) {
+            children.add(child);
+            child.parent = this;
+        }
+    }
+    
+    public void removeChild(ASTNode child) {
+        if (child != null) {
+            children.remove(child);
+            child.parent = null;
+        }
+    }
+    
+    public ASTNode getParent() { 
+        return parent; 
+    }
+    
+    public boolean isLeaf() { 
+        return children.isEmpty(); 
+    }
+    
+    /**
+     * 以该节点为根的树是否已经优化，转换器据此跳过重复的优化
+     * 标记之后再修改树不会清除标记
+     */
+    public boolean isOptimized() {
+        return optimized;
+    }
+    
+    public void markOptimized() {
+        this.optimized = true;
+    }
+    
+    /**
+     * 子树对应的源文本长度，解析器为根节点设置，未知时为0
+     */
+    public int getSizeHint() {
+        return sizeHint;
+    }
+    
+    public void setSizeHint(int sizeHint) {
+        this.sizeHint = Math.max(sizeHint, 0);
+    }
+    
+    /**
+     * 从当前节点开始的只读游标，供渲染器遍历
+     */
+    public ASTCursor cursor() {
+        return new ASTNodeCursor(this);
+    }
+    
+    // 包级访问 - 用于内部修改children列表
+    //
+    public List<ASTNode> getChildrenInternal() {
+        return children;
+    }
+    
+    @Override
+    public String toString() {
+        return "ASTNode{type=" + type + 
+               ", content='" + (content.length() > 20 ? content.subSequence(0, 20) + "..." : content) + 
+               "', attrs=" + getAttributes() + 
+               ", children=" + children.size() + "}";
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.guobao2333.bbcoeter.ast;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode.NodeType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ASTNode对象树的游标实现
+ * 使用显式的节点/下标栈记录路径，不依赖parent指针
+ */
+class ASTNodeCursor implements ASTCursor {
+    private ASTNode current;
+    private ASTNode[] parents = new ASTNode[16];
+    private int[] indexes = new int[16];
+    private int depth;
+
+    ASTNodeCursor(ASTNode start) {
+        this.current = start;
+    }
+
+    @Override
+    public NodeType getType() {
+        return current.getType();
+    }
+
+    @Override
+    public String getContent() {
+        return current.getContent();
+    }
+
+    @Override
+    public CharSequence getContentSequence() {
+        return current.getContentSequence();
+    }
+
+    @Override
+    public String getAttribute(String key) {
+        return current.getAttribute(key);
+    }
+
+    @Override
+    public boolean hasAttribute(String key) {
+        return current.hasAttribute(key);
+    }
+
+    @Override
+    public String getAttribute(AttributeKey key) {
+        return current.getAttribute(key);
+    }
+
+    @Override
+    public boolean firstChild() {
+        List<ASTNode> children = current.getChildrenInternal();
+        if (children.isEmpty()) {
+            return false;
+        }
+        if (depth == parents.length) {
+            parents = Arrays.copyOf(parents, depth * 2);
+            indexes = Arrays.copyOf(indexes, depth * 2);
+        }
+        parents[depth] = current;
+        indexes[depth] = 0;
+        depth++;
+        current = children.get(0);
+        return true;
+    }
+
+    @Override
+    public boolean nextSibling() {
+        if (depth == 0) {
+            return false;
+        }
+        List<ASTNode> siblings = parents[depth - 1].getChildrenInternal();
+        int next = indexes[depth - 1] + 1;
+        if (next >= siblings.size()) {
+            return false;
+        }
+        indexes[depth - 1] = next;
+        current = siblings.get(next);
+        return true;
+    }
+
+    @Override
+    public boolean parent() {
+        if (depth == 0) {
+            return false;
+        }
+        depth--;
+        current = parents[depth];
+        parents[depth] = null;
+        return true;
+    }
+}
@@ -0,0 +1,294 @@
+package io.github.guobao2333.bbcoeter.ast;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.ast.ASTNode.NodeType;
+
+import java.util.*;
+
+/**
+ * AST优化器 - 处理嵌套、合并文本节点等
+ */
+public class ASTOptimizer {
+    
+    /**
+     * 优化AST
+     */
+    public ASTNode optimize(ASTNode root) {
+        if (root == null) {
+            return null;
+        }
+        
+        optimizeSubtree(root);
+        root.markOptimized();
+        return root;
+    }
+    
+    /**
+     * 后序遍历：子节点先完成优化，父节点只需处理一层
+     * 使用显式的节点/下标栈代替递归，嵌套深度不受线程栈限制
+     */
+    private void optimizeSubtree(ASTNode root) {
+        ASTNode[] nodes = new ASTNode[16];
+        int[] indexes = new int[16];
+        int depth = 0;
+        nodes[depth++] = root;
+        
+        while (depth > 0) {
+            ASTNode node = nodes[depth - 1];
+            List<ASTNode> children = node.getChildrenInternal();
+            int index = indexes[depth - 1];
+            if (index < children.size()) {
+                indexes[depth - 1] = index + 1;
+                ASTNode child = children.get(index);
+                // 没有子节点的节点无需处理
+                if (!child.isLeaf()) {
+                    if (depth == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, depth * 2);
+                        indexes = Arrays.copyOf(indexes, depth * 2);
+                    }
+                    nodes[depth] = child;
+                    indexes[depth] = 0;
+                    depth++;
+                }
+            } else {
+                optimizeChildren(node);
+                nodes[--depth] = null;
+            }
+        }
+    }
+    
+    /**
+     * 优化节点的直接子节点，要求每个子节点的子树已经优化过
+     * 解析器在节点闭合时调用，构建完成的树与optimize()的结果一致：
+     * 合并连续的文本节点，移除空白文本和空节点，补全链接和图片的地址
+     */
+    public void optimizeChildren(ASTNode node) {
+        List<ASTNode> children = node.getChildrenInternal();
+        int size = children.size();
+        if (size == 0) {
+            return;
+        }
+        
+        // 合并连续的文本节点（原地压缩，不分配新列表）
+        int merged = 0;
+        ASTNode lastText = null;
+        for (int i = 0; i < size; i++) {
+            ASTNode child = children.get(i);
+            if (child.getType() == NodeType.TEXT) {
+                if (lastText != null) {
+                    CharSequence text = child.getContentSequence();
+                    lastText.appendContent(text, 0, text.length());
+                    continue;
+                }
+                lastText = child;
+            } else {
+                lastText = null;
+            }
+            children.set(merged++, child);
+        }
+        
+        // 移除空节点，标准化链接和图片
+        int kept = 0;
+        for (int i = 0; i < merged; i++) {
+            ASTNode child = children.get(i);
+            if (isEmptyNode(child)) {
+                continue;
+            }
+            normalizeLinkOrImage(child);
+            children.set(kept++, child);
+        }
+        
+        if (kept < size) {
+            children.subList(kept, size).clear();
+        }
+    }
+    
+    private boolean isEmptyNode(ASTNode child) {
+        // 文本节点如果内容为空则移除
+        if (child.getType() == NodeType.TEXT) {
+            return isBlank(child.getContentSequence());
+        }
+        
+        // 叶子节点类型不移除
+        if (child.getType() == NodeType.IMAGE ||
+            child.getType() == NodeType.HORIZONTAL_RULE ||
+            child.getType() == NodeType.LINEBREAK) {
+            return false;
+        }
+        
+        // 其他节点如果没有子节点则移除
+        return child.isLeaf();
+    }
+    
+    /**
+     * 标准化链接和图片节点
+     */
+    private void normalizeLinkOrImage(ASTNode child) {
+        // 如果链接没有href属性，尝试从子文本节点获取
+        if (child.getType() == NodeType.LINK && !child.hasAttribute(AttributeKey.HREF)) {
+            ASTNode only = singleTextChild(child);
+            if (only != null) {
+                child.setAttribute(AttributeKey.HREF, only.getContent().trim());
+            }
+        }
+        
+        // 如果图片没有src属性，尝试从子文本节点获取
+        if (child.getType() == NodeType.IMAGE && !child.hasAttribute(AttributeKey.SRC)) {
+            ASTNode only = singleTextChild(child);
+            if (only != null) {
+                child.setAttribute(AttributeKey.SRC, only.getContent().trim());
+                // 图片不需要子节点
+                child.getChildrenInternal().clear();
+            }
+        }
+    }
+    
+    /**
+     * 节点恰好只有一个文本子节点时返回它
+     */
+    private ASTNode singleTextChild(ASTNode node) {
+        List<ASTNode> children = node.getChildrenInternal();
+        if (children.size() == 1 && children.get(0).getType() == NodeType.TEXT) {
+            return children.get(0);
+        }
+        return null;
+    }
+    
+    // ============ 紧凑AST ============
+    
+    /**
+     * 优化紧凑AST，规则与对象树版本完全一致
+     */
+    public FlatAST optimize(FlatAST ast) {
+        if (ast == null) {
+            return null;
+        }
+        
+        optimizeSubtree(ast, ast.getRoot());
+        ast.markOptimized();
+        return ast;
+    }
+    
+    /**
+     * 借助父指针做后序遍历，不需要递归也不需要额外的栈
+     */
+    private void optimizeSubtree(FlatAST ast, int root) {
+        int node = firstLeaf(ast, root);
+        while (true) {
+            optimizeChildren(ast, node);
+            if (node == root) {
+                return;
+            }
+            int next = ast.getNextSibling(node);
+            node = next != FlatAST.NO_NODE ? firstLeaf(ast, next) : ast.getParent(node);
+        }
+    }
+    
+    /**
+     * 沿第一个子节点一直向下，返回最深的节点
+     */
+    private int firstLeaf(FlatAST ast, int node) {
+        int child;
+        while ((child = ast.getFirstChild(node)) != FlatAST.NO_NODE) {
+            node = child;
+        }
+        return node;
+    }
+    
+    /**
+     * 优化紧凑树节点的直接子节点，要求每个子节点的子树已经优化过
+     */
+    public void optimizeChildren(FlatAST ast, int node) {
+        // 合并连续的文本节点
+        int lastText = FlatAST.NO_NODE;
+        int prev = FlatAST.NO_NODE;
+        int child = ast.getFirstChild(node);
+        while (child != FlatAST.NO_NODE) {
+            int next = ast.getNextSibling(child);
+            if (ast.getType(child) == NodeType.TEXT && lastText != FlatAST.NO_NODE) {
+                ast.appendContent(lastText, ast.getContent(child), 0, ast.getContentLength(child));
+                ast.unlink(node, prev, child);
+            } else {
+                lastText = ast.getType(child) == NodeType.TEXT ? child : FlatAST.NO_NODE;
+                prev = child;
+            }
+            child = next;
+        }
+        
+        // 移除空节点，标准化链接和图片
+        prev = FlatAST.NO_NODE;
+        child = ast.getFirstChild(node);
+        while (child != FlatAST.NO_NODE) {
+            int next = ast.getNextSibling(child);
+            if (isEmptyNode(ast, child)) {
+                ast.unlink(node, prev, child);
+            } else {
+                normalizeLinkOrImage(ast, child);
+                prev = child;
+            }
+            child = next;
+        }
+    }
+    
+    private boolean isEmptyNode(FlatAST ast, int child) {
+        NodeType type = ast.getType(child);
+        
+        // 文本节点如果内容为空则移除
+        if (type == NodeType.TEXT) {
+            return ast.isContentBlank(child);
+        }
+        
+        // 叶子节点类型不移除
+        if (type == NodeType.IMAGE ||
+            type == NodeType.HORIZONTAL_RULE ||
+            type == NodeType.LINEBREAK) {
+            return false;
+        }
+        
+        // 其他节点如果没有子节点则移除
+        return ast.isLeaf(child);
+    }
+    
+    private void normalizeLinkOrImage(FlatAST ast, int child) {
+        NodeType type = ast.getType(child);
+        if (type != NodeType.LINK && type != NodeType.IMAGE) {
+            return;
+        }
+        int only = singleTextChild(ast, child);
+        
+        if (type == NodeType.LINK && !ast.hasAttribute(child, AttributeKey.HREF) && only != FlatAST.NO_NODE) {
+            ast.setAttribute(child, AttributeKey.HREF, ast.getContent(only).trim());
+        }
+        
+        if (type == NodeType.IMAGE && !ast.hasAttribute(child, AttributeKey.SRC) && only != FlatAST.NO_NODE) {
+            ast.setAttribute(child, AttributeKey.SRC, ast.getContent(only).trim());
+            // 图片不需要子节点
+            ast.removeChildren(child);
+        }
+    }
+    
+    /**
+     * 节点恰好只有一个文本子节点时返回它
+     */
+    private int singleTextChild(FlatAST ast, int node) {
+        int first = ast.getFirstChild(node);
+        if (first != FlatAST.NO_NODE &&
+            ast.getNextSibling(first) == FlatAST.NO_NODE &&
+            ast.getType(first) == NodeType.TEXT) {
+            return first;
+        }
+        return FlatAST.NO_NODE;
+    }
+    
+    /**
+     * 是否只包含空白字符（与trim().isEmpty()一致）
+     */
+    private static boolean isBlank(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.guobao2333.bbcoeter.ast;
+
+/**
+ * 解析器会设置的节点属性
+ * ASTNode按枚举序号把这些属性存放在定长槽位中，避免每个节点一个Map
+ */
+public enum AttributeKey {
+    HREF("href"),
+    SRC("src"),
+    WIDTH("width"),
+    HEIGHT("height"),
+    STYLE("style"),
+    BGCOLOR("bgcolor"),
+    COLOR("color"),
+    SIZE("size"),
+    FACE("face");
+
+    private static final AttributeKey[] KEYS = values();
+
+    private final String name;
+
+    AttributeKey(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 属性名（字符串API中使用的键）
+     */
+    public String getName() {
+        return name;
+    }
+
+    static int count() {
+        return KEYS.length;
+    }
+
+    static AttributeKey byOrdinal(int ordinal) {
+        return KEYS[ordinal];
+    }
+
+    /**
+     * 按属性名查找，未知属性返回null
+     */
+    public static AttributeKey of(String name) {
+        if (name == null) {
+            return null;
+        }
+        switch (name) {
+            case "href":
+                return HREF;
+            case "src":
+                return SRC;
+            case "width":
+                return WIDTH;
+            case "height":
+                return HEIGHT;
+            case "style":
+                return STYLE;
+            case "bgcolor":
+                return BGCOLOR;
+            case "color":
+                return COLOR;
+            case "size":
+                return SIZE;
+            case "face":
+                return FACE;
+            default:
+                return null;
+        }
+    }
+}
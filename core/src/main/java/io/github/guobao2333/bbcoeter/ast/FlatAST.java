@@ -0,0 +1,588 @@
+package io.github.guobao2333.bbcoeter.ast;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode.NodeType;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 紧凑AST - 以数组结构（struct-of-arrays）存储整棵树
+ * 节点用整数下标表示，类型、父/首子/末子/下一个兄弟、内容范围都存放在基本类型数组中，
+ * 文本内容集中存放在一个字符池里，属性存放在旁路表中。
+ * 一篇长帖子只占用少量大数组，而不是成千上万个小对象。
+ * 可通过 {@link #cursor()} 交给渲染器，通过 {@link ASTOptimizer#optimize(FlatAST)} 优化。
+ */
+public final class FlatAST {
+    /**
+     * 表示不存在的节点
+     */
+    public static final int NO_NODE = -1;
+
+    private static final NodeType[] NODE_TYPES = NodeType.values();
+    private static final int INITIAL_CAPACITY = 16;
+
+    // 节点表
+    private byte[] types;
+    private int[] parent;
+    private int[] firstChild;
+    private int[] lastChild;
+    private int[] nextSibling;
+    private int[] contentStart;
+    private int[] contentLength;
+    private int[] firstAttr;
+    private int size;
+
+    // 文本内容池
+    private char[] chars;
+    private int charCount;
+
+    // 属性旁路表，每个节点的属性按插入顺序串成链表
+    private String[] attrKeys;
+    private String[] attrValues;
+    private int[] attrNext;
+    private int attrCount;
+
+    private boolean optimized;
+    // 对应的源文本长度，渲染器据此预估输出大小，0表示未知
+    private int sizeHint;
+
+    /**
+     * 创建只包含DOCUMENT根节点的树
+     */
+    public FlatAST() {
+        this(INITIAL_CAPACITY, INITIAL_CAPACITY * 8);
+    }
+
+    /**
+     * @param nodeCapacity 预估节点数
+     * @param charCapacity 预估文本字符数
+     */
+    public FlatAST(int nodeCapacity, int charCapacity) {
+        int capacity = Math.max(nodeCapacity, 1);
+        types = new byte[capacity];
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        lastChild = new int[capacity];
+        nextSibling = new int[capacity];
+        contentStart = new int[capacity];
+        contentLength = new int[capacity];
+        firstAttr = new int[capacity];
+        chars = new char[Math.max(charCapacity, 16)];
+        attrKeys = new String[4];
+        attrValues = new String[4];
+        attrNext = new int[4];
+        newNode(NO_NODE, NodeType.DOCUMENT);
+    }
+
+    public int getRoot() {
+        return 0;
+    }
+
+    /**
+     * 节点总数（包括已被移除但未回收的节点）
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 树是否已经优化，标记之后再修改树不会清除标记
+     */
+    public boolean isOptimized() {
+        return optimized;
+    }
+
+    public void markOptimized() {
+        this.optimized = true;
+    }
+
+    /**
+     * 对应的源文本长度，由解析器设置；未设置时按文本字符数和节点数估算
+     */
+    public int getSizeHint() {
+        return sizeHint > 0 ? sizeHint : charCount + size * 8;
+    }
+
+    public void setSizeHint(int sizeHint) {
+        this.sizeHint = Math.max(sizeHint, 0);
+    }
+
+    // ============ 构建 ============
+
+    /**
+     * 追加子节点
+     * @return 新节点下标
+     */
+    public int appendChild(int parentNode, NodeType type) {
+        return newNode(parentNode, type);
+    }
+
+    /**
+     * 追加文本，与最后一个文本子节点相邻时直接合并
+     */
+    public void appendText(int parentNode, CharSequence text, int start, int end) {
+        if (end <= start) {
+            return;
+        }
+        int last = lastChild[parentNode];
+        if (last != NO_NODE && types[last] == NodeType.TEXT.ordinal()) {
+            appendContent(last, text, start, end);
+            return;
+        }
+        int node = newNode(parentNode, NodeType.TEXT);
+        appendContent(node, text, start, end);
+    }
+
+    private int newNode(int parentNode, NodeType type) {
+        if (size == types.length) {
+            grow();
+        }
+        int node = size++;
+        types[node] = (byte) type.ordinal();
+        parent[node] = parentNode;
+        firstChild[node] = NO_NODE;
+        lastChild[node] = NO_NODE;
+        nextSibling[node] = NO_NODE;
+        contentStart[node] = 0;
+        contentLength[node] = 0;
+        firstAttr[node] = NO_NODE;
+        if (parentNode != NO_NODE) {
+            if (lastChild[parentNode] == NO_NODE) {
+                firstChild[parentNode] = node;
+            } else {
+                nextSibling[lastChild[parentNode]] = node;
+            }
+            lastChild[parentNode] = node;
+        }
+        return node;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        lastChild = Arrays.copyOf(lastChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        contentStart = Arrays.copyOf(contentStart, capacity);
+        contentLength = Arrays.copyOf(contentLength, capacity);
+        firstAttr = Arrays.copyOf(firstAttr, capacity);
+    }
+
+    // ============ 节点数据 ============
+
+    public NodeType getType(int node) {
+        return NODE_TYPES[types[node]];
+    }
+
+    public String getContent(int node) {
+        return contentLength[node] == 0 ? "" : new String(chars, contentStart[node], contentLength[node]);
+    }
+
+    /**
+     * 节点内容的只读视图，不复制字符池
+     */
+    public CharSequence getContentSequence(int node) {
+        return CharBuffer.wrap(chars, contentStart[node], contentLength[node]).asReadOnlyBuffer();
+    }
+
+    public int getContentLength(int node) {
+        return contentLength[node];
+    }
+
+    public void setContent(int node, CharSequence content) {
+        contentLength[node] = 0;
+        if (content != null) {
+            appendContent(node, content, 0, content.length());
+        }
+    }
+
+    /**
+     * 在节点内容后追加文本
+     * 内容位于字符池末尾时原地扩展，否则整体复制到池末尾
+     */
+    void appendContent(int node, CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length <= 0) {
+            return;
+        }
+        int oldLength = contentLength[node];
+        boolean atTail = oldLength == 0 || contentStart[node] + oldLength == charCount;
+        int required = charCount + length + (atTail ? 0 : oldLength);
+        if (required > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(required, chars.length * 2));
+        }
+        if (!atTail) {
+            System.arraycopy(chars, contentStart[node], chars, charCount, oldLength);
+            contentStart[node] = charCount;
+            charCount += oldLength;
+        } else if (oldLength == 0) {
+            contentStart[node] = charCount;
+        }
+        if (text instanceof String) {
+            ((String) text).getChars(start, end, chars, charCount);
+        } else {
+            for (int i = start; i < end; i++) {
+                chars[charCount + i - start] = text.charAt(i);
+            }
+        }
+        charCount += length;
+        contentLength[node] = oldLength + length;
+    }
+
+    /**
+     * 内容去除首尾空白后是否为空（与 String.trim().isEmpty() 一致，不分配字符串）
+     */
+    boolean isContentBlank(int node) {
+        int start = contentStart[node];
+        int end = start + contentLength[node];
+        for (int i = start; i < end; i++) {
+            if (chars[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ============ 属性 ============
+
+    public String getAttribute(int node, String key) {
+        for (int a = firstAttr[node]; a != NO_NODE; a = attrNext[a]) {
+            if (attrKeys[a].equals(key)) {
+                return attrValues[a];
+            }
+        }
+        return null;
+    }
+
+    public String getAttribute(int node, AttributeKey key) {
+        return getAttribute(node, key.getName());
+    }
+
+    public void setAttribute(int node, AttributeKey key, String value) {
+        setAttribute(node, key.getName(), value);
+    }
+
+    public boolean hasAttribute(int node, AttributeKey key) {
+        return getAttribute(node, key.getName()) != null;
+    }
+
+    public boolean hasAttribute(int node, String key) {
+        return getAttribute(node, key) != null;
+    }
+
+    public void setAttribute(int node, String key, String value) {
+        if (key == null || value == null) {
+            return;
+        }
+        int last = NO_NODE;
+        for (int a = firstAttr[node]; a != NO_NODE; a = attrNext[a]) {
+            if (attrKeys[a].equals(key)) {
+                attrValues[a] = value;
+                return;
+            }
+            last = a;
+        }
+        if (attrCount == attrKeys.length) {
+            int capacity = attrCount * 2;
+            attrKeys = Arrays.copyOf(attrKeys, capacity);
+            attrValues = Arrays.copyOf(attrValues, capacity);
+            attrNext = Arrays.copyOf(attrNext, capacity);
+        }
+        int a = attrCount++;
+        attrKeys[a] = key;
+        attrValues[a] = value;
+        attrNext[a] = NO_NODE;
+        if (last == NO_NODE) {
+            firstAttr[node] = a;
+        } else {
+            attrNext[last] = a;
+        }
+    }
+
+    /**
+     * 属性副本，按插入顺序
+     */
+    public Map<String, String> getAttributes(int node) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (int a = firstAttr[node]; a != NO_NODE; a = attrNext[a]) {
+            attributes.put(attrKeys[a], attrValues[a]);
+        }
+        return attributes;
+    }
+
+    // ============ 树结构 ============
+
+    public int getParent(int node) {
+        return parent[node];
+    }
+
+    public int getFirstChild(int node) {
+        return firstChild[node];
+    }
+
+    public int getLastChild(int node) {
+        return lastChild[node];
+    }
+
+    public int getNextSibling(int node) {
+        return nextSibling[node];
+    }
+
+    public boolean isLeaf(int node) {
+        return firstChild[node] == NO_NODE;
+    }
+
+    public int getChildCount(int node) {
+        int count = 0;
+        for (int c = firstChild[node]; c != NO_NODE; c = nextSibling[c]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 移除子节点
+     */
+    public void removeChild(int parentNode, int child) {
+        int prev = NO_NODE;
+        for (int c = firstChild[parentNode]; c != NO_NODE; c = nextSibling[c]) {
+            if (c == child) {
+                unlink(parentNode, prev, child);
+                return;
+            }
+            prev = c;
+        }
+    }
+
+    /**
+     * 移除所有子节点
+     */
+    public void removeChildren(int parentNode) {
+        for (int c = firstChild[parentNode]; c != NO_NODE; c = nextSibling[c]) {
+            parent[c] = NO_NODE;
+        }
+        firstChild[parentNode] = NO_NODE;
+        lastChild[parentNode] = NO_NODE;
+    }
+
+    /**
+     * 已知前一个兄弟节点时以O(1)移除子节点
+     */
+    void unlink(int parentNode, int prev, int child) {
+        int next = nextSibling[child];
+        if (prev == NO_NODE) {
+            firstChild[parentNode] = next;
+        } else {
+            nextSibling[prev] = next;
+        }
+        if (lastChild[parentNode] == child) {
+            lastChild[parentNode] = prev;
+        }
+        parent[child] = NO_NODE;
+        nextSibling[child] = NO_NODE;
+    }
+
+    // ============ 适配 ============
+
+    /**
+     * 从根节点开始的游标
+     */
+    public ASTCursor cursor() {
+        return cursor(getRoot());
+    }
+
+    /**
+     * 从指定节点开始的游标，只能在该节点的子树内移动
+     */
+    public ASTCursor cursor(int start) {
+        return new Cursor(start);
+    }
+
+    /**
+     * 从ASTNode对象树构建紧凑树
+     */
+    public static FlatAST fromASTNode(ASTNode root) {
+        FlatAST flat = new FlatAST();
+        if (root == null) {
+            return flat;
+        }
+        flat.setContent(flat.getRoot(), root.getContentSequence());
+        copyAttributes(root, flat, flat.getRoot());
+        copyChildren(root, flat, flat.getRoot());
+        flat.optimized = root.isOptimized();
+        return flat;
+    }
+
+    /**
+     * 先序复制子树，使用显式栈，嵌套深度不受线程栈限制
+     */
+    private static void copyChildren(ASTNode source, FlatAST flat, int target) {
+        ASTNode[] sources = new ASTNode[16];
+        int[] targets = new int[16];
+        int[] indexes = new int[16];
+        int depth = 0;
+        sources[0] = source;
+        targets[0] = target;
+        depth++;
+
+        while (depth > 0) {
+            List<ASTNode> children = sources[depth - 1].getChildrenInternal();
+            int index = indexes[depth - 1];
+            if (index == children.size()) {
+                sources[--depth] = null;
+                continue;
+            }
+            indexes[depth - 1] = index + 1;
+            ASTNode child = children.get(index);
+            int node = flat.appendChild(targets[depth - 1], child.getType());
+            flat.setContent(node, child.getContentSequence());
+            copyAttributes(child, flat, node);
+            if (!child.isLeaf()) {
+                if (depth == sources.length) {
+                    sources = Arrays.copyOf(sources, depth * 2);
+                    targets = Arrays.copyOf(targets, depth * 2);
+                    indexes = Arrays.copyOf(indexes, depth * 2);
+                }
+                sources[depth] = child;
+                targets[depth] = node;
+                indexes[depth] = 0;
+                depth++;
+            }
+        }
+    }
+
+    private static void copyAttributes(ASTNode source, FlatAST flat, int target) {
+        for (Map.Entry<String, String> attr : source.getAttributes().entrySet()) {
+            flat.setAttribute(target, attr.getKey(), attr.getValue());
+        }
+    }
+
+    /**
+     * 转换为ASTNode对象树
+     */
+    public ASTNode toASTNode() {
+        ASTNode root = toASTNode(getRoot());
+        if (optimized) {
+            root.markOptimized();
+        }
+        return root;
+    }
+
+    /**
+     * 借助父指针做先序遍历，不需要递归
+     */
+    private ASTNode toASTNode(int start) {
+        ASTNode result = copyNode(start);
+        ASTNode current = result;
+        int node = start;
+        while (true) {
+            int child = firstChild[node];
+            if (child != NO_NODE) {
+                ASTNode copy = copyNode(child);
+                current.appendChild(copy);
+                current = copy;
+                node = child;
+                continue;
+            }
+            // 回溯到最近一个还有下一个兄弟的祖先
+            while (node != start && nextSibling[node] == NO_NODE) {
+                node = parent[node];
+                current = current.getParent();
+            }
+            if (node == start) {
+                return result;
+            }
+            node = nextSibling[node];
+            ASTNode copy = copyNode(node);
+            current.getParent().appendChild(copy);
+            current = copy;
+        }
+    }
+
+    private ASTNode copyNode(int node) {
+        ASTNode result = new ASTNode(getType(node), getContent(node));
+        for (int a = firstAttr[node]; a != NO_NODE; a = attrNext[a]) {
+            result.setAttribute(attrKeys[a], attrValues[a]);
+        }
+        return result;
+    }
+
+    /**
+     * 紧凑树的游标，移动不分配任何对象
+     */
+    private final class Cursor implements ASTCursor {
+        private final int start;
+        private int current;
+
+        Cursor(int start) {
+            this.start = start;
+            this.current = start;
+        }
+
+        @Override
+        public NodeType getType() {
+            return FlatAST.this.getType(current);
+        }
+
+        @Override
+        public String getContent() {
+            return FlatAST.this.getContent(current);
+        }
+
+        @Override
+        public CharSequence getContentSequence() {
+            return FlatAST.this.getContentSequence(current);
+        }
+
+        @Override
+        public String getAttribute(String key) {
+            return FlatAST.this.getAttribute(current, key);
+        }
+
+        @Override
+        public boolean hasAttribute(String key) {
+            return FlatAST.this.hasAttribute(current, key);
+        }
+
+        @Override
+        public String getAttribute(AttributeKey key) {
+            return FlatAST.this.getAttribute(current, key);
+        }
+
+        @Override
+        public boolean firstChild() {
+            int child = firstChild[current];
+            if (child == NO_NODE) {
+                return false;
+            }
+            current = child;
+            return true;
+        }
+
+        @Override
+        public boolean nextSibling() {
+            if (current == start) {
+                return false;
+            }
+            int next = nextSibling[current];
+            if (next == NO_NODE) {
+                return false;
+            }
+            current = next;
+            return true;
+        }
+
+        @Override
+        public boolean parent() {
+            if (current == start) {
+                return false;
+            }
+            current = parent[current];
+            return true;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.guobao2333.bbcoeter.ast;
+
+import java.util.Arrays;
+
+/**
+ * 文本节点内容 - 指向源文本的若干片段
+ * 解析时不复制文本，合并相邻文本只追加片段；首次需要String时才拼接并缓存。
+ * 片段会持有源文本的引用，源文本的生命周期与AST相同。
+ */
+public final class TextContent implements CharSequence {
+    private CharSequence[] sources;
+    private int[] starts;
+    private int[] ends;
+    // 每个片段在内容中的起始位置
+    private int[] offsets;
+    private int count;
+    private int length;
+    private String flat;
+
+    public TextContent(CharSequence source, int start, int end) {
+        this.sources = new CharSequence[2];
+        this.starts = new int[2];
+        this.ends = new int[2];
+        this.offsets = new int[2];
+        append(source, start, end);
+    }
+
+    /**
+     * 追加源文本的一个片段，与上一个片段在同一源文本中相邻时直接延长
+     */
+    public void append(CharSequence source, int start, int end) {
+        if (end <= start) {
+            return;
+        }
+        if (source instanceof TextContent) {
+            appendSegments((TextContent) source, start, end);
+            return;
+        }
+        if (count > 0 && sources[count - 1] == source && ends[count - 1] == start) {
+            ends[count - 1] = end;
+        } else {
+            if (count == sources.length) {
+                sources = Arrays.copyOf(sources, count * 2);
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            sources[count] = source;
+            starts[count] = start;
+            ends[count] = end;
+            offsets[count] = length;
+            count++;
+        }
+        length += end - start;
+        flat = null;
+    }
+
+    private void appendSegments(TextContent other, int start, int end) {
+        int offset = 0;
+        for (int i = 0; i < other.count && offset < end; i++) {
+            int segmentLength = other.ends[i] - other.starts[i];
+            int from = Math.max(start - offset, 0);
+            int to = Math.min(end - offset, segmentLength);
+            if (from < to) {
+                append(other.sources[i], other.starts[i] + from, other.starts[i] + to);
+            }
+            offset += segmentLength;
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        if (count == 1) {
+            return sources[0].charAt(starts[0] + index);
+        }
+        if (flat != null) {
+            return flat.charAt(index);
+        }
+        // 二分查找所在片段，不修改状态，多线程读取同一棵树时也安全
+        int segment = Arrays.binarySearch(offsets, 0, count, index);
+        if (segment < 0) {
+            segment = -segment - 2;
+        }
+        return sources[segment].charAt(starts[segment] + index - offsets[segment]);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (flat == null) {
+            if (count == 1 && sources[0] instanceof String
+                    && starts[0] == 0 && ends[0] == sources[0].length()) {
+                flat = (String) sources[0];
+            } else {
+                StringBuilder sb = new StringBuilder(length);
+                for (int i = 0; i < count; i++) {
+                    sb.append(sources[i], starts[i], ends[i]);
+                }
+                flat = sb.toString();
+            }
+        }
+        return flat;
+    }
+}
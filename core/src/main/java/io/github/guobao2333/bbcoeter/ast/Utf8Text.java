@@ -0,0 +1,159 @@
+package io.github.guobao2333.bbcoeter.ast;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 指向UTF-8字节数组中一段的文本，按字节输入解析时作为文本节点的内容
+ *
+ * 创建时只扫描一遍字节以校验编码并计算字符数，不解码也不复制。
+ * 全部为ASCII时字符下标与字节下标一致，charAt直接读取字节；
+ * 含其他字符时首次按字符访问才解码并缓存为String。
+ * 编码合法时UTF-8输出目标可以直接复制原始字节。
+ * 字节数组由调用方拥有，文本的生命周期内不能修改。
+ */
+public final class Utf8Text implements CharSequence {
+    private final byte[] bytes;
+    private final int offset;
+    private final int byteLength;
+    private final boolean wellFormed;
+    // 编码不合法时在首次访问时按解码结果确定
+    private int length = -1;
+    private String decoded;
+
+    public Utf8Text(byte[] bytes, int offset, int byteLength) {
+        if (offset < 0 || byteLength < 0 || offset + byteLength > bytes.length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + byteLength + ", size " + bytes.length);
+        }
+        this.bytes = bytes;
+        this.offset = offset;
+        this.byteLength = byteLength;
+        int chars = countChars(bytes, offset, offset + byteLength);
+        this.wellFormed = chars >= 0;
+        if (wellFormed) {
+            this.length = chars;
+        }
+    }
+
+    /**
+     * 合法UTF-8的字符数（UTF-16单元），不合法时返回-1
+     */
+    private static int countChars(byte[] bytes, int from, int to) {
+        int chars = 0;
+        int i = from;
+        while (i < to) {
+            int b = bytes[i];
+            if (b >= 0) {
+                i++;
+                chars++;
+                continue;
+            }
+            b &= 0xFF;
+            int need;
+            int min = 0x80;
+            int max = 0xBF;
+            if (b >= 0xC2 && b <= 0xDF) {
+                need = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                need = 2;
+                // 排除过长编码和代理区
+                if (b == 0xE0) {
+                    min = 0xA0;
+                } else if (b == 0xED) {
+                    max = 0x9F;
+                }
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                need = 3;
+                if (b == 0xF0) {
+                    min = 0x90;
+                } else if (b == 0xF4) {
+                    max = 0x8F;
+                }
+            } else {
+                return -1;
+            }
+            if (i + need >= to) {
+                // 序列被截断
+                return -1;
+            }
+            int second = bytes[i + 1] & 0xFF;
+            if (second < min || second > max) {
+                return -1;
+            }
+            for (int k = 2; k <= need; k++) {
+                if ((bytes[i + k] & 0xC0) != 0x80) {
+                    return -1;
+                }
+            }
+            i += need + 1;
+            chars += need == 3 ? 2 : 1;
+        }
+        return chars;
+    }
+
+    /**
+     * 是否为合法的UTF-8，只有合法时原始字节才与toString()的UTF-8编码一致
+     */
+    public boolean isWellFormed() {
+        return wellFormed;
+    }
+
+    /**
+     * 是否全部为ASCII字符
+     */
+    public boolean isAscii() {
+        return wellFormed && length == byteLength;
+    }
+
+    /**
+     * 底层字节数组，不能修改
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getByteLength() {
+        return byteLength;
+    }
+
+    @Override
+    public int length() {
+        if (length < 0) {
+            length = toString().length();
+        }
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (isAscii()) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+            }
+            return (char) bytes[offset + index];
+        }
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (isAscii()) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+            }
+            return new Utf8Text(bytes, offset + start, end - start);
+        }
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (decoded == null) {
+            decoded = new String(bytes, offset, byteLength, StandardCharsets.UTF_8);
+        }
+        return decoded;
+    }
+}
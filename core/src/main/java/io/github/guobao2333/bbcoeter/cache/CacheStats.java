@@ -0,0 +1,73 @@
+package io.github.guobao2333.bbcoeter.cache;
+
+/**
+ * 渲染缓存统计的不可变快照
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long loadCount;
+    private final long evictionCount;
+    private final long evictionWeight;
+
+    CacheStats(long hitCount, long missCount, long loadCount, long evictionCount, long evictionWeight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadCount = loadCount;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+    }
+
+    /**
+     * 命中缓存的请求数
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 未命中的请求数，包括等待其他线程完成同一次渲染的请求
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 实际执行的渲染次数，同一键上并发的未命中只渲染一次
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * 被淘汰的条目数
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 被淘汰条目的总权重（字节）
+     */
+    public long getEvictionWeight() {
+        return evictionWeight;
+    }
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * 命中率，没有请求时为1.0
+     */
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hitCount + ", misses=" + missCount + ", loads=" + loadCount
+            + ", evictions=" + evictionCount + ", evictionWeight=" + evictionWeight + "}";
+    }
+}
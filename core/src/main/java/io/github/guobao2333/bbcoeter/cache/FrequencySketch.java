@@ -0,0 +1,96 @@
+package io.github.guobao2333.bbcoeter.cache;
+
+/**
+ * 访问频率估计 - 4位计数器的Count-Min Sketch
+ * 每个long存放16个计数器，每个键映射到4个计数器并取最小值。
+ * 累计增加次数达到采样上限后所有计数器减半，使频率随时间衰减。
+ * 非线程安全，由RenderCache在锁内使用。
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int additions;
+
+    FrequencySketch() {
+        ensureCapacity(16);
+    }
+
+    /**
+     * 按预期条目数调整表大小，扩容会丢弃已有的频率信息
+     */
+    void ensureCapacity(int expectedEntries) {
+        int length = tableSizeFor(Math.max(expectedEntries, 16));
+        if (table != null && table.length >= length) {
+            return;
+        }
+        table = new long[length];
+        tableMask = length - 1;
+        sampleSize = 10 * length;
+        additions = 0;
+    }
+
+    int capacity() {
+        return table.length;
+    }
+
+    /**
+     * 估计的访问频率（0到15）
+     */
+    int frequency(int hash) {
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = indexHash(hash, i);
+            int count = (int) ((table[(int) h & tableMask] >>> offset(h)) & 0xF);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = indexHash(hash, i);
+            int index = (int) h & tableMask;
+            int offset = offset(h);
+            if (((table[index] >>> offset) & 0xF) != MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * 所有计数器减半
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private static long indexHash(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        return h + (h >>> 32);
+    }
+
+    private static int offset(long h) {
+        // 选择long中的第几个4位计数器
+        return ((int) (h >>> 40) & 15) << 2;
+    }
+
+    private static int tableSizeFor(int n) {
+        int size = Integer.highestOneBit(n - 1) << 1;
+        return size > 0 ? size : 1 << 30;
+    }
+}
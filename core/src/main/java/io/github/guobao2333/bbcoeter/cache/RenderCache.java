@@ -0,0 +1,409 @@
+package io.github.guobao2333.bbcoeter.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 渲染结果缓存 - 按内容和转换配置缓存输出，总量按字节限制
+ *
+ * 淘汰策略为W-TinyLFU：新条目先进入占容量1%的LRU窗口区，
+ * 溢出后在主区（试用段 + 占主区80%的保护段的SLRU）门口与试用段最久未用的条目比较访问频率，
+ * 频率由FrequencySketch估计，只有更常被访问的一方留下。
+ * 这样一次性浏览的帖子不会挤掉热门帖子，新帖子又能通过窗口区积累频率。
+ *
+ * 同一个键上并发的未命中只渲染一次，其余线程等待同一个结果。
+ * 所有结构操作都是O(1)，在一把锁内完成；渲染本身在锁外执行。
+ * 实例线程安全，可在多个转换器之间共享，键中包含转换方向和配置。
+ */
+public final class RenderCache {
+    // 每个条目除字符串内容外的估计开销（字节）
+    private static final int ENTRY_OVERHEAD = 96;
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    private final long maximumWeight;
+    private final long maxWindowWeight;
+    private final long maxProtectedWeight;
+
+    private final Object lock = new Object();
+    private final Map<Key, Node> data = new HashMap<>();
+    private final FrequencySketch sketch = new FrequencySketch();
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private long weightedSize;
+    private long windowWeight;
+    private long protectedWeight;
+    private long evictionCount;
+    private long evictionWeight;
+
+    // 正在渲染的键，用于合并并发的未命中
+    private final ConcurrentHashMap<Key, CompletableFuture<String>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+
+    /**
+     * @param maximumWeight 缓存的最大总量（字节），按输入和输出每字符2字节估算
+     */
+    public RenderCache(long maximumWeight) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+        this.maxWindowWeight = Math.max(1, (long) (maximumWeight * WINDOW_RATIO));
+        this.maxProtectedWeight = (long) ((maximumWeight - maxWindowWeight) * PROTECTED_RATIO);
+    }
+
+    /**
+     * 取得缓存的输出，未命中时调用renderer渲染并写入缓存
+     * @param variant 转换方向和配置，配置不同的转换器不会共用结果
+     * @param input 输入内容
+     * @param renderer 未命中时执行的渲染
+     * @return 渲染结果
+     */
+    public String get(String variant, String input, Function<String, String> renderer) {
+        Objects.requireNonNull(renderer, "renderer cannot be null");
+        Key key = new Key(variant, input);
+
+        String value = lookup(key, true);
+        if (value != null) {
+            return value;
+        }
+        missCount.increment();
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            // 其他线程正在渲染同一个键
+            return join(inFlight);
+        }
+
+        try {
+            // 上一个渲染可能刚好在检查之后完成
+            value = lookup(key, false);
+            if (value == null) {
+                loadCount.increment();
+                value = Objects.requireNonNull(renderer.apply(input), "renderer returned null");
+                put(key, value);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 只查询缓存，不渲染
+     * @return 缓存的输出，不存在时返回null
+     */
+    public String getIfPresent(String variant, String input) {
+        Key key = new Key(variant, input);
+        String value = lookup(key, true);
+        if (value == null) {
+            missCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 清空所有条目，统计数据保留
+     */
+    public void invalidateAll() {
+        synchronized (lock) {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            weightedSize = 0;
+            windowWeight = 0;
+            protectedWeight = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return data.size();
+        }
+    }
+
+    /**
+     * 当前总量（字节）
+     */
+    public long getWeightedSize() {
+        synchronized (lock) {
+            return weightedSize;
+        }
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public CacheStats getStats() {
+        long evictions;
+        long evictedWeight;
+        synchronized (lock) {
+            evictions = evictionCount;
+            evictedWeight = evictionWeight;
+        }
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadCount.sum(), evictions, evictedWeight);
+    }
+
+    // ============ 内部结构 ============
+
+    private String lookup(Key key, boolean recordHit) {
+        synchronized (lock) {
+            Node node = data.get(key);
+            if (node == null) {
+                return null;
+            }
+            sketch.increment(key.hash);
+            onAccess(node);
+            if (recordHit) {
+                hitCount.increment();
+            }
+            return node.value;
+        }
+    }
+
+    private void put(Key key, String value) {
+        long weight = weigh(key, value);
+        if (weight > maximumWeight) {
+            // 单个条目超过总容量时不缓存
+            return;
+        }
+        synchronized (lock) {
+            sketch.increment(key.hash);
+            if (data.containsKey(key)) {
+                return;
+            }
+            Node node = new Node(key, value, weight);
+            data.put(key, node);
+            sketch.ensureCapacity(data.size());
+            node.queue = WINDOW;
+            window.addLast(node);
+            windowWeight += weight;
+            weightedSize += weight;
+            evict();
+        }
+    }
+
+    /**
+     * 命中时调整条目位置：试用段中的条目晋升到保护段
+     */
+    private void onAccess(Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedQueue.addLast(node);
+                protectedWeight += node.weight;
+                // 保护段溢出时，最久未用的条目降回试用段
+                while (protectedWeight > maxProtectedWeight && protectedQueue.head != node) {
+                    Node demoted = protectedQueue.removeFirst();
+                    protectedWeight -= demoted.weight;
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                }
+                break;
+            default:
+                protectedQueue.moveToLast(node);
+                break;
+        }
+    }
+
+    private void evict() {
+        // 窗口区溢出的条目进入试用段尾部，成为准入候选
+        int candidates = 0;
+        while (windowWeight > maxWindowWeight && window.head != null) {
+            Node node = window.removeFirst();
+            windowWeight -= node.weight;
+            node.queue = PROBATION;
+            probation.addLast(node);
+            candidates++;
+        }
+
+        while (weightedSize > maximumWeight) {
+            Node victim = probation.head;
+            if (victim == null) {
+                // 试用段为空时依次从保护段和窗口区淘汰
+                Node node = protectedQueue.head != null ? protectedQueue.head : window.head;
+                if (node == null) {
+                    return;
+                }
+                remove(node);
+                continue;
+            }
+            Node candidate = candidates > 0 ? probation.tail : null;
+            if (candidate == null || candidate == victim) {
+                if (candidate == victim) {
+                    candidates--;
+                }
+                remove(victim);
+            } else if (sketch.frequency(candidate.key.hash) > sketch.frequency(victim.key.hash)) {
+                // TinyLFU准入：候选比受害者更常被访问时才取代它
+                remove(victim);
+            } else {
+                remove(candidate);
+                candidates--;
+            }
+        }
+    }
+
+    private void remove(Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node);
+                windowWeight -= node.weight;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            default:
+                protectedQueue.remove(node);
+                protectedWeight -= node.weight;
+                break;
+        }
+        data.remove(node.key);
+        weightedSize -= node.weight;
+        evictionCount++;
+        evictionWeight += node.weight;
+    }
+
+    private static long weigh(Key key, String value) {
+        return ENTRY_OVERHEAD + 2L * (key.input.length() + value.length());
+    }
+
+    private static String join(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 缓存键：转换方向与配置 + 输入内容
+     */
+    private static final class Key {
+        final String variant;
+        final String input;
+        final int hash;
+
+        Key(String variant, String input) {
+            this.variant = Objects.requireNonNull(variant, "variant cannot be null");
+            this.input = Objects.requireNonNull(input, "input cannot be null");
+            this.hash = 31 * variant.hashCode() + input.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && variant.equals(other.variant) && input.equals(other.input);
+        }
+    }
+
+    private static final class Node {
+        final Key key;
+        final String value;
+        final long weight;
+        byte queue;
+        Node prev;
+        Node next;
+
+        Node(Key key, String value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * 侵入式双向链表，头部是最久未访问的条目
+     */
+    private static final class AccessQueue {
+        Node head;
+        Node tail;
+
+        void addLast(Node node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        Node removeFirst() {
+            Node node = head;
+            remove(node);
+            return node;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToLast(Node node) {
+            if (tail != node) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+        }
+    }
+}
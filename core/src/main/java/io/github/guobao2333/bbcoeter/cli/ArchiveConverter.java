@@ -0,0 +1,740 @@
+package io.github.guobao2333.bbcoeter.cli;
+
+import io.github.guobao2333.bbcoeter.BBCodeConverter;
+import io.github.guobao2333.bbcoeter.dom.NativeDOMAdapter;
+import io.github.guobao2333.bbcoeter.renderer.Utf8Output;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 归档批量转换 - 把整个帖子归档（JSONL或长度前缀格式）中的BBCode转换为HTML
+ *
+ * 输入按记录边界切分为分块，每个分块单独内存映射，由工作线程并行转换到各自的输出缓冲区；
+ * 记录内容直接按UTF-8字节解析，不解码为字符串。调用线程按顺序切分、提交并写出分块，
+ * 已提交但尚未写出的分块数不超过queueCapacity，写出跟不上时切分也随之暂停，内存占用有上限。
+ * 输出记录的顺序与输入一致；单条记录转换失败不影响其他记录，失败记录在汇总中列出。
+ *
+ * 配置了清单时增量转换：清单记录每条记录的输入哈希、转换配置指纹和输出哈希，
+ * 输入和指纹都没有变化的记录直接复制上次的输出，不再转换。记录以JSONL的id字段
+ * （长度前缀格式为记录序号）标识，没有标识的记录总是重新转换。
+ *
+ * 单条记录不能超过2GB。
+ */
+public final class ArchiveConverter {
+    private static final int MAX_MAPPING = Integer.MAX_VALUE - 8;
+    private static final int MAX_REPORTED_FAILURES = 20;
+
+    private final BBCodeConverter converter;
+    private final ArchiveFormat format;
+    private final int threads;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final byte[] field;
+    private final String idFieldName;
+    private final byte[] idField;
+    private final Path manifest;
+
+    private ArchiveConverter(Builder builder) {
+        this.converter = builder.converter;
+        this.format = builder.format;
+        this.threads = builder.threads;
+        this.chunkSize = builder.chunkSize;
+        this.queueCapacity = builder.queueCapacity > 0 ? builder.queueCapacity : threads * 2;
+        this.field = builder.field.getBytes(StandardCharsets.UTF_8);
+        this.idFieldName = builder.idField;
+        this.idField = builder.idField != null ? builder.idField.getBytes(StandardCharsets.UTF_8) : null;
+        this.manifest = builder.manifest;
+    }
+
+    public static Builder builder(BBCodeConverter converter) {
+        return new Builder(converter);
+    }
+
+    /**
+     * 转换整个归档文件
+     * 增量转换时新的输出和清单先写入同目录的.tmp文件，全部完成后才替换原文件，中途失败时原文件保持不变
+     * @param input 输入归档
+     * @param output 输出文件，已存在时覆盖
+     * @return 转换统计
+     * @throws IOException 读写失败，或归档的分帧已损坏（长度前缀为负数、末尾记录不完整）
+     */
+    public ArchiveSummary convert(Path input, Path output) throws IOException {
+        long started = System.nanoTime();
+        Incremental incremental = manifest != null ? new Incremental(Manifest.read(manifest),
+            Manifest.hash(converter.getBbcodeToHtmlFingerprint() + ";format=" + format + ";id=" + idFieldName)) : null;
+        Path target = incremental != null ? temporary(output) : output;
+        Path manifestTarget = incremental != null ? temporary(manifest) : null;
+        ExecutorService workers = Executors.newFixedThreadPool(threads, new WorkerFactory());
+        Totals totals = new Totals();
+        boolean completed = false;
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE,
+                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+             FileChannel previous = incremental != null && !incremental.entries.isEmpty() && Files.exists(output)
+                 ? FileChannel.open(output, StandardOpenOption.READ) : null;
+             Writer manifestWriter = manifestTarget != null
+                 ? Files.newBufferedWriter(manifestTarget, StandardCharsets.UTF_8) : null) {
+            if (incremental != null) {
+                incremental.previousOutput = previous;
+                manifestWriter.write(Manifest.HEADER);
+                manifestWriter.write('\n');
+            }
+            long size = in.size();
+            Deque<Future<Chunk>> pending = new ArrayDeque<>();
+            long position = 0;
+            long record = 0;
+            while (position < size) {
+                Chunk chunk = nextChunk(in, position, size, record, incremental);
+                position += chunk.length;
+                record += chunk.framedRecords;
+                if (pending.size() >= queueCapacity) {
+                    write(await(pending.poll()), out, manifestWriter, totals);
+                }
+                pending.add(workers.submit(chunk));
+            }
+            while (!pending.isEmpty()) {
+                write(await(pending.poll()), out, manifestWriter, totals);
+            }
+            totals.bytesIn = size;
+            completed = true;
+        } finally {
+            workers.shutdownNow();
+            if (incremental != null && !completed) {
+                discard(target);
+                discard(manifestTarget);
+            }
+        }
+        if (incremental != null) {
+            replace(target, output);
+            replace(manifestTarget, manifest);
+        }
+        return new ArchiveSummary(totals.records, totals.failures, totals.bytesIn, totals.bytesOut,
+            totals.chunks, System.nanoTime() - started, incremental != null, totals.reused, totals.changed);
+    }
+
+    private static Path temporary(Path path) {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void discard(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // 只是清理临时文件，保留原来的异常
+        }
+    }
+
+    /**
+     * 从position开始映射一个分块，截到最后一条完整记录；一条记录就超过分块大小时扩大映射范围
+     */
+    private Chunk nextChunk(FileChannel in, long position, long size, long firstRecord,
+                            Incremental incremental) throws IOException {
+        long remaining = size - position;
+        int length = (int) Math.min(chunkSize, remaining);
+        int[] count = new int[1];
+        while (true) {
+            MappedByteBuffer region = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+            boolean atEnd = length == remaining;
+            int aligned = format == ArchiveFormat.JSONL
+                ? alignLines(region, length, atEnd)
+                : alignRecords(region, length, position, atEnd, count);
+            if (aligned > 0) {
+                return new Chunk(position, region, aligned, firstRecord, count[0], incremental);
+            }
+            if (length >= MAX_MAPPING) {
+                throw new IOException("Record at offset " + position + " exceeds 2GB");
+            }
+            length = (int) Math.min(Math.min(length * 2L, MAX_MAPPING), remaining);
+        }
+    }
+
+    /**
+     * 最后一个换行之后的位置；到达文件末尾时包含没有换行结尾的最后一行
+     */
+    private static int alignLines(ByteBuffer region, int length, boolean atEnd) {
+        if (atEnd) {
+            return length;
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            if (region.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 最后一条完整记录之后的位置，count[0] 为其中的记录数
+     */
+    private static int alignRecords(ByteBuffer region, int length, long position, boolean atEnd,
+                                    int[] count) throws IOException {
+        int p = 0;
+        count[0] = 0;
+        while (length - p >= 4) {
+            int n = region.getInt(p);
+            if (n < 0) {
+                throw new IOException("Invalid record length " + n + " at offset " + (position + p));
+            }
+            if (length - p - 4 < n) {
+                break;
+            }
+            p += 4 + n;
+            count[0]++;
+        }
+        if (p < length && atEnd) {
+            throw new IOException("Truncated record at offset " + (position + p));
+        }
+        return p;
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while converting archive");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 按顺序写出一个分块，把分块内的记录序号换算为全局序号
+     */
+    private static void write(Chunk chunk, FileChannel out, Writer manifestWriter, Totals totals) throws IOException {
+        chunk.output.writeTo(out);
+        for (ArchiveSummary.Failure failure : chunk.failures) {
+            totals.failures.add(new ArchiveSummary.Failure(totals.records + failure.getIndex(),
+                failure.getOffset(), failure.getMessage()));
+        }
+        if (manifestWriter != null) {
+            // 清单中的位置是分块内的偏移，换算为输出文件中的偏移
+            for (Manifest.Entry entry : chunk.entries) {
+                entry.at(totals.bytesOut + entry.offset).writeTo(manifestWriter);
+            }
+        }
+        totals.records += chunk.records;
+        totals.reused += chunk.reused;
+        totals.changed += chunk.changed;
+        totals.bytesOut += chunk.output.size();
+        totals.chunks++;
+    }
+
+    private static final class Totals {
+        private final List<ArchiveSummary.Failure> failures = new ArrayList<>();
+        private long records;
+        private long reused;
+        private long changed;
+        private long bytesIn;
+        private long bytesOut;
+        private int chunks;
+    }
+
+    /**
+     * 增量转换的状态，转换开始后只读
+     */
+    private static final class Incremental {
+        private final Map<String, Manifest.Entry> entries;
+        private final String fingerprint;
+        // 上次的输出，不存在时为null
+        private FileChannel previousOutput;
+
+        Incremental(Map<String, Manifest.Entry> entries, String fingerprint) {
+            this.entries = entries;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * 一个分块：在工作线程中转换为输出缓冲区
+     */
+    private final class Chunk implements Callable<Chunk> {
+        private final long start;
+        private final ByteBuffer data;
+        private final int length;
+        // 长度前缀格式：第一条记录的序号和分块中的记录数，序号作为增量转换的记录标识
+        private final long firstRecord;
+        private final int framedRecords;
+        private final Incremental incremental;
+        private final List<ArchiveSummary.Failure> failures = new ArrayList<>();
+        // 分块内偏移的清单条目
+        private final List<Manifest.Entry> entries = new ArrayList<>();
+        private ChunkBuffer output;
+        private int records;
+        private int reused;
+        private int changed;
+
+        // 当前记录的内容，多条记录复用
+        private final ChunkBuffer record = new ChunkBuffer(4096);
+        private final ChunkBuffer line = new ChunkBuffer(4096);
+        private MessageDigest digest;
+
+        Chunk(long start, ByteBuffer data, int length, long firstRecord, int framedRecords, Incremental incremental) {
+            this.start = start;
+            this.data = data;
+            this.length = length;
+            this.firstRecord = firstRecord;
+            this.framedRecords = framedRecords;
+            this.incremental = incremental;
+        }
+
+        @Override
+        public Chunk call() throws IOException {
+            output = new ChunkBuffer(length + (length >> 2) + 64);
+            if (incremental != null) {
+                digest = Manifest.newDigest();
+            }
+            if (format == ArchiveFormat.JSONL) {
+                convertLines();
+            } else {
+                convertRecords();
+            }
+            return this;
+        }
+
+        private void convertLines() throws IOException {
+            Utf8Output html = new Utf8Output(new JsonLines.StringOutput(output));
+            int[] fields = new int[4];
+            int lineStart = 0;
+            while (lineStart < length) {
+                int lineEnd = lineStart;
+                while (lineEnd < length && data.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                line.reset();
+                line.readFrom(data, lineStart, lineEnd - lineStart);
+                byte[] b = line.array();
+                int end = line.size();
+                if (!isBlank(b, end)) {
+                    int mark = output.size();
+                    boolean parsed = false;
+                    try {
+                        JsonLines.readFields(b, 0, end, field, idField, fields);
+                        parsed = true;
+                        record.reset();
+                        JsonLines.unescape(b, fields[0], fields[1], record);
+                        openObject(b, fields);
+                        output.writeAscii("\"html\":\"");
+                        convertRecord(incremental != null ? recordId(b, fields) : null, html);
+                        output.writeAscii("\"}\n");
+                    } catch (RuntimeException | StackOverflowError e) {
+                        // 丢弃已经写出的部分，改为输出错误
+                        output.truncate(mark);
+                        html = new Utf8Output(new JsonLines.StringOutput(output));
+                        String message = fail(start + lineStart, e);
+                        if (!parsed) {
+                            // 读取失败时已经定位的id可能是不完整的值，不能原样复制
+                            fields[2] = fields[3] = -1;
+                        }
+                        openObject(b, fields);
+                        output.writeAscii("\"error\":");
+                        JsonLines.writeString(message, output);
+                        output.writeAscii("}\n");
+                    }
+                    records++;
+                }
+                lineStart = lineEnd + 1;
+            }
+        }
+
+        private void openObject(byte[] b, int[] fields) {
+            output.write('{');
+            if (fields[2] >= 0) {
+                JsonLines.writeString(idFieldName, output);
+                output.write(':');
+                output.write(b, fields[2], fields[3] - fields[2]);
+                output.write(',');
+            }
+        }
+
+        /**
+         * id字段的原始JSON文本，不存在或不能作为清单标识时为null
+         */
+        private String recordId(byte[] b, int[] fields) {
+            if (fields[2] < 0) {
+                return null;
+            }
+            String id = new String(b, fields[2], fields[3] - fields[2], StandardCharsets.UTF_8);
+            return Manifest.isValidId(id) ? id : null;
+        }
+
+        private void convertRecords() throws IOException {
+            Utf8Output html = new Utf8Output(output);
+            int p = 0;
+            while (p < length) {
+                int n = data.getInt(p);
+                int mark = output.size();
+                output.writeInt(0);
+                try {
+                    record.reset();
+                    record.readFrom(data, p + 4, n);
+                    convertRecord(incremental != null ? Long.toString(firstRecord + records) : null, html);
+                    output.putInt(mark, output.size() - mark - 4);
+                } catch (RuntimeException | StackOverflowError e) {
+                    // 失败的记录输出为空
+                    output.truncate(mark + 4);
+                    output.putInt(mark, 0);
+                    html = new Utf8Output(output);
+                    fail(start + p, e);
+                }
+                records++;
+                p += 4 + n;
+            }
+        }
+
+        /**
+         * 转换record中的BBCode并写入输出
+         * 增量转换时输入和配置指纹都没有变化的记录改为复制上次的输出
+         */
+        private void convertRecord(String id, Utf8Output html) throws IOException {
+            int htmlStart = output.size();
+            Manifest.Entry old = null;
+            String inputHash = null;
+            if (id != null) {
+                inputHash = Manifest.hash(digest, record.array(), 0, record.size());
+                old = incremental.entries.get(id);
+                if (old != null && inputHash.equals(old.inputHash)
+                        && incremental.fingerprint.equals(old.fingerprint) && copyPrevious(old)) {
+                    reused++;
+                    entries.add(old.at(htmlStart));
+                    return;
+                }
+            }
+            converter.bbcodeToHtml(ByteBuffer.wrap(record.array(), 0, record.size()), html);
+            html.flush();
+            if (id != null) {
+                int htmlLength = output.size() - htmlStart;
+                String outputHash = Manifest.hash(digest, output.array(), htmlStart, htmlLength);
+                if (old == null || !outputHash.equals(old.outputHash)) {
+                    changed++;
+                }
+                entries.add(new Manifest.Entry(id, inputHash, incremental.fingerprint, outputHash,
+                    htmlStart, htmlLength));
+            }
+        }
+
+        /**
+         * 从上次的输出中复制，内容与清单中的输出哈希不一致时放弃
+         */
+        private boolean copyPrevious(Manifest.Entry old) throws IOException {
+            if (incremental.previousOutput == null) {
+                return false;
+            }
+            int at = output.size();
+            if (!output.readFrom(incremental.previousOutput, old.offset, old.length)
+                    || !Manifest.hash(digest, output.array(), at, old.length).equals(old.outputHash)) {
+                output.truncate(at);
+                return false;
+            }
+            return true;
+        }
+
+        private String fail(long offset, Throwable e) {
+            String message = e.getMessage() != null
+                ? e.getClass().getSimpleName() + ": " + e.getMessage()
+                : e.getClass().getSimpleName();
+            failures.add(new ArchiveSummary.Failure(records, offset, message));
+            return message;
+        }
+    }
+
+    private static boolean isBlank(byte[] b, int end) {
+        for (int i = 0; i < end; i++) {
+            if (b[i] != ' ' && b[i] != '\t' && b[i] != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "bbcoeter-archive-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    // ============ 命令行 ============
+
+    private static final String USAGE = String.join("\n",
+        "用法: java -cp bbcoeter-core.jar " + ArchiveConverter.class.getName() + " [选项] <输入文件> <输出文件>",
+        "",
+        "  --format jsonl|lp     记录格式，默认jsonl；lp为4字节大端序长度前缀",
+        "  --field NAME          JSONL中BBCode所在的字段，默认bbcode",
+        "  --id-field NAME       JSONL中原样复制到输出的标识字段，默认id",
+        "  --threads N           工作线程数，默认为CPU核数",
+        "  --chunk-size SIZE     分块大小，可用K/M/G后缀，默认4M",
+        "  --queue N             同时处理和等待写出的分块数上限，默认为线程数的2倍",
+        "  --no-escape-html      不转义输出中的HTML",
+        "  --no-img              不转换[img]标签",
+        "  --no-optimize         不优化AST",
+        "  --failures FILE       把全部失败记录写入文件",
+        "  --manifest FILE       增量转换清单：只重新转换输入或转换配置有变化的记录",
+        "",
+        "汇总输出到标准错误。退出码：0 全部成功，1 有记录转换失败，2 参数或读写错误");
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.err));
+    }
+
+    static int run(String[] args, PrintStream log) {
+        Builder builder;
+        BBCodeConverter.Builder converterOptions = BBCodeConverter.builder(new NativeDOMAdapter());
+        ArchiveFormat format = ArchiveFormat.JSONL;
+        String field = "bbcode";
+        String idField = "id";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkSize = 4 << 20;
+        int queue = 0;
+        Path failuresFile = null;
+        Path manifestFile = null;
+        List<String> files = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--format":
+                        format = ArchiveFormat.forName(value(args, ++i, arg));
+                        break;
+                    case "--field":
+                        field = value(args, ++i, arg);
+                        break;
+                    case "--id-field":
+                        idField = value(args, ++i, arg);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "--chunk-size":
+                        chunkSize = parseSize(value(args, ++i, arg));
+                        break;
+                    case "--queue":
+                        queue = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "--no-escape-html":
+                        converterOptions.escapeHtmlInOutput(false);
+                        break;
+                    case "--no-img":
+                        converterOptions.allowImgCode(false);
+                        break;
+                    case "--no-optimize":
+                        converterOptions.optimizeAST(false);
+                        break;
+                    case "--failures":
+                        failuresFile = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--manifest":
+                        manifestFile = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "-h":
+                    case "--help":
+                        log.println(USAGE);
+                        return 0;
+                    default:
+                        if (arg.startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option: " + arg);
+                        }
+                        files.add(arg);
+                }
+            }
+            if (files.size() != 2) {
+                throw new IllegalArgumentException("Expected an input and an output file");
+            }
+            builder = builder(converterOptions.build())
+                .format(format)
+                .field(field)
+                .idField(idField)
+                .threads(threads)
+                .chunkSize(chunkSize)
+                .queueCapacity(queue)
+                .manifest(manifestFile);
+        } catch (IllegalArgumentException e) {
+            log.println(e.getMessage());
+            log.println(USAGE);
+            return 2;
+        }
+
+        ArchiveSummary summary;
+        try {
+            summary = builder.build().convert(Paths.get(files.get(0)), Paths.get(files.get(1)));
+            if (failuresFile != null) {
+                try (Writer writer = Files.newBufferedWriter(failuresFile, StandardCharsets.UTF_8)) {
+                    for (ArchiveSummary.Failure failure : summary.getFailures()) {
+                        writer.write(failure.toString());
+                        writer.write('\n');
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.println("Archive conversion failed: " + e.getMessage());
+            return 2;
+        }
+
+        log.println(summary);
+        List<ArchiveSummary.Failure> failures = summary.getFailures();
+        for (int i = 0; i < failures.size() && i < MAX_REPORTED_FAILURES; i++) {
+            log.println("  " + failures.get(i));
+        }
+        if (failures.size() > MAX_REPORTED_FAILURES) {
+            log.println("  ... " + (failures.size() - MAX_REPORTED_FAILURES) + " more");
+        }
+        return failures.isEmpty() ? 0 : 1;
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[i];
+    }
+
+    private static int parseSize(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        int shift = 0;
+        if (lower.endsWith("k")) {
+            shift = 10;
+        } else if (lower.endsWith("m")) {
+            shift = 20;
+        } else if (lower.endsWith("g")) {
+            shift = 30;
+        }
+        long value = Long.parseLong(shift == 0 ? lower : lower.substring(0, lower.length() - 1)) << shift;
+        if (value <= 0 || value > MAX_MAPPING) {
+            throw new IllegalArgumentException("Invalid chunk size: " + text);
+        }
+        return (int) value;
+    }
+
+    /**
+     * 归档转换器构建器
+     */
+    public static class Builder {
+        private final BBCodeConverter converter;
+        private ArchiveFormat format = ArchiveFormat.JSONL;
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private int chunkSize = 4 << 20;
+        private int queueCapacity;
+        private String field = "bbcode";
+        private String idField = "id";
+        private Path manifest;
+
+        private Builder(BBCodeConverter converter) {
+            this.converter = Objects.requireNonNull(converter, "BBCodeConverter cannot be null");
+        }
+
+        public Builder format(ArchiveFormat format) {
+            this.format = Objects.requireNonNull(format, "Format cannot be null");
+            return this;
+        }
+
+        public Builder threads(int threads) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("threads must be positive: " + threads);
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * 分块的目标大小（字节），分块在记录边界处截断；默认4MB
+         */
+        public Builder chunkSize(int chunkSize) {
+            if (chunkSize <= 0) {
+                throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+            }
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * 已提交但尚未写出的分块数上限，决定内存占用；0表示线程数的2倍
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity < 0) {
+                throw new IllegalArgumentException("queueCapacity must not be negative: " + queueCapacity);
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * JSONL中BBCode所在的字段，默认bbcode
+         */
+        public Builder field(String field) {
+            this.field = Objects.requireNonNull(field, "Field cannot be null");
+            return this;
+        }
+
+        /**
+         * JSONL中原样复制到输出的标识字段，默认id；为null时不复制
+         */
+        public Builder idField(String idField) {
+            this.idField = idField;
+            return this;
+        }
+
+        /**
+         * 增量转换清单，为null时完整转换且不写清单
+         * 清单不存在时完整转换并生成清单；之后的转换读取清单和上次的输出文件，只转换有变化的记录
+         */
+        public Builder manifest(Path manifest) {
+            this.manifest = manifest;
+            return this;
+        }
+
+        public ArchiveConverter build() {
+            return new ArchiveConverter(this);
+        }
+    }
+}
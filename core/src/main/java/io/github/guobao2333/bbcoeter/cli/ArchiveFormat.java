@@ -0,0 +1,36 @@
+package io.github.guobao2333.bbcoeter.cli;
+
+import java.util.Locale;
+
+/**
+ * 归档文件的记录格式，输出使用与输入相同的格式
+ */
+public enum ArchiveFormat {
+    /**
+     * 每行一条记录：JSON对象（BBCode在指定的字符串字段中）或单独的JSON字符串，空行忽略
+     * 输出每行一个对象 {"id":...,"html":"..."}，转换失败时为 {"id":...,"error":"..."}；
+     * 输入中没有id字段时省略id
+     */
+    JSONL,
+
+    /**
+     * 每条记录为4字节大端序长度加上UTF-8内容
+     * 输出格式相同，转换失败的记录输出为长度0
+     */
+    LENGTH_PREFIXED;
+
+    /**
+     * 按命令行名称查找：jsonl、lp（或length-prefixed）
+     */
+    public static ArchiveFormat forName(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "jsonl":
+                return JSONL;
+            case "lp":
+            case "length-prefixed":
+                return LENGTH_PREFIXED;
+            default:
+                throw new IllegalArgumentException("Unknown archive format: " + name);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.guobao2333.bbcoeter.cli;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 一次归档转换的统计：记录数、失败记录和吞吐量
+ */
+public final class ArchiveSummary {
+    private final long records;
+    private final List<Failure> failures;
+    private final long bytesIn;
+    private final long bytesOut;
+    private final int chunks;
+    private final long elapsedNanos;
+    private final boolean incremental;
+    private final long reused;
+    private final long changed;
+
+    ArchiveSummary(long records, List<Failure> failures, long bytesIn, long bytesOut, int chunks, long elapsedNanos,
+                   boolean incremental, long reused, long changed) {
+        this.records = records;
+        this.failures = Collections.unmodifiableList(failures);
+        this.bytesIn = bytesIn;
+        this.bytesOut = bytesOut;
+        this.chunks = chunks;
+        this.elapsedNanos = elapsedNanos;
+        this.incremental = incremental;
+        this.reused = reused;
+        this.changed = changed;
+    }
+
+    /**
+     * 转换失败的一条记录
+     */
+    public static final class Failure {
+        private final long index;
+        private final long offset;
+        private final String message;
+
+        Failure(long index, long offset, String message) {
+            this.index = index;
+            this.offset = offset;
+            this.message = message;
+        }
+
+        /**
+         * 记录序号，从0开始（JSONL不计空行）
+         */
+        public long getIndex() {
+            return index;
+        }
+
+        /**
+         * 记录在输入文件中的字节偏移
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + " @" + offset + ": " + message;
+        }
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * 按记录顺序排列的失败记录
+     */
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * 是否按清单增量转换
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * 增量转换时直接复制上次输出的记录数
+     */
+    public long getReused() {
+        return reused;
+    }
+
+    /**
+     * 增量转换时重新转换后输出与上次不同（或上次没有）的记录数
+     */
+    public long getChanged() {
+        return changed;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * 输入吞吐量（MB/s）
+     */
+    public double getInputMegabytesPerSecond() {
+        return elapsedNanos > 0 ? bytesIn / 1048576.0 / (elapsedNanos / 1e9) : 0;
+    }
+
+    public double getRecordsPerSecond() {
+        return elapsedNanos > 0 ? records / (elapsedNanos / 1e9) : 0;
+    }
+
+    @Override
+    public String toString() {
+        String summary = String.format(Locale.ROOT,
+            "records=%d, failed=%d, chunks=%d, in=%.1f MB, out=%.1f MB, %.2f s, %.1f MB/s, %.0f records/s",
+            records, failures.size(), chunks, bytesIn / 1048576.0, bytesOut / 1048576.0,
+            elapsedNanos / 1e9, getInputMegabytesPerSecond(), getRecordsPerSecond());
+        return incremental ? summary + ", reused=" + reused + ", changed=" + changed : summary;
+    }
+}
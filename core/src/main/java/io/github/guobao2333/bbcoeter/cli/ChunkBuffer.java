@@ -0,0 +1,126 @@
+package io.github.guobao2333.bbcoeter.cli;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * 可增长的字节缓冲区
+ * 用作一个分块的输出，转换失败时截断回记录开始的位置；也用作工作线程复用的记录缓冲区
+ */
+final class ChunkBuffer extends OutputStream {
+    private byte[] data;
+    private int size;
+
+    ChunkBuffer(int capacity) {
+        this.data = new byte[Math.max(capacity, 16)];
+    }
+
+    @Override
+    public void write(int b) {
+        ensure(1);
+        data[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        ensure(length);
+        System.arraycopy(bytes, offset, data, size, length);
+        size += length;
+    }
+
+    /**
+     * 写入ASCII字符串
+     */
+    void writeAscii(String text) {
+        int length = text.length();
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            data[size++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * 写入大端序的int
+     */
+    void writeInt(int value) {
+        ensure(4);
+        putInt(size, value);
+        size += 4;
+    }
+
+    /**
+     * 覆盖at处已经写入的int，用于回填长度前缀
+     */
+    void putInt(int at, int value) {
+        data[at] = (byte) (value >>> 24);
+        data[at + 1] = (byte) (value >>> 16);
+        data[at + 2] = (byte) (value >>> 8);
+        data[at + 3] = (byte) value;
+    }
+
+    /**
+     * 追加src中 [position, position + length) 的字节，不改变src的位置
+     */
+    void readFrom(ByteBuffer src, int position, int length) {
+        ensure(length);
+        ByteBuffer view = src.duplicate();
+        view.position(position);
+        view.get(data, size, length);
+        size += length;
+    }
+
+    /**
+     * 追加文件中 [position, position + length) 的字节，文件不够长时返回false
+     */
+    boolean readFrom(FileChannel channel, long position, int length) throws IOException {
+        ensure(length);
+        ByteBuffer buffer = ByteBuffer.wrap(data, size, length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position() - size) < 0) {
+                return false;
+            }
+        }
+        size += length;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 底层数组，有效内容为 [0, size())
+     */
+    byte[] array() {
+        return data;
+    }
+
+    void truncate(int newSize) {
+        size = newSize;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data, 0, size);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void ensure(int length) {
+        if (length > data.length - size) {
+            long needed = (long) size + length;
+            if (needed > Integer.MAX_VALUE - 8) {
+                throw new OutOfMemoryError("Chunk output exceeds 2GB");
+            }
+            data = Arrays.copyOf(data, (int) Math.max(needed, Math.min(data.length * 2L, Integer.MAX_VALUE - 8)));
+        }
+    }
+}
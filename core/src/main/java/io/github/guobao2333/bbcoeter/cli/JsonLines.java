@@ -0,0 +1,379 @@
+package io.github.guobao2333.bbcoeter.cli;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSONL记录的字节级读写，只支持归档转换需要的部分
+ *
+ * 读取：每行是一个JSON对象（或单独的字符串），只定位顶层的两个字段，其他值按语法跳过不解析。
+ * 字段名按原始字节比较，不处理字段名中的转义。字符串内容按UTF-8字节原样复制，只展开转义序列。
+ * 写入：StringOutput把写入的UTF-8字节转义为JSON字符串内容。
+ */
+final class JsonLines {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private JsonLines() {
+    }
+
+    /**
+     * 读取一行记录中的字段
+     * @param fields 结果：[0, 1] 为field字符串内容的范围，[2, 3] 为idField原始值的范围，不存在时为-1
+     * @throws IllegalArgumentException 不是合法的记录，或field不存在、不是字符串
+     */
+    static void readFields(byte[] b, int from, int end, byte[] field, byte[] idField, int[] fields) {
+        fields[0] = fields[1] = fields[2] = fields[3] = -1;
+        int i = skipWhitespace(b, from, end);
+        if (i < end && b[i] == '"') {
+            // 整行是一个字符串
+            int close = stringEnd(b, i, end);
+            if (skipWhitespace(b, close, end) != end) {
+                throw new IllegalArgumentException("Unexpected content after string");
+            }
+            fields[0] = i + 1;
+            fields[1] = close - 1;
+            return;
+        }
+        if (i >= end || b[i] != '{') {
+            throw new IllegalArgumentException("Record is not a JSON object or string");
+        }
+        i = skipWhitespace(b, i + 1, end);
+        if (i < end && b[i] == '}') {
+            i++;
+        } else {
+            while (true) {
+                if (i >= end || b[i] != '"') {
+                    throw new IllegalArgumentException("Expected field name at column " + (i - from));
+                }
+                int nameEnd = stringEnd(b, i, end);
+                int nameStart = i + 1;
+                i = skipWhitespace(b, nameEnd, end);
+                if (i >= end || b[i] != ':') {
+                    throw new IllegalArgumentException("Expected ':' at column " + (i - from));
+                }
+                int valueStart = skipWhitespace(b, i + 1, end);
+                int valueEnd = skipValue(b, valueStart, end);
+                if (nameEquals(b, nameStart, nameEnd - 1, field)) {
+                    if (b[valueStart] != '"') {
+                        throw new IllegalArgumentException("Field \"" + ascii(field) + "\" is not a string");
+                    }
+                    fields[0] = valueStart + 1;
+                    fields[1] = valueEnd - 1;
+                } else if (idField != null && nameEquals(b, nameStart, nameEnd - 1, idField)) {
+                    fields[2] = valueStart;
+                    fields[3] = valueEnd;
+                }
+                i = skipWhitespace(b, valueEnd, end);
+                if (i < end && b[i] == ',') {
+                    i = skipWhitespace(b, i + 1, end);
+                } else if (i < end && b[i] == '}') {
+                    i++;
+                    break;
+                } else {
+                    throw new IllegalArgumentException("Expected ',' or '}' at column " + (i - from));
+                }
+            }
+        }
+        if (skipWhitespace(b, i, end) != end) {
+            throw new IllegalArgumentException("Unexpected content after object");
+        }
+        if (fields[0] < 0) {
+            throw new IllegalArgumentException("Missing field \"" + ascii(field) + "\"");
+        }
+    }
+
+    /**
+     * 展开字符串内容 [start, end) 中的转义，以UTF-8写入out
+     */
+    static void unescape(byte[] b, int start, int end, ChunkBuffer out) {
+        int run = start;
+        int i = start;
+        while (i < end) {
+            if (b[i] != '\\') {
+                i++;
+                continue;
+            }
+            out.write(b, run, i - run);
+            if (i + 1 >= end) {
+                throw new IllegalArgumentException("Incomplete escape sequence");
+            }
+            byte c = b[i + 1];
+            i += 2;
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    out.write(c);
+                    break;
+                case 'b':
+                    out.write('\b');
+                    break;
+                case 'f':
+                    out.write('\f');
+                    break;
+                case 'n':
+                    out.write('\n');
+                    break;
+                case 'r':
+                    out.write('\r');
+                    break;
+                case 't':
+                    out.write('\t');
+                    break;
+                case 'u':
+                    int cp = hex4(b, i, end);
+                    i += 4;
+                    if (Character.isHighSurrogate((char) cp) && i + 6 <= end && b[i] == '\\' && b[i + 1] == 'u') {
+                        int low = hex4(b, i + 2, end);
+                        if (Character.isLowSurrogate((char) low)) {
+                            cp = Character.toCodePoint((char) cp, (char) low);
+                            i += 6;
+                        }
+                    }
+                    writeCodePoint(cp, out);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid escape sequence \\" + (char) (c & 0xFF));
+            }
+            run = i;
+        }
+        out.write(b, run, end - run);
+    }
+
+    /**
+     * 写入转义后的JSON字符串（含引号）
+     */
+    static void writeString(String text, ChunkBuffer out) {
+        out.write('"');
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        new StringOutput(out).write(bytes, 0, bytes.length);
+        out.write('"');
+    }
+
+    /**
+     * 把写入的UTF-8字节转义为JSON字符串内容：引号、反斜杠和控制字符，其他字节原样写出
+     */
+    static final class StringOutput extends OutputStream {
+        private final ChunkBuffer out;
+
+        StringOutput(ChunkBuffer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int offset, int length) {
+            int end = offset + length;
+            int run = offset;
+            for (int i = offset; i < end; i++) {
+                int c = b[i];
+                if (c >= 0x20 && c != '"' && c != '\\' || c < 0) {
+                    continue;
+                }
+                out.write(b, run, i - run);
+                out.write('\\');
+                switch (c) {
+                    case '"':
+                    case '\\':
+                        out.write(c);
+                        break;
+                    case '\n':
+                        out.write('n');
+                        break;
+                    case '\r':
+                        out.write('r');
+                        break;
+                    case '\t':
+                        out.write('t');
+                        break;
+                    default:
+                        out.writeAscii("u00");
+                        out.write(HEX[c >> 4]);
+                        out.write(HEX[c & 0xF]);
+                        break;
+                }
+                run = i + 1;
+            }
+            out.write(b, run, end - run);
+        }
+    }
+
+    private static int skipWhitespace(byte[] b, int i, int end) {
+        while (i < end && (b[i] == ' ' || b[i] == '\t' || b[i] == '\r' || b[i] == '\n')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * i处为引号，返回结束引号之后的位置
+     */
+    private static int stringEnd(byte[] b, int i, int end) {
+        for (int k = i + 1; k < end; k++) {
+            if (b[k] == '\\') {
+                k++;
+            } else if (b[k] == '"') {
+                return k + 1;
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string");
+    }
+
+    /**
+     * 跳过i处的一个值，返回值之后的位置；对象和数组按括号深度跳过
+     */
+    private static int skipValue(byte[] b, int i, int end) {
+        if (i >= end) {
+            throw new IllegalArgumentException("Missing value");
+        }
+        byte c = b[i];
+        if (c == '"') {
+            return stringEnd(b, i, end);
+        }
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            for (int k = i; k < end; k++) {
+                byte d = b[k];
+                if (d == '"') {
+                    k = stringEnd(b, k, end) - 1;
+                } else if (d == '{' || d == '[') {
+                    depth++;
+                } else if ((d == '}' || d == ']') && --depth == 0) {
+                    return k + 1;
+                }
+            }
+            throw new IllegalArgumentException("Unterminated " + (c == '{' ? "object" : "array"));
+        }
+        // 数字、true、false、null：id字段会被原样复制到输出，必须是合法的值
+        int k = literalEnd(b, i, end);
+        if (k < 0) {
+            k = numberEnd(b, i, end);
+        }
+        if (k < 0 || (k < end && b[k] != ',' && b[k] != '}' && b[k] != ']'
+                && b[k] != ' ' && b[k] != '\t' && b[k] != '\r' && b[k] != '\n')) {
+            throw new IllegalArgumentException("Invalid value at column " + i);
+        }
+        return k;
+    }
+
+    private static final byte[][] LITERALS = {
+        "true".getBytes(StandardCharsets.US_ASCII),
+        "false".getBytes(StandardCharsets.US_ASCII),
+        "null".getBytes(StandardCharsets.US_ASCII),
+    };
+
+    /**
+     * i处为true、false或null时返回其后的位置，否则返回-1
+     */
+    private static int literalEnd(byte[] b, int i, int end) {
+        for (byte[] literal : LITERALS) {
+            if (nameEquals(b, i, Math.min(i + literal.length, end), literal)) {
+                return i + literal.length;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * i处为JSON数字时返回其后的位置，否则返回-1
+     */
+    private static int numberEnd(byte[] b, int i, int end) {
+        int k = i;
+        if (k < end && b[k] == '-') {
+            k++;
+        }
+        if (k < end && b[k] == '0') {
+            k++;
+        } else {
+            int digits = digitsEnd(b, k, end);
+            if (digits == k) {
+                return -1;
+            }
+            k = digits;
+        }
+        if (k < end && b[k] == '.') {
+            int digits = digitsEnd(b, k + 1, end);
+            if (digits == k + 1) {
+                return -1;
+            }
+            k = digits;
+        }
+        if (k < end && (b[k] == 'e' || b[k] == 'E')) {
+            k++;
+            if (k < end && (b[k] == '+' || b[k] == '-')) {
+                k++;
+            }
+            int digits = digitsEnd(b, k, end);
+            if (digits == k) {
+                return -1;
+            }
+            k = digits;
+        }
+        return k;
+    }
+
+    private static int digitsEnd(byte[] b, int i, int end) {
+        while (i < end && b[i] >= '0' && b[i] <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean nameEquals(byte[] b, int start, int end, byte[] name) {
+        if (end - start != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (b[start + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hex4(byte[] b, int i, int end) {
+        if (i + 4 > end) {
+            throw new IllegalArgumentException("Incomplete \\u escape");
+        }
+        int value = 0;
+        for (int k = i; k < i + 4; k++) {
+            int digit = Character.digit((char) b[k], 16);
+            if (digit < 0 || b[k] < 0) {
+                throw new IllegalArgumentException("Invalid \\u escape");
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    /**
+     * 未配对的代理写为 '?'，与Utf8Output一致
+     */
+    private static void writeCodePoint(int cp, ChunkBuffer out) {
+        if (cp < 0x80) {
+            out.write(cp);
+        } else if (cp < 0x800) {
+            out.write(0xC0 | cp >> 6);
+            out.write(0x80 | cp & 0x3F);
+        } else if (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE) {
+            out.write('?');
+        } else if (cp < 0x10000) {
+            out.write(0xE0 | cp >> 12);
+            out.write(0x80 | cp >> 6 & 0x3F);
+            out.write(0x80 | cp & 0x3F);
+        } else {
+            out.write(0xF0 | cp >> 18);
+            out.write(0x80 | cp >> 12 & 0x3F);
+            out.write(0x80 | cp >> 6 & 0x3F);
+            out.write(0x80 | cp & 0x3F);
+        }
+    }
+
+    private static String ascii(byte[] name) {
+        return new String(name, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,143 @@
+package io.github.guobao2333.bbcoeter.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 增量转换的清单：每条记录的标识、输入哈希、配置指纹哈希、输出哈希以及输出在文件中的位置
+ *
+ * 文本格式，每行一条记录，字段以制表符分隔，#开头的行为注释：
+ * <pre>id  inputHash  fingerprint  outputHash  outputOffset  outputLength</pre>
+ * 哈希为SHA-256的前128位（32个十六进制字符）。输出哈希按写入文件的字节计算，
+ * 复用前会重新校验，输出文件被修改过时对应记录重新转换。
+ */
+final class Manifest {
+    static final String HEADER = "# bbcoeter manifest 1: id, input, fingerprint, output, offset, length";
+    private static final int HASH_BYTES = 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Manifest() {
+    }
+
+    static final class Entry {
+        final String id;
+        final String inputHash;
+        final String fingerprint;
+        final String outputHash;
+        final long offset;
+        final int length;
+
+        Entry(String id, String inputHash, String fingerprint, String outputHash, long offset, int length) {
+            this.id = id;
+            this.inputHash = inputHash;
+            this.fingerprint = fingerprint;
+            this.outputHash = outputHash;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * 输出位置移动到offset
+         */
+        Entry at(long offset) {
+            return new Entry(id, inputHash, fingerprint, outputHash, offset, length);
+        }
+
+        void writeTo(Writer writer) throws IOException {
+            writer.write(id);
+            writer.write('\t');
+            writer.write(inputHash);
+            writer.write('\t');
+            writer.write(fingerprint);
+            writer.write('\t');
+            writer.write(outputHash);
+            writer.write('\t');
+            writer.write(Long.toString(offset));
+            writer.write('\t');
+            writer.write(Integer.toString(length));
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * 读取清单，文件不存在时返回空表
+     * @throws IOException 读取失败或格式错误
+     */
+    static Map<String, Entry> read(Path path) throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                if (fields.length != 6) {
+                    throw new IOException("Malformed manifest line " + number + " in " + path);
+                }
+                try {
+                    entries.put(fields[0], new Entry(fields[0], fields[1], fields[2], fields[3],
+                        Long.parseLong(fields[4]), Integer.parseInt(fields[5])));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed manifest line " + number + " in " + path, e);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return entries;
+        }
+        return entries;
+    }
+
+    /**
+     * 可以作为清单标识：非空且不含制表符和换行
+     */
+    static boolean isValidId(String id) {
+        if (id.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c == '\t' || c == '\n' || c == '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 每个Java平台都必须提供SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String hash(MessageDigest digest, byte[] bytes, int offset, int length) {
+        digest.reset();
+        digest.update(bytes, offset, length);
+        byte[] sum = digest.digest();
+        char[] hex = new char[HASH_BYTES * 2];
+        for (int i = 0; i < HASH_BYTES; i++) {
+            hex[i * 2] = HEX[(sum[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[sum[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    static String hash(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return hash(newDigest(), bytes, 0, bytes.length);
+    }
+}
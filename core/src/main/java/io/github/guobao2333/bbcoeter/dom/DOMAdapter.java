@@ -0,0 +1,241 @@
+package io.github.guobao2333.bbcoeter.dom;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import io.github.guobao2333.bbcoeter.dom.*;
+
+/**
+ * DOM操作的抽象接口
+ * 可以为不同的HTML解析库提供实现（Jsoup、浏览器DOM、Cheerio等）
+ */
+public interface DOMAdapter {
+
+    /**
+     * 解析HTML字符串为文档对象
+     */
+    DOMDocument parseHTML(String html);
+
+    /**
+     * 创建空文档
+     */
+    DOMDocument createDocument();
+
+    /**
+     * DOM文档接口
+     */
+    public interface DOMDocument {
+        /**
+         * 选择所有匹配的元素
+         */
+        List<DOMElement> select(String cssSelector);
+
+        /**
+         * 获取文档的HTML内容
+         */
+        String html();
+
+        /**
+         * 获取文档的文本内容
+         */
+        String text();
+
+        /**
+         * 获取根元素
+         */
+        DOMElement body();
+
+        /**
+         * 按文档顺序遍历根元素的所有后代，不含根元素本身
+         */
+        default void traverse(DOMVisitor visitor) {
+            DOMElement body = body();
+            if (body != null) {
+                body.traverse(visitor);
+            }
+        }
+    }
+
+    /**
+     * DOM遍历的访问者
+     * 回调中的元素对象可能被适配器复用，只在回调期间有效，不能保存
+     */
+    public interface DOMVisitor {
+        /**
+         * 进入元素
+         * @return 是否继续访问该元素的子节点
+         */
+        boolean enter(DOMElement element);
+
+        /**
+         * 文本节点（实体已解码，空白未折叠）
+         */
+        void text(String text);
+
+        /**
+         * 离开元素，enter返回false时同样会调用
+         */
+        void exit(DOMElement element);
+    }
+
+    /**
+     * DOM节点接口：元素或文本
+     */
+    public interface DOMNode {
+        /**
+         * 文本节点的内容（实体已解码，空白未折叠），元素节点返回null
+         */
+        String nodeText();
+
+        default boolean isText() {
+            return nodeText() != null;
+        }
+
+        /**
+         * 创建文本节点
+         */
+        static DOMNode text(String text) {
+            Objects.requireNonNull(text, "Text cannot be null");
+            return () -> text;
+        }
+    }
+
+    /**
+     * DOM元素接口
+     */
+    public interface DOMElement extends DOMNode {
+        @Override
+        default String nodeText() {
+            return null;
+        }
+
+        /**
+         * 获取标签名
+         */
+        String tagName();
+
+        /**
+         * 获取属性值
+         */
+        String attr(String attributeName);
+
+        /**
+         * 设置属性值
+         */
+        void attr(String attributeName, String value);
+
+        /**
+         * 检查是否有某个属性
+         */
+        boolean hasAttr(String attributeName);
+
+        /**
+         * 获取所有属性名
+         */
+        Set<String> attributes();
+
+        /**
+         * 获取元素的HTML内容
+         */
+        String html();
+
+        /**
+         * 设置元素的HTML内容
+         */
+        void html(String html);
+
+        /**
+         * 获取元素的文本内容
+         */
+        String text();
+
+        /**
+         * 设置元素的文本内容
+         */
+        void text(String text);
+
+        /**
+         * 获取子元素
+         */
+        List<DOMElement> children();
+
+        /**
+         * 按文档顺序获取子节点，包括元素和文本节点，不含注释等其他节点
+         * 默认实现只能取得子元素，没有子元素时以text()作为唯一的文本节点；适配器应当覆盖此方法
+         */
+        default List<DOMNode> childNodes() {
+            List<DOMElement> children = children();
+            if (children.isEmpty()) {
+                String text = text();
+                return text == null || text.isEmpty()
+                    ? Collections.<DOMNode>emptyList()
+                    : Collections.singletonList(DOMNode.text(text));
+            }
+            return new ArrayList<>(children);
+        }
+
+        /**
+         * 按文档顺序遍历所有后代，不含当前元素本身
+         * 默认实现基于childNodes()，使用显式栈；适配器可以覆盖此方法以避免为每个节点创建包装对象
+         */
+        default void traverse(DOMVisitor visitor) {
+            Deque<DOMElement> elements = new ArrayDeque<>();
+            Deque<Iterator<DOMNode>> iterators = new ArrayDeque<>();
+            elements.push(this);
+            iterators.push(childNodes().iterator());
+            while (!iterators.isEmpty()) {
+                Iterator<DOMNode> iterator = iterators.peek();
+                if (!iterator.hasNext()) {
+                    iterators.pop();
+                    DOMElement element = elements.pop();
+                    if (element != this) {
+                        visitor.exit(element);
+                    }
+                    continue;
+                }
+                DOMNode node = iterator.next();
+                if (node.isText()) {
+                    visitor.text(node.nodeText());
+                    continue;
+                }
+                DOMElement element = (DOMElement) node;
+                if (visitor.enter(element)) {
+                    elements.push(element);
+                    iterators.push(element.childNodes().iterator());
+                } else {
+                    visitor.exit(element);
+                }
+            }
+        }
+
+        /**
+         * 选择匹配的子元素
+         */
+        List<DOMElement> select(String cssSelector);
+
+        /**
+         * 获取父元素
+         */
+        DOMElement parent();
+
+        /**
+         * 替换当前元素
+         */
+        void replaceWith(String html);
+
+        /**
+         * 移除当前元素
+         */
+        void remove();
+
+        /**
+         * 转换为外部HTML字符串
+         */
+        String outerHtml();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,490 @@
+package io.github.guobao2333.bbcoeter.dom;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HTML词法分析器 - 手写的单遍扫描器
+ * 只输出文本、开始标签、结束标签三种词法单元，注释、DOCTYPE和处理指令直接跳过；
+ * 标签名和属性名转为小写，文本和属性值中的字符实体在读取时解码。
+ * script、style等原始文本元素的内容整体作为一个文本单元，不识别其中的标签
+ */
+final class HTMLTokenizer {
+
+    /**
+     * 词法单元类型
+     */
+    enum TokenType {
+        TEXT,       // 文本
+        START_TAG,  // 开始标签 <name ...>
+        END_TAG,    // 结束标签 </name>
+        EOF         // 输入结束
+    }
+
+    private static final int MAX_ATTRIBUTES = 64;
+
+    private final String input;
+    private final int length;
+    private int pos;
+
+    // 当前词法单元
+    private TokenType type;
+    private String text;
+    private String tagName;
+    private String[] attributeNames = new String[4];
+    private String[] attributeValues = new String[4];
+    private int attributeCount;
+    private boolean selfClosing;
+
+    // 刚读到原始文本元素的开始标签时，为其名称；下一个词法单元读取到对应结束标签为止的全部内容
+    private String rawTextElement;
+
+    HTMLTokenizer(String input) {
+        this.input = input != null ? input : "";
+        this.length = this.input.length();
+    }
+
+    /**
+     * 读取下一个词法单元
+     */
+    TokenType next() {
+        if (rawTextElement != null) {
+            String name = rawTextElement;
+            rawTextElement = null;
+            int end = findRawTextEnd(name);
+            if (end > pos) {
+                text = isEscapableRawText(name) ? decode(pos, end, false) : input.substring(pos, end);
+                pos = end;
+                return type = TokenType.TEXT;
+            }
+        }
+
+        while (pos < length) {
+            int start = pos;
+            if (isMarkupStart(pos)) {
+                if (readMarkup()) {
+                    return type;
+                }
+                if (pos > start) {
+                    // 注释等被跳过
+                    continue;
+                }
+            }
+            // 不构成标记的 '<' 留在文本中继续扫描，整段文本只生成一个词法单元
+            int end = start;
+            do {
+                end = input.indexOf('<', end + 1);
+            } while (end >= 0 && !isMarkupStart(end));
+            if (end < 0) {
+                end = length;
+            }
+            text = decode(pos, end, false);
+            pos = end;
+            return type = TokenType.TEXT;
+        }
+        return type = TokenType.EOF;
+    }
+
+    /**
+     * at处的 '<' 是否可能开始一个标记（标签、注释等），与readMarkup的判断一致
+     */
+    private boolean isMarkupStart(int at) {
+        if (input.charAt(at) != '<' || at + 1 >= length) {
+            return false;
+        }
+        char c = input.charAt(at + 1);
+        if (c == '!' || c == '?' || isLetter(c)) {
+            return true;
+        }
+        return c == '/' && at + 2 < length;
+    }
+
+    /**
+     * 读取 '<' 开始的标记
+     * @return 读到标签时返回true；跳过注释等内容时pos前进并返回false；不构成标记时pos不变并返回false
+     */
+    private boolean readMarkup() {
+        int i = pos + 1;
+        if (i >= length) {
+            return false;
+        }
+        char c = input.charAt(i);
+        if (c == '!') {
+            if (input.startsWith("--", i + 1)) {
+                int end = input.indexOf("-->", i + 3);
+                pos = end < 0 ? length : end + 3;
+            } else {
+                skipBogusComment(i);
+            }
+            return false;
+        }
+        if (c == '?') {
+            skipBogusComment(i);
+            return false;
+        }
+
+        boolean closing = false;
+        if (c == '/') {
+            closing = true;
+            i++;
+            if (i >= length) {
+                return false;
+            }
+            c = input.charAt(i);
+            if (c == '>') {
+                // "</>" 被忽略
+                pos = i + 1;
+                return false;
+            }
+            if (!isLetter(c)) {
+                skipBogusComment(i);
+                return false;
+            }
+        } else if (!isLetter(c)) {
+            return false;
+        }
+
+        int nameStart = i;
+        while (i < length && !isTagNameEnd(input.charAt(i))) {
+            i++;
+        }
+        String name = toLowerAscii(nameStart, i);
+        attributeCount = 0;
+        selfClosing = false;
+
+        while (true) {
+            i = skipWhitespace(i);
+            if (i >= length) {
+                // 标签未结束就到了输入末尾，整个标签丢弃
+                pos = length;
+                return false;
+            }
+            c = input.charAt(i);
+            if (c == '>') {
+                i++;
+                break;
+            }
+            if (c == '/') {
+                i++;
+                if (i < length && input.charAt(i) == '>') {
+                    selfClosing = true;
+                    i++;
+                    break;
+                }
+                continue;
+            }
+
+            int attrStart = i;
+            while (i < length && !isAttributeNameEnd(input.charAt(i))) {
+                i++;
+            }
+            if (i == attrStart) {
+                // 以 '=' 开头的属性名
+                i++;
+            }
+            int attrEnd = i;
+            String value = "";
+            i = skipWhitespace(i);
+            if (i < length && input.charAt(i) == '=') {
+                i = skipWhitespace(i + 1);
+                if (i < length) {
+                    char quote = input.charAt(i);
+                    if (quote == '"' || quote == '\'') {
+                        int end = input.indexOf(quote, i + 1);
+                        if (end < 0) {
+                            pos = length;
+                            return false;
+                        }
+                        value = decode(i + 1, end, true);
+                        i = end + 1;
+                    } else {
+                        int valueStart = i;
+                        while (i < length && !isWhitespace(input.charAt(i)) && input.charAt(i) != '>') {
+                            i++;
+                        }
+                        value = decode(valueStart, i, true);
+                    }
+                }
+            }
+            if (!closing) {
+                addAttribute(attrStart, attrEnd, value);
+            }
+        }
+
+        pos = i;
+        tagName = name;
+        if (closing) {
+            attributeCount = 0;
+            type = TokenType.END_TAG;
+        } else {
+            type = TokenType.START_TAG;
+            if (isRawText(name)) {
+                rawTextElement = name;
+            }
+        }
+        return true;
+    }
+
+    private void skipBogusComment(int from) {
+        int end = input.indexOf('>', from);
+        pos = end < 0 ? length : end + 1;
+    }
+
+    private void addAttribute(int nameStart, int nameEnd, String value) {
+        if (attributeCount == MAX_ATTRIBUTES) {
+            return;
+        }
+        String name = toLowerAscii(nameStart, nameEnd);
+        // 重复的属性以第一个为准
+        for (int k = 0; k < attributeCount; k++) {
+            if (attributeNames[k].equals(name)) {
+                return;
+            }
+        }
+        if (attributeCount == attributeNames.length) {
+            attributeNames = Arrays.copyOf(attributeNames, attributeCount * 2);
+            attributeValues = Arrays.copyOf(attributeValues, attributeCount * 2);
+        }
+        attributeNames[attributeCount] = name;
+        attributeValues[attributeCount] = value;
+        attributeCount++;
+    }
+
+    /**
+     * 原始文本元素的结束标签位置，找不到时为输入末尾
+     */
+    private int findRawTextEnd(String name) {
+        int at = input.indexOf("</", pos);
+        while (at >= 0) {
+            int after = at + 2 + name.length();
+            if (input.regionMatches(true, at + 2, name, 0, name.length())
+                    && (after >= length || isTagNameEnd(input.charAt(after)))) {
+                return at;
+            }
+            at = input.indexOf("</", at + 2);
+        }
+        return length;
+    }
+
+    // ============ 字符实体 ============
+
+    private static final Map<String, String> ENTITIES = new HashMap<>();
+
+    static {
+        String[] entities = {
+            "amp", "&", "lt", "<", "gt", ">", "quot", "\"", "apos", "'", "nbsp", "\u00A0",
+            "copy", "©", "reg", "®", "trade", "™", "hellip", "…",
+            "mdash", "—", "ndash", "–", "lsquo", "‘", "rsquo", "’",
+            "ldquo", "“", "rdquo", "”", "laquo", "«", "raquo", "»",
+            "middot", "·", "bull", "•", "times", "×", "divide", "÷",
+            "deg", "°", "plusmn", "±", "euro", "€", "pound", "£",
+            "yen", "¥", "cent", "¢", "sect", "§", "para", "¶",
+            "ensp", "\u2002", "emsp", "\u2003", "thinsp", "\u2009", "zwj", "\u200D", "zwnj", "\u200C",
+            "larr", "←", "rarr", "→", "uarr", "↑", "darr", "↓",
+            "hearts", "♥", "iexcl", "¡", "iquest", "¿", "shy", "\u00AD"
+        };
+        for (int i = 0; i < entities.length; i += 2) {
+            ENTITIES.put(entities[i], entities[i + 1]);
+        }
+    }
+
+    /**
+     * 解码[start, end)中的字符实体，不含 '&' 时直接返回子串
+     * 未知实体保持原样；amp、lt、gt、quot、nbsp在文本中可以省略分号
+     */
+    private String decode(int start, int end, boolean attribute) {
+        // 只在本范围内查找，indexOf会一直扫描到输入末尾
+        int amp = start;
+        while (amp < end && input.charAt(amp) != '&') {
+            amp++;
+        }
+        if (amp == end) {
+            return input.substring(start, end);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        sb.append(input, start, amp);
+        int i = amp;
+        while (i < end) {
+            char c = input.charAt(i);
+            if (c != '&') {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            int consumed = decodeEntity(i, end, attribute, sb);
+            if (consumed == 0) {
+                sb.append('&');
+                i++;
+            } else {
+                i += consumed;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 解码at处的实体并写入sb
+     * @return 消耗的字符数，不是实体时为0
+     */
+    private int decodeEntity(int at, int end, boolean attribute, StringBuilder sb) {
+        int i = at + 1;
+        if (i < end && input.charAt(i) == '#') {
+            i++;
+            boolean hex = i < end && (input.charAt(i) == 'x' || input.charAt(i) == 'X');
+            if (hex) {
+                i++;
+            }
+            int digitsStart = i;
+            int codePoint = 0;
+            while (i < end && i - digitsStart < 8) {
+                int digit = Character.digit(input.charAt(i), hex ? 16 : 10);
+                if (digit < 0) {
+                    break;
+                }
+                codePoint = codePoint * (hex ? 16 : 10) + digit;
+                i++;
+            }
+            if (i == digitsStart) {
+                return 0;
+            }
+            if (i < end && input.charAt(i) == ';') {
+                i++;
+            }
+            if (codePoint == 0 || codePoint > Character.MAX_CODE_POINT
+                    || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+                codePoint = 0xFFFD;
+            }
+            sb.appendCodePoint(codePoint);
+            return i - at;
+        }
+
+        int nameStart = i;
+        while (i < end && i - nameStart < 32 && isLetterOrDigit(input.charAt(i))) {
+            i++;
+        }
+        if (i == nameStart) {
+            return 0;
+        }
+        String name = input.substring(nameStart, i);
+        String value = ENTITIES.get(name);
+        if (value == null) {
+            return 0;
+        }
+        if (i < end && input.charAt(i) == ';') {
+            sb.append(value);
+            return i + 1 - at;
+        }
+        // 省略分号的旧式写法只接受最常见的几个，属性值中不解码（避免破坏URL参数）
+        if (attribute || !(name.equals("amp") || name.equals("lt") || name.equals("gt")
+                || name.equals("quot") || name.equals("nbsp"))) {
+            return 0;
+        }
+        sb.append(value);
+        return i - at;
+    }
+
+    // ============ 字符分类 ============
+
+    static boolean isRawText(String name) {
+        switch (name) {
+            case "script":
+            case "style":
+            case "textarea":
+            case "title":
+            case "xmp":
+            case "iframe":
+            case "noembed":
+            case "noframes":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isEscapableRawText(String name) {
+        return name.equals("textarea") || name.equals("title");
+    }
+
+    private int skipWhitespace(int i) {
+        while (i < length && isWhitespace(input.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isTagNameEnd(char c) {
+        return isWhitespace(c) || c == '/' || c == '>';
+    }
+
+    private static boolean isAttributeNameEnd(char c) {
+        return isWhitespace(c) || c == '/' || c == '>' || c == '=';
+    }
+
+    private String toLowerAscii(int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                char[] chars = input.substring(start, end).toCharArray();
+                for (int j = i - start; j < chars.length; j++) {
+                    if (chars[j] >= 'A' && chars[j] <= 'Z') {
+                        chars[j] += 'a' - 'A';
+                    }
+                }
+                return new String(chars);
+            }
+        }
+        return input.substring(start, end);
+    }
+
+    // ============ 当前词法单元 ============
+
+    TokenType getType() {
+        return type;
+    }
+
+    /**
+     * 当前文本（实体已解码）
+     */
+    String getText() {
+        return text;
+    }
+
+    /**
+     * 当前标签的小写名称
+     */
+    String getTagName() {
+        return tagName;
+    }
+
+    int getAttributeCount() {
+        return attributeCount;
+    }
+
+    String getAttributeName(int index) {
+        return attributeNames[index];
+    }
+
+    String getAttributeValue(int index) {
+        return attributeValues[index];
+    }
+
+    /**
+     * 开始标签是否以 "/>" 结尾
+     */
+    boolean isSelfClosing() {
+        return selfClosing;
+    }
+}
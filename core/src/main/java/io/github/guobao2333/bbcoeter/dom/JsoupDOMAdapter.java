@@ -5,9 +5,13 @@ import org.jsoup.Jsoup;
 import org.jsoup.nodes.Attribute;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.Elements;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 基于Jsoup的DOM适配器实现
@@ -30,6 +34,22 @@ public class JsoupDOMAdapter implements DOMAdapter {
         return new JsoupDocument(doc);
     }
 
+    /**
+     * 包装已经解析好的Jsoup文档，避免重复解析
+     * 包装对象直接引用该文档，通过包装对象所做的修改会反映到文档上
+     */
+    public static DOMDocument wrap(Document document) {
+        return new JsoupDocument(document);
+    }
+
+    private static List<DOMElement> wrapAll(Elements elements) {
+        List<DOMElement> result = new ArrayList<>(elements.size());
+        for (Element element : elements) {
+            result.add(new JsoupElement(element));
+        }
+        return result;
+    }
+
     /**
      * Jsoup文档实现
      */
@@ -42,9 +62,7 @@ public class JsoupDOMAdapter implements DOMAdapter {
 
         @Override
         public List<DOMElement> select(String cssSelector) {
-            return document.select(cssSelector).stream()
-                .map(JsoupElement::new)
-                .collect(Collectors.toList());
+            return wrapAll(document.select(cssSelector));
         }
 
         @Override
@@ -68,7 +86,8 @@ public class JsoupDOMAdapter implements DOMAdapter {
      * Jsoup元素实现
      */
     private static class JsoupElement implements DOMElement {
-        private final Element element;
+        // 遍历时复用同一个包装对象，见traverse
+        private Element element;
 
         JsoupElement(Element element) {
             this.element = Objects.requireNonNull(element, "Element cannot be null");
@@ -125,16 +144,60 @@ public class JsoupDOMAdapter implements DOMAdapter {
 
         @Override
         public List<DOMElement> children() {
-            return element.children().stream()
-                .map(JsoupElement::new)
-                .collect(Collectors.toList());
+            return wrapAll(element.children());
+        }
+
+        @Override
+        public List<DOMNode> childNodes() {
+            List<Node> nodes = element.childNodes();
+            List<DOMNode> result = new ArrayList<>(nodes.size());
+            for (Node node : nodes) {
+                if (node instanceof Element) {
+                    result.add(new JsoupElement((Element) node));
+                } else if (node instanceof TextNode) {
+                    result.add(DOMNode.text(((TextNode) node).getWholeText()));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 使用Jsoup的NodeTraversor遍历，整个遍历过程只使用一个包装对象，回调时指向当前元素
+         */
+        @Override
+        public void traverse(DOMVisitor visitor) {
+            Element root = element;
+            JsoupElement view = new JsoupElement(root);
+            NodeTraversor.filter(new NodeFilter() {
+                @Override
+                public FilterResult head(Node node, int depth) {
+                    if (node == root) {
+                        return FilterResult.CONTINUE;
+                    }
+                    if (node instanceof Element) {
+                        view.element = (Element) node;
+                        return visitor.enter(view) ? FilterResult.CONTINUE : FilterResult.SKIP_CHILDREN;
+                    }
+                    if (node instanceof TextNode) {
+                        visitor.text(((TextNode) node).getWholeText());
+                    }
+                    return FilterResult.CONTINUE;
+                }
+
+                @Override
+                public FilterResult tail(Node node, int depth) {
+                    if (node != root && node instanceof Element) {
+                        view.element = (Element) node;
+                        visitor.exit(view);
+                    }
+                    return FilterResult.CONTINUE;
+                }
+            }, root);
         }
 
         @Override
         public List<DOMElement> select(String cssSelector) {
-            return element.select(cssSelector).stream()
-                .map(JsoupElement::new)
-                .collect(Collectors.toList());
+            return wrapAll(element.select(cssSelector));
         }
 
         @Override
@@ -0,0 +1,770 @@
+package io.github.guobao2333.bbcoeter.dom;
+
+import java.util.*;
+
+/**
+ * 轻量DOM适配器 - 基于内置的HTMLTokenizer，不依赖第三方库
+ *
+ * 面向HTML转BBCode：只建立body内容的元素树，不区分head，不做完整的HTML5树构建。
+ * 处理常见的不规范写法：
+ * - 结束标签关闭最近的同名元素，找不到时忽略
+ * - 块级元素隐式关闭打开的 p，li、dt/dd、tr、td/th 隐式关闭同级的前一个元素
+ * - 被其他结束标签隐式关闭的格式元素（b、i、font等）在后续内容中重新打开，与浏览器一致
+ * select只支持标签名、"*"及其逗号分隔的组合
+ */
+public class NativeDOMAdapter implements DOMAdapter {
+
+    // 每次最多重新打开的格式元素数，防止畸形输入反复复制
+    private static final int MAX_REOPEN = 8;
+
+    private static final Set<String> VOID_ELEMENTS = new HashSet<>(Arrays.asList(
+        "area", "base", "br", "col", "embed", "hr", "img", "input", "keygen", "link",
+        "meta", "param", "source", "track", "wbr"));
+
+    private static final Set<String> FORMATTING_ELEMENTS = new HashSet<>(Arrays.asList(
+        "a", "b", "big", "code", "em", "font", "i", "nobr", "s", "small", "strike", "strong", "tt", "u"));
+
+    // 开始时隐式关闭 p 的块级元素，这些元素也不会触发格式元素的重新打开
+    private static final Set<String> CLOSES_PARAGRAPH = new HashSet<>(Arrays.asList(
+        "address", "article", "aside", "blockquote", "center", "details", "dialog", "dir", "div", "dl",
+        "fieldset", "figcaption", "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6",
+        "header", "hgroup", "hr", "li", "listing", "main", "menu", "nav", "ol", "p", "pre", "section",
+        "summary", "table", "ul", "dd", "dt"));
+
+    // 可以出现在正文之前而不开始正文的元素
+    private static final Set<String> HEAD_ELEMENTS = new HashSet<>(Arrays.asList(
+        "html", "head", "body", "base", "link", "meta", "script", "style", "title"));
+
+    // 查找打开的元素时不越过的边界
+    private static final Set<String> SCOPE_BOUNDARIES = new HashSet<>(Arrays.asList(
+        "table", "td", "th", "caption", "marquee", "object", "applet", "template", "button"));
+
+    // text() 中前后补空格的块级元素
+    private static final Set<String> BLOCK_ELEMENTS = new HashSet<>(Arrays.asList(
+        "address", "article", "aside", "blockquote", "center", "div", "dl", "dd", "dt", "fieldset",
+        "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6", "header", "hr", "li", "main",
+        "nav", "ol", "p", "pre", "section", "table", "tr", "td", "th", "ul"));
+
+    @Override
+    public DOMDocument parseHTML(String html) {
+        NativeElement body = new NativeElement("body");
+        build(html, body, true);
+        return new NativeDocument(body);
+    }
+
+    @Override
+    public DOMDocument createDocument() {
+        return new NativeDocument(new NativeElement("body"));
+    }
+
+    // ============ 树构建 ============
+
+    /**
+     * 解析html并把结果追加到container的子节点中
+     * @param document 是否为完整文档，文档中正文内容之前的空白属于head，被丢弃
+     */
+    private static void build(String html, NativeElement container, boolean document) {
+        HTMLTokenizer tokenizer = new HTMLTokenizer(html);
+        List<NativeElement> open = new ArrayList<>();
+        List<NativeElement> reopen = new ArrayList<>();
+        open.add(container);
+        boolean leading = document;
+        // 连续的文本（例如被跳过的注释隔开的文本）先收集起来，遇到标签或输入结束时作为一个节点加入
+        // 通常只有一段，第二段出现时才用merged拼接，避免重复复制
+        String pending = null;
+        StringBuilder merged = new StringBuilder();
+
+        HTMLTokenizer.TokenType token;
+        while ((token = tokenizer.next()) != HTMLTokenizer.TokenType.EOF) {
+            if (token == HTMLTokenizer.TokenType.TEXT) {
+                String text = tokenizer.getText();
+                if (leading) {
+                    int start = 0;
+                    while (start < text.length() && HTMLTokenizer.isWhitespace(text.charAt(start))) {
+                        start++;
+                    }
+                    if (start == text.length()) {
+                        continue;
+                    }
+                    text = text.substring(start);
+                    leading = false;
+                }
+                if (pending == null) {
+                    reconstruct(open, reopen);
+                    pending = text;
+                } else {
+                    if (merged.length() == 0) {
+                        merged.append(pending);
+                    }
+                    merged.append(text);
+                }
+                continue;
+            }
+            if (pending != null) {
+                flushText(pending, merged, open);
+                pending = null;
+            }
+            if (token == HTMLTokenizer.TokenType.START_TAG) {
+                leading = leading && HEAD_ELEMENTS.contains(tokenizer.getTagName());
+                startTag(tokenizer, open, reopen);
+            } else {
+                endTag(tokenizer.getTagName(), open, reopen);
+            }
+        }
+        if (pending != null) {
+            flushText(pending, merged, open);
+        }
+    }
+
+    private static void flushText(String pending, StringBuilder merged, List<NativeElement> open) {
+        if (merged.length() > 0) {
+            pending = merged.toString();
+            merged.setLength(0);
+        }
+        current(open).appendText(pending);
+    }
+
+    private static void startTag(HTMLTokenizer tokenizer, List<NativeElement> open, List<NativeElement> reopen) {
+        String name = tokenizer.getTagName();
+        switch (name) {
+            case "html":
+            case "head":
+            case "body":
+                return;
+            case "title":
+                // 属于head的内容，连同其文本一起丢弃，多余的结束标签随后被忽略
+                tokenizer.next();
+                return;
+            case "li":
+                closeSibling(open, reopen, "li", "ul", "ol");
+                break;
+            case "dt":
+            case "dd":
+                closeSibling(open, reopen, "dt", "dl", null);
+                closeSibling(open, reopen, "dd", "dl", null);
+                break;
+            case "tr":
+                if (findOpen(open, "table") < 0) {
+                    // 表格之外的表格结构标签被忽略
+                    return;
+                }
+                closeSibling(open, reopen, "tr", "table", null);
+                break;
+            case "td":
+            case "th":
+                if (findOpen(open, "table") < 0) {
+                    return;
+                }
+                closeSibling(open, reopen, "td", "tr", "table");
+                closeSibling(open, reopen, "th", "tr", "table");
+                break;
+            case "tbody":
+            case "thead":
+            case "tfoot":
+            case "caption":
+            case "col":
+            case "colgroup":
+                if (findOpen(open, "table") < 0) {
+                    return;
+                }
+                break;
+            case "a":
+                // 链接不能嵌套，新的 a 先关闭前一个
+                endTag("a", open, reopen);
+                break;
+            default:
+                break;
+        }
+
+        if (CLOSES_PARAGRAPH.contains(name)) {
+            int p = findOpen(open, "p");
+            if (p > 0) {
+                popTo(open, reopen, p);
+            }
+        } else {
+            reconstruct(open, reopen);
+        }
+
+        NativeElement element = new NativeElement(name);
+        for (int i = 0; i < tokenizer.getAttributeCount(); i++) {
+            element.attr(tokenizer.getAttributeName(i), tokenizer.getAttributeValue(i));
+        }
+        current(open).appendChild(element);
+        if (!VOID_ELEMENTS.contains(name)) {
+            open.add(element);
+        }
+    }
+
+    private static void endTag(String name, List<NativeElement> open, List<NativeElement> reopen) {
+        switch (name) {
+            case "html":
+            case "head":
+            case "body":
+                return;
+            case "br":
+                // </br> 按 <br> 处理
+                reconstruct(open, reopen);
+                current(open).appendChild(new NativeElement("br"));
+                return;
+            default:
+                break;
+        }
+
+        // 已被隐式关闭、等待重新打开的元素，直接取消
+        for (int i = reopen.size() - 1; i >= 0; i--) {
+            if (reopen.get(i).tagName.equals(name)) {
+                reopen.remove(i);
+                return;
+            }
+        }
+
+        int index = findOpen(open, name);
+        if (index < 0) {
+            if (name.equals("p")) {
+                // 孤立的 </p> 按空段落处理
+                current(open).appendChild(new NativeElement("p"));
+            }
+            return;
+        }
+        // 格式元素内直接包含块级元素时（如 <b>x<div>y</b>z</div>），块级元素移到格式元素之后，
+        // 其内容包进格式元素的副本，与浏览器的处理一致；其余情况直接关闭到该元素为止
+        for (int i = 0; i < MAX_REOPEN && FORMATTING_ELEMENTS.contains(name)
+                && index + 1 < open.size() && BLOCK_ELEMENTS.contains(open.get(index + 1).tagName); i++) {
+            adopt(open, index);
+            index = findOpen(open, name);
+        }
+        popTo(open, reopen, index);
+    }
+
+    /**
+     * 把格式元素open[index]的块级子元素移出，块级元素的内容改由格式元素的副本包装
+     */
+    private static void adopt(List<NativeElement> open, int index) {
+        NativeElement formatting = open.get(index);
+        NativeElement block = open.get(index + 1);
+        // 块级元素仍打开，必然是格式元素的最后一个子节点
+        formatting.children.remove(formatting.children.size() - 1);
+        formatting.parent.appendChild(block);
+
+        NativeElement copy = formatting.shallowCopy();
+        for (DOMNode child : block.children) {
+            if (!child.isText()) {
+                ((NativeElement) child).parent = copy;
+            }
+            copy.children.add(child);
+        }
+        block.children.clear();
+        block.appendChild(copy);
+
+        open.remove(index);
+        open.add(index + 1, copy);
+    }
+
+    /**
+     * 关闭同级的前一个元素，例如新的 li 关闭尚未结束的 li
+     */
+    private static void closeSibling(List<NativeElement> open, List<NativeElement> reopen,
+                                     String name, String boundary, String otherBoundary) {
+        for (int i = open.size() - 1; i > 0; i--) {
+            String tagName = open.get(i).tagName;
+            if (tagName.equals(name)) {
+                popTo(open, reopen, i);
+                return;
+            }
+            if (tagName.equals(boundary) || tagName.equals(otherBoundary) || SCOPE_BOUNDARIES.contains(tagName)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 从栈顶向下查找打开的同名元素，不越过表格等边界
+     * @return 在栈中的下标，找不到时为-1
+     */
+    private static int findOpen(List<NativeElement> open, String name) {
+        boolean tableStructure = name.equals("table") || name.equals("tr") || name.equals("td")
+            || name.equals("th") || name.equals("caption");
+        for (int i = open.size() - 1; i > 0; i--) {
+            String tagName = open.get(i).tagName;
+            if (tagName.equals(name)) {
+                return i;
+            }
+            if (!tableStructure && SCOPE_BOUNDARIES.contains(tagName)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 关闭栈中index及其上方的所有元素，其上方的格式元素记录下来稍后重新打开
+     */
+    private static void popTo(List<NativeElement> open, List<NativeElement> reopen, int index) {
+        int insertAt = reopen.size();
+        for (int i = open.size() - 1; i > index; i--) {
+            NativeElement element = open.remove(i);
+            if (FORMATTING_ELEMENTS.contains(element.tagName) && reopen.size() < MAX_REOPEN) {
+                // 外层的元素先打开
+                reopen.add(insertAt, element);
+            }
+        }
+        open.remove(index);
+    }
+
+    /**
+     * 在当前位置重新打开被隐式关闭的格式元素
+     */
+    private static void reconstruct(List<NativeElement> open, List<NativeElement> reopen) {
+        if (reopen.isEmpty()) {
+            return;
+        }
+        for (NativeElement element : reopen) {
+            NativeElement copy = element.shallowCopy();
+            current(open).appendChild(copy);
+            open.add(copy);
+        }
+        reopen.clear();
+    }
+
+    private static NativeElement current(List<NativeElement> open) {
+        return open.get(open.size() - 1);
+    }
+
+    // ============ 选择器 ============
+
+    /**
+     * 解析选择器为标签名集合，"*" 匹配所有元素时返回null
+     */
+    private static Set<String> parseSelector(String cssSelector) {
+        Objects.requireNonNull(cssSelector, "Selector cannot be null");
+        Set<String> names = new HashSet<>();
+        for (String part : cssSelector.split(",")) {
+            String name = part.trim().toLowerCase(Locale.ROOT);
+            if (name.equals("*")) {
+                return null;
+            }
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Unsupported selector: " + cssSelector);
+            }
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == ':')) {
+                    throw new IllegalArgumentException("Unsupported selector: " + cssSelector);
+                }
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * 文档实现
+     */
+    private static class NativeDocument implements DOMDocument {
+        private final NativeElement body;
+
+        NativeDocument(NativeElement body) {
+            this.body = body;
+        }
+
+        @Override
+        public List<DOMElement> select(String cssSelector) {
+            return body.select(cssSelector);
+        }
+
+        @Override
+        public String html() {
+            return "<html><head></head>" + body.outerHtml() + "</html>";
+        }
+
+        @Override
+        public String text() {
+            return body.text();
+        }
+
+        @Override
+        public DOMElement body() {
+            return body;
+        }
+    }
+
+    /**
+     * 元素实现
+     * 子节点为NativeElement或文本节点，属性按名称小写保存在并行数组中
+     */
+    private static class NativeElement implements DOMElement {
+        private final String tagName;
+        private String[] attributeNames;
+        private String[] attributeValues;
+        private int attributeCount;
+        private NativeElement parent;
+        private final List<DOMNode> children = new ArrayList<>();
+
+        NativeElement(String tagName) {
+            this.tagName = tagName;
+        }
+
+        NativeElement shallowCopy() {
+            NativeElement copy = new NativeElement(tagName);
+            for (int i = 0; i < attributeCount; i++) {
+                copy.attr(attributeNames[i], attributeValues[i]);
+            }
+            return copy;
+        }
+
+        void appendChild(NativeElement child) {
+            child.parent = this;
+            children.add(child);
+        }
+
+        /**
+         * 追加文本节点，被标签隔开的文本保持为独立的节点
+         */
+        void appendText(String text) {
+            if (!text.isEmpty()) {
+                children.add(DOMNode.text(text));
+            }
+        }
+
+        private int indexOfAttribute(String attributeName) {
+            for (int i = 0; i < attributeCount; i++) {
+                if (attributeNames[i].equalsIgnoreCase(attributeName)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String tagName() {
+            return tagName;
+        }
+
+        /**
+         * 与Jsoup一致，属性不存在时返回空字符串
+         */
+        @Override
+        public String attr(String attributeName) {
+            int index = indexOfAttribute(attributeName);
+            return index >= 0 ? attributeValues[index] : "";
+        }
+
+        @Override
+        public void attr(String attributeName, String value) {
+            int index = indexOfAttribute(attributeName);
+            if (index >= 0) {
+                attributeValues[index] = value;
+                return;
+            }
+            if (attributeNames == null) {
+                attributeNames = new String[2];
+                attributeValues = new String[2];
+            } else if (attributeCount == attributeNames.length) {
+                attributeNames = Arrays.copyOf(attributeNames, attributeCount * 2);
+                attributeValues = Arrays.copyOf(attributeValues, attributeCount * 2);
+            }
+            attributeNames[attributeCount] = attributeName.toLowerCase(Locale.ROOT);
+            attributeValues[attributeCount] = value;
+            attributeCount++;
+        }
+
+        @Override
+        public boolean hasAttr(String attributeName) {
+            return indexOfAttribute(attributeName) >= 0;
+        }
+
+        @Override
+        public Set<String> attributes() {
+            Set<String> names = new LinkedHashSet<>();
+            for (int i = 0; i < attributeCount; i++) {
+                names.add(attributeNames[i]);
+            }
+            return names;
+        }
+
+        @Override
+        public String html() {
+            StringBuilder sb = new StringBuilder();
+            for (DOMNode child : children) {
+                serialize(child, sb);
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public void html(String html) {
+            clearChildren();
+            build(html, this, false);
+        }
+
+        /**
+         * 后代文本，空白折叠并去掉首尾空白，块级元素和换行之间以空格分隔
+         */
+        @Override
+        public String text() {
+            StringBuilder sb = new StringBuilder();
+            Deque<Iterator<DOMNode>> stack = new ArrayDeque<>();
+            stack.push(children.iterator());
+            while (!stack.isEmpty()) {
+                Iterator<DOMNode> iterator = stack.peek();
+                if (!iterator.hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                DOMNode node = iterator.next();
+                if (node.isText()) {
+                    appendNormalized(node.nodeText(), sb);
+                    continue;
+                }
+                NativeElement element = (NativeElement) node;
+                if (element.tagName.equals("script") || element.tagName.equals("style")) {
+                    // 脚本和样式不是文本内容
+                    continue;
+                }
+                if (element.tagName.equals("br") || BLOCK_ELEMENTS.contains(element.tagName)) {
+                    appendNormalized(" ", sb);
+                }
+                stack.push(element.children.iterator());
+            }
+            int end = sb.length();
+            if (end > 0 && sb.charAt(end - 1) == ' ') {
+                sb.setLength(end - 1);
+            }
+            return sb.length() > 0 && sb.charAt(0) == ' ' ? sb.substring(1) : sb.toString();
+        }
+
+        @Override
+        public void text(String text) {
+            clearChildren();
+            appendText(text != null ? text : "");
+        }
+
+        @Override
+        public List<DOMElement> children() {
+            List<DOMElement> elements = new ArrayList<>();
+            for (DOMNode child : children) {
+                if (!child.isText()) {
+                    elements.add((DOMElement) child);
+                }
+            }
+            return elements;
+        }
+
+        @Override
+        public List<DOMNode> childNodes() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * 直接遍历子节点列表，栈中保存元素及其下一个子节点的下标，不创建迭代器或包装对象
+         */
+        @Override
+        public void traverse(DOMVisitor visitor) {
+            NativeElement[] elements = new NativeElement[16];
+            int[] indices = new int[16];
+            elements[0] = this;
+            int depth = 0;
+            while (depth >= 0) {
+                NativeElement element = elements[depth];
+                if (indices[depth] == element.children.size()) {
+                    elements[depth] = null;
+                    depth--;
+                    if (depth >= 0) {
+                        visitor.exit(element);
+                    }
+                    continue;
+                }
+                DOMNode child = element.children.get(indices[depth]++);
+                if (child.isText()) {
+                    visitor.text(child.nodeText());
+                    continue;
+                }
+                NativeElement childElement = (NativeElement) child;
+                if (!visitor.enter(childElement)) {
+                    visitor.exit(childElement);
+                    continue;
+                }
+                depth++;
+                if (depth == elements.length) {
+                    elements = Arrays.copyOf(elements, depth * 2);
+                    indices = Arrays.copyOf(indices, depth * 2);
+                }
+                elements[depth] = childElement;
+                indices[depth] = 0;
+            }
+        }
+
+        /**
+         * 按文档顺序选择匹配的元素，包括当前元素本身
+         */
+        @Override
+        public List<DOMElement> select(String cssSelector) {
+            Set<String> names = parseSelector(cssSelector);
+            List<DOMElement> result = new ArrayList<>();
+            Deque<NativeElement> stack = new ArrayDeque<>();
+            stack.push(this);
+            while (!stack.isEmpty()) {
+                NativeElement element = stack.pop();
+                if (names == null || names.contains(element.tagName)) {
+                    result.add(element);
+                }
+                for (int i = element.children.size() - 1; i >= 0; i--) {
+                    DOMNode child = element.children.get(i);
+                    if (!child.isText()) {
+                        stack.push((NativeElement) child);
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public DOMElement parent() {
+            return parent;
+        }
+
+        @Override
+        public void replaceWith(String html) {
+            if (parent == null) {
+                return;
+            }
+            NativeElement fragment = new NativeElement("body");
+            build(html, fragment, false);
+            int index = parent.indexOfChild(this);
+            List<DOMNode> siblings = parent.children;
+            siblings.remove(index);
+            for (DOMNode node : fragment.children) {
+                if (!node.isText()) {
+                    ((NativeElement) node).parent = parent;
+                }
+            }
+            siblings.addAll(index, fragment.children);
+            parent = null;
+        }
+
+        @Override
+        public void remove() {
+            if (parent != null) {
+                parent.children.remove(parent.indexOfChild(this));
+                parent = null;
+            }
+        }
+
+        @Override
+        public String outerHtml() {
+            StringBuilder sb = new StringBuilder();
+            serialize(this, sb);
+            return sb.toString();
+        }
+
+        private int indexOfChild(NativeElement child) {
+            for (int i = 0; i < children.size(); i++) {
+                if (children.get(i) == child) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void clearChildren() {
+            for (DOMNode child : children) {
+                if (!child.isText()) {
+                    ((NativeElement) child).parent = null;
+                }
+            }
+            children.clear();
+        }
+    }
+
+    /**
+     * 追加折叠空白后的文本，与已有内容末尾的空格合并；与Jsoup一致，不换行空格也视为空白
+     */
+    private static void appendNormalized(String text, StringBuilder sb) {
+        boolean space = sb.length() == 0 || sb.charAt(sb.length() - 1) == ' ';
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (HTMLTokenizer.isWhitespace(c) || c == '\u00a0') {
+                if (!space) {
+                    sb.append(' ');
+                    space = true;
+                }
+            } else {
+                sb.append(c);
+                space = false;
+            }
+        }
+    }
+
+    /**
+     * 序列化节点及其后代，使用显式栈
+     */
+    private static void serialize(DOMNode root, StringBuilder sb) {
+        // 元素入栈两次：第一次写开始标签并展开子节点，第二次写结束标签
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Object item = stack.pop();
+            if (item instanceof String) {
+                sb.append("</").append((String) item).append('>');
+                continue;
+            }
+            if (item instanceof StringBuilder) {
+                sb.append((StringBuilder) item);
+                continue;
+            }
+            DOMNode node = (DOMNode) item;
+            if (node.isText()) {
+                escape(node.nodeText(), false, sb);
+                continue;
+            }
+            NativeElement element = (NativeElement) node;
+            sb.append('<').append(element.tagName);
+            for (int i = 0; i < element.attributeCount; i++) {
+                sb.append(' ').append(element.attributeNames[i]).append("=\"");
+                escape(element.attributeValues[i], true, sb);
+                sb.append('"');
+            }
+            sb.append('>');
+            if (VOID_ELEMENTS.contains(element.tagName)) {
+                continue;
+            }
+            stack.push(element.tagName);
+            boolean raw = HTMLTokenizer.isRawText(element.tagName);
+            for (int i = element.children.size() - 1; i >= 0; i--) {
+                DOMNode child = element.children.get(i);
+                if (raw && child.isText()) {
+                    // 原始文本元素的内容不转义，单独处理
+                    stack.push(new StringBuilder(child.nodeText()));
+                } else {
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    private static void escape(String text, boolean attribute, StringBuilder sb) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    sb.append("&amp;");
+                    break;
+                case '<':
+                    sb.append(attribute ? "<" : "&lt;");
+                    break;
+                case '>':
+                    sb.append(attribute ? ">" : "&gt;");
+                    break;
+                case '"':
+                    sb.append(attribute ? "&quot;" : "\"");
+                    break;
+                case '\u00a0':
+                    sb.append("&nbsp;");
+                    break;
+                default:
+                    sb.append(c);
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package io.github.guobao2333.bbcoeter.parser;
+
+/**
+ * BBCode词法分析器 - 手写的单遍扫描器
+ * 在 '[' 之间跳跃，识别规则与 \[(/?)(\*|[a-z0-9]+)(?:=([^\]]+))?\] （ASCII大小写不敏感）一致，
+ * 词法单元只记录输入中的偏移量，不产生子串
+ * 输入也可以是把UTF-8字节逐个当作字符的视图：标签的语法字符全部是ASCII，
+ * 多字节序列的每个字节都不小于0x80，不会被误认为标签的一部分，偏移量即为字节偏移
+ */
+public final class BBCodeLexer {
+
+    /**
+     * 词法单元类型
+     */
+    public enum TokenType {
+        TEXT,       // 纯文本
+        OPEN_TAG,   // 开放标签 [name] 或 [name=attr]
+        CLOSE_TAG,  // 闭合标签 [/name]
+        EOF         // 输入结束
+    }
+
+    private static final int UNKNOWN = -1;
+    private static final int NONE = -2;
+
+    private final CharSequence input;
+    private final int length;
+    private int pos;
+
+    // 下一个可能的标签起始位置（已找到但尚未输出的标签）
+    private int pendingTag = UNKNOWN;
+    // 缓存的下一个 ']' 位置，避免畸形输入下的重复扫描
+    private int nextClose = UNKNOWN;
+
+    // 当前词法单元
+    private TokenType type;
+    private int start;
+    private int end;
+    private int nameStart;
+    private int nameEnd;
+    private int attrStart;
+    private int attrEnd;
+    private BBCodeTag tag;
+
+    // findTag 的扫描结果
+    private int scanEnd;
+    private boolean scanClosing;
+
+    public BBCodeLexer(CharSequence input) {
+        this(input, 0);
+    }
+
+    /**
+     * 从指定位置开始扫描，扫描不会回看start之前的内容
+     * @param start 起始偏移，应位于词法单元的边界上
+     */
+    public BBCodeLexer(CharSequence input, int start) {
+        this.input = input != null ? input : "";
+        this.length = this.input.length();
+        if (start < 0 || start > length) {
+            throw new IndexOutOfBoundsException("start " + start + ", length " + length);
+        }
+        this.pos = start;
+    }
+
+    /**
+     * 读取下一个词法单元
+     */
+    public TokenType next() {
+        if (pos >= length) {
+            start = end = length;
+            return type = TokenType.EOF;
+        }
+
+        int tagStart = pendingTag != UNKNOWN ? pendingTag : findTag(pos);
+        pendingTag = UNKNOWN;
+
+        if (tagStart < 0) {
+            // 剩余全部为文本
+            start = pos;
+            end = pos = length;
+            return type = TokenType.TEXT;
+        }
+
+        if (tagStart > pos) {
+            // 标签前的文本，标签留到下一次输出
+            start = pos;
+            end = pos = tagStart;
+            pendingTag = tagStart;
+            return type = TokenType.TEXT;
+        }
+
+        // findTag 已经填好了标签字段
+        start = tagStart;
+        end = pos = scanEnd;
+        return type = scanClosing ? TokenType.CLOSE_TAG : TokenType.OPEN_TAG;
+    }
+
+    /**
+     * 从 from 开始查找下一个合法标签的起始位置
+     */
+    private int findTag(int from) {
+        int at = indexOf('[', from);
+        while (at >= 0) {
+            if (matchTag(at)) {
+                return at;
+            }
+            at = indexOf('[', at + 1);
+        }
+        return -1;
+    }
+
+    private int indexOf(char c, int from) {
+        if (input instanceof String) {
+            return ((String) input).indexOf(c, from);
+        }
+        if (input instanceof Utf8Input) {
+            return ((Utf8Input) input).indexOf(c, from);
+        }
+        for (int i = from; i < length; i++) {
+            if (input.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 尝试在 at 处匹配一个标签
+     */
+    private boolean matchTag(int at) {
+        int i = at + 1;
+        boolean closing = false;
+        if (i < length && input.charAt(i) == '/') {
+            closing = true;
+            i++;
+        }
+        if (i >= length) {
+            return false;
+        }
+
+        int nStart = i;
+        if (input.charAt(i) == '*') {
+            i++;
+        } else {
+            while (i < length && isTagNameChar(input.charAt(i))) {
+                i++;
+            }
+            if (i == nStart) {
+                return false;
+            }
+        }
+        if (i >= length) {
+            return false;
+        }
+
+        int nEnd = i;
+        char c = input.charAt(i);
+        if (c == ']') {
+            attrStart = attrEnd = -1;
+            scanEnd = i + 1;
+        } else if (c == '=' && i + 1 < length && input.charAt(i + 1) != ']') {
+            int close = findClose(i + 1);
+            if (close < 0) {
+                return false;
+            }
+            attrStart = i + 1;
+            attrEnd = close;
+            scanEnd = close + 1;
+        } else {
+            return false;
+        }
+
+        nameStart = nStart;
+        nameEnd = nEnd;
+        scanClosing = closing;
+        tag = BBCodeTag.lookup(input, nStart, nEnd);
+        return true;
+    }
+
+    private int findClose(int from) {
+        if (nextClose == NONE) {
+            return -1;
+        }
+        if (nextClose < from) {
+            int close = indexOf(']', from);
+            nextClose = close < 0 ? NONE : close;
+            return close;
+        }
+        return nextClose;
+    }
+
+    private static boolean isTagNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    // ============ 当前词法单元 ============
+
+    public CharSequence getInput() {
+        return input;
+    }
+
+    public TokenType getType() {
+        return type;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public int getNameStart() {
+        return nameStart;
+    }
+
+    public int getNameEnd() {
+        return nameEnd;
+    }
+
+    /**
+     * 已知标签，未知标签时返回null
+     */
+    public BBCodeTag getTag() {
+        return tag;
+    }
+
+    public boolean hasAttribute() {
+        return attrStart >= 0;
+    }
+
+    public int getAttributeStart() {
+        return attrStart;
+    }
+
+    public int getAttributeEnd() {
+        return attrEnd;
+    }
+
+    /**
+     * 当前文本的内容
+     */
+    public String text() {
+        return substring(start, end);
+    }
+
+    /**
+     * 当前标签的属性值，没有属性时返回null
+     */
+    public String attribute() {
+        return attrStart >= 0 ? substring(attrStart, attrEnd) : null;
+    }
+
+    /**
+     * 当前标签的小写名称（仅用于未知标签回退为文本等少见路径）
+     */
+    public String tagName() {
+        StringBuilder sb = new StringBuilder(nameEnd - nameStart);
+        for (int i = nameStart; i < nameEnd; i++) {
+            sb.append(BBCodeTag.toLowerAscii(input.charAt(i)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 当前标签回退为文本时的内容：标签名小写，闭合标签丢弃属性
+     */
+    public String tagAsText() {
+        if (type == TokenType.CLOSE_TAG) {
+            return "[/" + tagName() + "]";
+        }
+        for (int i = nameStart; i < nameEnd; i++) {
+            char c = input.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                return "[" + tagName() + (attrStart >= 0 ? "=" + attribute() : "") + "]";
+            }
+        }
+        return substring(start, end);
+    }
+
+    /**
+     * 输入为字节视图时解码为字符串
+     */
+    private String substring(int from, int to) {
+        return input.subSequence(from, to).toString();
+    }
+}
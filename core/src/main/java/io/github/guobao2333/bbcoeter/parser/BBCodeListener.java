@@ -0,0 +1,41 @@
+package io.github.guobao2333.bbcoeter.parser;
+
+/**
+ * BBCode解析事件监听器 - 类似SAX的事件接口
+ * 由 {@link BBCodeParser#parse(String, BBCodeListener)} 直接驱动，不构建AST。
+ * 标签匹配与错误恢复规则与AST解析完全一致：
+ * <ul>
+ *   <li>未知标签和无法匹配的闭合标签以文本事件报告</li>
+ *   <li>闭合标签会隐式结束其内部所有未闭合的标签（每个都有endTag事件）</li>
+ *   <li>文档结束时所有未闭合的标签依次收到endTag事件</li>
+ * </ul>
+ * 连续的文本可能分多次报告，需要完整文本的消费者应自行合并。
+ */
+public interface BBCodeListener {
+
+    /**
+     * 开放标签
+     * @param tag 标签
+     * @param attribute 标签的 "=" 参数（如 [url=...] 的地址），没有时为null
+     */
+    default void startTag(BBCodeTag tag, String attribute) {
+    }
+
+    /**
+     * 标签结束（显式闭合、被外层闭合标签隐式结束、或文档结束）
+     */
+    default void endTag(BBCodeTag tag) {
+    }
+
+    /**
+     * 自闭合标签，如 [hr]
+     */
+    default void selfClosing(BBCodeTag tag, String attribute) {
+    }
+
+    /**
+     * 文本内容，范围为 text 的 [start, end)，仅在回调期间有效
+     */
+    default void text(CharSequence text, int start, int end) {
+    }
+}
@@ -0,0 +1,351 @@
+package io.github.guobao2333.bbcoeter.parser;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.ast.ASTOptimizer;
+import io.github.guobao2333.bbcoeter.ast.ASTNode.NodeType;
+import io.github.guobao2333.bbcoeter.ast.AttributeKey;
+import io.github.guobao2333.bbcoeter.ast.FlatAST;
+import io.github.guobao2333.bbcoeter.ast.Utf8Text;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * BBCode解析器 - 基于递归下降的AST构建
+ */
+public class BBCodeParser {
+    // 构建时优化，为null时生成原始树
+    private final ASTOptimizer optimizer;
+    
+    public BBCodeParser() {
+        this(false);
+    }
+    
+    /**
+     * @param optimize 是否在构建时直接生成优化后的树
+     *                 节点闭合时按ASTOptimizer的规则处理其子节点，结果与单独优化一致，树会被标记为已优化
+     */
+    public BBCodeParser(boolean optimize) {
+        this.optimizer = optimize ? new ASTOptimizer() : null;
+    }
+    
+    public boolean isOptimize() {
+        return optimizer != null;
+    }
+    
+    /**
+     * 解析BBCode字符串为AST
+     */
+    public ASTNode parse(String input) {
+        ASTBuilder builder = new ASTBuilder();
+        parse(input, builder);
+        builder.root.setSizeHint(input != null ? input.length() : 0);
+        if (optimizer != null) {
+            optimizer.optimizeChildren(builder.root);
+            builder.root.markOptimized();
+        }
+        return builder.root;
+    }
+    
+    /**
+     * 直接解析UTF-8字节，不先解码为字符串
+     * 文本节点的内容为指向utf8的Utf8Text，AST的生命周期内不能修改该数组
+     */
+    public ASTNode parse(byte[] utf8) {
+        return parse(utf8 != null ? ByteBuffer.wrap(utf8) : null);
+    }
+    
+    /**
+     * 直接解析ByteBuffer剩余部分的UTF-8字节，不改变其位置
+     * 有底层数组时文本节点指向该数组，否则先复制一次字节
+     */
+    public ASTNode parse(ByteBuffer utf8) {
+        Utf8Input input = toInput(utf8);
+        ASTBuilder builder = new ASTBuilder();
+        parse(input, builder);
+        builder.root.setSizeHint(input != null ? input.length() : 0);
+        if (optimizer != null) {
+            optimizer.optimizeChildren(builder.root);
+            builder.root.markOptimized();
+        }
+        return builder.root;
+    }
+    
+    /**
+     * 解析BBCode字符串为紧凑AST
+     */
+    public FlatAST parseFlat(String input) {
+        FlatASTBuilder builder = new FlatASTBuilder(input);
+        parse(input, builder);
+        builder.ast.setSizeHint(input != null ? input.length() : 0);
+        if (optimizer != null) {
+            optimizer.optimizeChildren(builder.ast, builder.ast.getRoot());
+            builder.ast.markOptimized();
+        }
+        return builder.ast;
+    }
+    
+    /**
+     * 以事件方式解析BBCode，不构建AST
+     * @param input BBCode字符串
+     * @param listener 事件监听器
+     */
+    public void parse(String input, BBCodeListener listener) {
+        parse((CharSequence) input, listener);
+    }
+    
+    /**
+     * 以事件方式解析UTF-8字节，不改变ByteBuffer的位置
+     * 文本事件的text为Utf8Text，标签属性和回退为文本的未知标签已解码为字符串
+     */
+    public void parse(ByteBuffer utf8, BBCodeListener listener) {
+        parse(toInput(utf8), listener);
+    }
+    
+    private static Utf8Input toInput(ByteBuffer utf8) {
+        if (utf8 == null) {
+            return null;
+        }
+        if (utf8.hasArray()) {
+            return new Utf8Input(utf8.array(), utf8.arrayOffset() + utf8.position(), utf8.remaining());
+        }
+        byte[] copy = new byte[utf8.remaining()];
+        utf8.duplicate().get(copy);
+        return new Utf8Input(copy, 0, copy.length);
+    }
+    
+    private void parse(CharSequence input, BBCodeListener listener) {
+        Objects.requireNonNull(listener, "BBCodeListener cannot be null");
+        if (input == null || input.length() == 0) {
+            return;
+        }
+        
+        Deque<BBCodeTag> stack = new ArrayDeque<>();
+        BBCodeLexer lexer = new BBCodeLexer(input);
+        BBCodeLexer.TokenType token;
+        
+        while ((token = lexer.next()) != BBCodeLexer.TokenType.EOF) {
+            switch (token) {
+                case TEXT:
+                    if (input instanceof Utf8Input) {
+                        Utf8Text text = ((Utf8Input) input).text(lexer.getStart(), lexer.getEnd());
+                        listener.text(text, 0, text.length());
+                    } else {
+                        listener.text(input, lexer.getStart(), lexer.getEnd());
+                    }
+                    break;
+                case CLOSE_TAG:
+                    // 闭合标签
+                    handleClosingTag(stack, lexer, listener);
+                    break;
+                default:
+                    // 开放标签
+                    handleOpeningTag(stack, lexer, listener);
+                    break;
+            }
+        }
+        
+        // 文档结束，关闭所有未闭合的标签
+        while (!stack.isEmpty()) {
+            listener.endTag(stack.pop());
+        }
+    }
+    
+    /**
+     * 查找顶层分段点：标签栈为空时出现的已知开放标签（含自闭合标签）的起始位置
+     * 相邻分段点之间的内容单独解析，得到的节点与整篇解析中对应的顶层节点相同，可用于增量解析
+     * @param input BBCode字符串
+     * @param from 起始位置，必须是0或一个分段点
+     * @param visitor 依次收到from之后的分段点，返回false时停止查找
+     */
+    public void findTopLevelBoundaries(String input, int from, IntPredicate visitor) {
+        Objects.requireNonNull(visitor, "visitor cannot be null");
+        if (input == null || from >= input.length()) {
+            return;
+        }
+        
+        Deque<BBCodeTag> stack = new ArrayDeque<>();
+        BBCodeLexer lexer = new BBCodeLexer(input, from);
+        BBCodeLexer.TokenType token;
+        
+        // 与parse使用相同的栈规则，只是不产生事件
+        while ((token = lexer.next()) != BBCodeLexer.TokenType.EOF) {
+            BBCodeTag tag = lexer.getTag();
+            if (token == BBCodeLexer.TokenType.TEXT || tag == null) {
+                continue;
+            }
+            if (token == BBCodeLexer.TokenType.CLOSE_TAG) {
+                if (tag.isClosable() && stack.contains(tag)) {
+                    BBCodeTag popped;
+                    do {
+                        popped = stack.pop();
+                    } while (popped != tag);
+                }
+                continue;
+            }
+            if (stack.isEmpty() && lexer.getStart() > from && !visitor.test(lexer.getStart())) {
+                return;
+            }
+            if (!tag.isSelfClosing()) {
+                stack.push(tag);
+            }
+        }
+    }
+    
+    private void handleOpeningTag(Deque<BBCodeTag> stack, BBCodeLexer lexer, BBCodeListener listener) {
+        BBCodeTag tag = lexer.getTag();
+        
+        if (tag == null) {
+            // 未知标签，作为文本处理
+            String text = lexer.tagAsText();
+            listener.text(text, 0, text.length());
+        } else if (tag.isSelfClosing()) {
+            // 自闭合标签不入栈
+            listener.selfClosing(tag, lexer.attribute());
+        } else {
+            listener.startTag(tag, lexer.attribute());
+            stack.push(tag);
+        }
+    }
+    
+    private void handleClosingTag(Deque<BBCodeTag> stack, BBCodeLexer lexer, BBCodeListener listener) {
+        BBCodeTag tag = lexer.getTag();
+        
+        // 查找匹配的开放标签
+        if (tag != null && tag.isClosable() && stack.contains(tag)) {
+            // 找到匹配的标签，弹出到该标签
+            BBCodeTag popped;
+            do {
+                popped = stack.pop();
+                listener.endTag(popped);
+            } while (popped != tag);
+        } else {
+            // 未找到匹配标签，作为文本处理
+            String text = lexer.tagAsText();
+            listener.text(text, 0, text.length());
+        }
+    }
+    
+    /**
+     * 由解析事件构建AST
+     */
+    private class ASTBuilder implements BBCodeListener {
+        private final ASTNode root = new ASTNode(NodeType.DOCUMENT);
+        private final Deque<ASTNode> stack = new ArrayDeque<>();
+        
+        ASTBuilder() {
+            stack.push(root);
+        }
+        
+        @Override
+        public void startTag(BBCodeTag tag, String attribute) {
+            ASTNode node = createNodeForTag(tag, attribute);
+            stack.peek().appendChild(node);
+            stack.push(node);
+        }
+        
+        @Override
+        public void endTag(BBCodeTag tag) {
+            ASTNode closed = stack.pop();
+            if (optimizer != null) {
+                optimizer.optimizeChildren(closed);
+            }
+        }
+        
+        @Override
+        public void selfClosing(BBCodeTag tag, String attribute) {
+            stack.peek().appendChild(createNodeForTag(tag, attribute));
+        }
+        
+        @Override
+        public void text(CharSequence text, int start, int end) {
+            stack.peek().appendText(text, start, end);
+        }
+    }
+    
+    /**
+     * 由解析事件构建紧凑AST
+     */
+    private class FlatASTBuilder implements BBCodeListener {
+        private final FlatAST ast;
+        private int current;
+        
+        FlatASTBuilder(String input) {
+            int length = input != null ? input.length() : 0;
+            // 粗略估计：平均每16个字符一个节点
+            this.ast = new FlatAST(length / 16 + 1, length);
+            this.current = ast.getRoot();
+        }
+        
+        @Override
+        public void startTag(BBCodeTag tag, String attribute) {
+            current = createNodeForTag(ast, current, tag, attribute);
+        }
+        
+        @Override
+        public void endTag(BBCodeTag tag) {
+            int closed = current;
+            current = ast.getParent(current);
+            if (optimizer != null) {
+                optimizer.optimizeChildren(ast, closed);
+            }
+        }
+        
+        @Override
+        public void selfClosing(BBCodeTag tag, String attribute) {
+            createNodeForTag(ast, current, tag, attribute);
+        }
+        
+        @Override
+        public void text(CharSequence text, int start, int end) {
+            ast.appendText(current, text, start, end);
+        }
+    }
+    
+    private ASTNode createNodeForTag(BBCodeTag tag, String attribute) {
+        ASTNode node = new ASTNode(tag.getNodeType());
+        
+        if (attribute != null) {
+            if (tag == BBCodeTag.TABLE) {
+                parseTableAttributes(node, attribute);
+            } else if (tag.getAttributeKey() != null) {
+                node.setAttribute(tag.getAttributeKey(), Interner.attribute(tag.getAttributeKey(), attribute));
+            }
+        }
+        return node;
+    }
+    
+    private int createNodeForTag(FlatAST ast, int parent, BBCodeTag tag, String attribute) {
+        int node = ast.appendChild(parent, tag.getNodeType());
+        
+        if (attribute != null) {
+            if (tag == BBCodeTag.TABLE) {
+                parseTableAttributes(ast, node, attribute);
+            } else if (tag.getAttributeKey() != null) {
+                ast.setAttribute(node, tag.getAttributeKey(), Interner.attribute(tag.getAttributeKey(), attribute));
+            }
+        }
+        return node;
+    }
+    
+    private void parseTableAttributes(ASTNode node, String attr) {
+        String[] parts = attr.split(",");
+        if (parts.length > 0) {
+            node.setAttribute(AttributeKey.WIDTH, Interner.attribute(AttributeKey.WIDTH, parts[0]));
+        }
+        if (parts.length > 1) {
+            node.setAttribute(AttributeKey.BGCOLOR, Interner.attribute(AttributeKey.BGCOLOR, parts[1]));
+        }
+    }
+    
+    private void parseTableAttributes(FlatAST ast, int node, String attr) {
+        String[] parts = attr.split(",");
+        if (parts.length > 0) {
+            ast.setAttribute(node, AttributeKey.WIDTH, Interner.attribute(AttributeKey.WIDTH, parts[0]));
+        }
+        if (parts.length > 1) {
+            ast.setAttribute(node, AttributeKey.BGCOLOR, Interner.attribute(AttributeKey.BGCOLOR, parts[1]));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.guobao2333.bbcoeter.parser;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode.NodeType;
+import io.github.guobao2333.bbcoeter.ast.AttributeKey;
+
+/**
+ * 已知的BBCode标签表
+ * 每个常量对应一种节点类型，可以有多个别名（如 b/strong）
+ */
+public enum BBCodeTag {
+    LIST_ITEM(NodeType.LIST_ITEM, false, null, "*"),
+    BOLD(NodeType.BOLD, true, null, "b", "strong"),
+    ITALIC(NodeType.ITALIC, true, null, "i", "em"),
+    UNDERLINE(NodeType.UNDERLINE, true, null, "u"),
+    STRIKETHROUGH(NodeType.STRIKETHROUGH, true, null, "s", "strike"),
+    URL(NodeType.LINK, true, AttributeKey.HREF, "url"),
+    IMG(NodeType.IMAGE, true, AttributeKey.SRC, "img"),
+    CODE(NodeType.CODE_BLOCK, true, null, "code"),
+    QUOTE(NodeType.QUOTE, true, null, "quote"),
+    LIST(NodeType.LIST, true, AttributeKey.STYLE, "list"),
+    TABLE(NodeType.TABLE, true, null, "table"),  // [table=宽度,背景色] 需要拆分，由解析器处理
+    TR(NodeType.TABLE_ROW, true, AttributeKey.BGCOLOR, "tr"),
+    TD(NodeType.TABLE_CELL, true, AttributeKey.WIDTH, "td", "th"),
+    COLOR(NodeType.COLOR, true, AttributeKey.COLOR, "color"),
+    SIZE(NodeType.SIZE, true, AttributeKey.SIZE, "size"),
+    FONT(NodeType.FONT, true, AttributeKey.FACE, "font"),
+    HR(NodeType.HORIZONTAL_RULE, false, null, "hr");
+
+    // 按首字符（小写ASCII）索引的查找表
+    private static final BBCodeTag[][] TAGS_BY_FIRST_CHAR = new BBCodeTag[128][];
+    private static final char[][][] NAMES_BY_FIRST_CHAR = new char[128][][];
+
+    static {
+        for (BBCodeTag tag : values()) {
+            for (String name : tag.names) {
+                int first = name.charAt(0);
+                BBCodeTag[] tags = TAGS_BY_FIRST_CHAR[first];
+                char[][] names = NAMES_BY_FIRST_CHAR[first];
+                int n = tags == null ? 0 : tags.length;
+                BBCodeTag[] newTags = new BBCodeTag[n + 1];
+                char[][] newNames = new char[n + 1][];
+                if (n > 0) {
+                    System.arraycopy(tags, 0, newTags, 0, n);
+                    System.arraycopy(names, 0, newNames, 0, n);
+                }
+                newTags[n] = tag;
+                newNames[n] = name.toCharArray();
+                TAGS_BY_FIRST_CHAR[first] = newTags;
+                NAMES_BY_FIRST_CHAR[first] = newNames;
+            }
+        }
+    }
+
+    private final NodeType nodeType;
+    private final boolean closable;
+    private final AttributeKey attributeKey;
+    private final String[] names;
+
+    BBCodeTag(NodeType nodeType, boolean closable, AttributeKey attributeKey, String... names) {
+        this.nodeType = nodeType;
+        this.closable = closable;
+        this.attributeKey = attributeKey;
+        this.names = names;
+    }
+
+    public NodeType getNodeType() {
+        return nodeType;
+    }
+
+    /**
+     * 是否可以被闭合标签匹配（[*] 和 [hr] 不可以）
+     */
+    public boolean isClosable() {
+        return closable;
+    }
+
+    /**
+     * 自闭合标签不入栈
+     */
+    public boolean isSelfClosing() {
+        return this == HR;
+    }
+
+    /**
+     * 标签 "=" 参数对应的节点属性，没有参数或需要特殊处理时为null
+     */
+    public AttributeKey getAttributeKey() {
+        return attributeKey;
+    }
+
+    /**
+     * 标签的规范名称（小写）
+     */
+    public String getName() {
+        return names[0];
+    }
+
+    /**
+     * 在输入的 [start, end) 范围内按ASCII大小写不敏感查找标签，不分配新字符串
+     * @return 已知标签，未知时返回null
+     */
+    public static BBCodeTag lookup(CharSequence input, int start, int end) {
+        int first = toLowerAscii(input.charAt(start));
+        if (first >= 128) {
+            return null;
+        }
+        char[][] names = NAMES_BY_FIRST_CHAR[first];
+        if (names == null) {
+            return null;
+        }
+        int length = end - start;
+        for (int i = 0; i < names.length; i++) {
+            char[] name = names[i];
+            if (name.length != length) {
+                continue;
+            }
+            int j = 1;
+            while (j < length && toLowerAscii(input.charAt(start + j)) == name[j]) {
+                j++;
+            }
+            if (j == length) {
+                return TAGS_BY_FIRST_CHAR[first][i];
+            }
+        }
+        return null;
+    }
+
+    static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,321 @@
+package io.github.guobao2333.bbcoeter.parser;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.ast.ASTOptimizer;
+import io.github.guobao2333.bbcoeter.ast.ASTNode.NodeType;
+import io.github.guobao2333.bbcoeter.ast.AttributeKey;
+import io.github.guobao2333.bbcoeter.dom.*;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTML解析器 - 使用DOM适配器构建AST
+ */
+public class HTMLParser {
+    private final DOMAdapter domAdapter;
+    // 构建时优化，为null时生成原始树
+    private final ASTOptimizer optimizer;
+    private final HTMLSanitizer sanitizer;
+    
+    public HTMLParser(DOMAdapter domAdapter) {
+        this(domAdapter, false);
+    }
+    
+    /**
+     * @param optimize 是否在构建时直接生成优化后的树，规则与ASTOptimizer一致
+     */
+    public HTMLParser(DOMAdapter domAdapter, boolean optimize) {
+        this(domAdapter, optimize, HTMLSanitizer.DEFAULT);
+    }
+    
+    /**
+     * @param sanitizer 转换时应用的清理策略
+     */
+    public HTMLParser(DOMAdapter domAdapter, boolean optimize, HTMLSanitizer sanitizer) {
+        this.domAdapter = Objects.requireNonNull(domAdapter, "DOMAdapter cannot be null");
+        this.optimizer = optimize ? new ASTOptimizer() : null;
+        this.sanitizer = Objects.requireNonNull(sanitizer, "Sanitizer cannot be null");
+    }
+    
+    public boolean isOptimize() {
+        return optimizer != null;
+    }
+    
+    public HTMLSanitizer getSanitizer() {
+        return sanitizer;
+    }
+    
+    /**
+     * 解析HTML字符串为AST
+     */
+    public ASTNode parse(String html) {
+        if (html == null || html.isEmpty()) {
+            ASTNode root = new ASTNode(NodeType.DOCUMENT);
+            if (optimizer != null) {
+                root.markOptimized();
+            }
+            return root;
+        }
+        ASTNode root = parse(domAdapter.parseHTML(html));
+        root.setSizeHint(html.length());
+        return root;
+    }
+    
+    /**
+     * 把已经解析好的文档转换为AST，例如由JsoupDOMAdapter.wrap包装的Jsoup文档
+     * 文档不会被修改，清理策略在转换时应用
+     */
+    public ASTNode parse(DOMAdapter.DOMDocument doc) {
+        Objects.requireNonNull(doc, "Document cannot be null");
+        ASTNode root = new ASTNode(NodeType.DOCUMENT);
+        doc.traverse(new Converter(root));
+        
+        if (optimizer != null) {
+            optimizer.optimizeChildren(root);
+            root.markOptimized();
+        }
+        return root;
+    }
+    
+    /**
+     * 单遍转换文档的所有后代，按文档顺序处理元素和文本节点
+     * 每个进入的元素对应一层：其子节点所属的AST节点，以及该节点是否由这一层创建（离开时需要优化）。
+     * 耗时与节点数成线性且不受嵌套深度限制
+     */
+    private final class Converter implements DOMAdapter.DOMVisitor {
+        private ASTNode[] targets = new ASTNode[16];
+        private boolean[] created = new boolean[16];
+        private int depth;
+        
+        Converter(ASTNode root) {
+            targets[0] = root;
+        }
+        
+        @Override
+        public boolean enter(DOMAdapter.DOMElement element) {
+            String tagName = element.tagName().toLowerCase();
+            ASTNode target = targets[depth];
+            HTMLSanitizer.TagAction action = sanitizer.tagAction(tagName);
+            if (action == HTMLSanitizer.TagAction.DROP) {
+                // 危险的子树直接跳过
+                push(target, false);
+                return false;
+            }
+            
+            ASTNode node = action == HTMLSanitizer.TagAction.ALLOW ? createNodeForHtmlTag(tagName, element) : null;
+            if (node == null) {
+                // 未知标签只是包装，其子节点直接并入当前节点
+                push(target, false);
+                return true;
+            }
+            
+            target.appendChild(node);
+            // 叶子节点不处理子节点
+            if (node.getType() == NodeType.IMAGE ||
+                node.getType() == NodeType.LINEBREAK ||
+                node.getType() == NodeType.HORIZONTAL_RULE ||
+                node.getType() == NodeType.CODE_BLOCK) {
+                push(target, false);
+                return false;
+            }
+            push(node, true);
+            return true;
+        }
+        
+        @Override
+        public void text(String text) {
+            appendText(targets[depth], text);
+        }
+        
+        @Override
+        public void exit(DOMAdapter.DOMElement element) {
+            if (created[depth] && optimizer != null) {
+                optimizer.optimizeChildren(targets[depth]);
+            }
+            targets[depth--] = null;
+        }
+        
+        private void push(ASTNode target, boolean createdHere) {
+            depth++;
+            if (depth == targets.length) {
+                targets = Arrays.copyOf(targets, depth * 2);
+                created = Arrays.copyOf(created, depth * 2);
+            }
+            targets[depth] = target;
+            created[depth] = createdHere;
+        }
+    }
+    
+    /**
+     * 追加文本节点的内容
+     * 与HTML的显示一致，连续空白折叠为一个空格（包括与前面相邻文本末尾的空格）；
+     * 列表和表格结构中只含空白的文本被忽略
+     */
+    private static void appendText(ASTNode target, String text) {
+        boolean space = false;
+        List<ASTNode> children = target.getChildrenInternal();
+        if (!children.isEmpty()) {
+            ASTNode last = children.get(children.size() - 1);
+            if (last.getType() == NodeType.TEXT) {
+                CharSequence content = last.getContentSequence();
+                space = content.length() > 0 && content.charAt(content.length() - 1) == ' ';
+            }
+        }
+        
+        // 只有需要折叠时才复制
+        StringBuilder collapsed = null;
+        boolean blank = true;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            boolean whitespace = c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f';
+            if (whitespace && (c != ' ' || space)) {
+                if (collapsed == null) {
+                    collapsed = new StringBuilder(length);
+                    collapsed.append(text, 0, i);
+                }
+                if (!space) {
+                    collapsed.append(' ');
+                }
+            } else if (collapsed != null) {
+                collapsed.append(c);
+            }
+            space = whitespace;
+            blank &= whitespace;
+        }
+        
+        if (blank) {
+            NodeType type = target.getType();
+            if (type == NodeType.LIST || type == NodeType.TABLE || type == NodeType.TABLE_ROW) {
+                return;
+            }
+        }
+        String result = collapsed != null ? collapsed.toString() : text;
+        target.appendText(result, 0, result.length());
+    }
+    
+    private ASTNode createNodeForHtmlTag(String tagName, DOMAdapter.DOMElement element) {
+        ASTNode node;
+        
+        switch (tagName) {
+            case "p":
+                return new ASTNode(NodeType.PARAGRAPH);
+            case "b":
+            case "strong":
+                return new ASTNode(NodeType.BOLD);
+            case "i":
+            case "em":
+                return new ASTNode(NodeType.ITALIC);
+            case "u":
+                return new ASTNode(NodeType.UNDERLINE);
+            case "s":
+            case "strike":
+            case "del":
+                return new ASTNode(NodeType.STRIKETHROUGH);
+            case "a":
+                node = new ASTNode(NodeType.LINK);
+                String href = sanitizer.attr(element, AttributeKey.HREF);
+                if (href != null && !href.isEmpty()) {
+                    node.setAttribute(AttributeKey.HREF, Interner.attribute(AttributeKey.HREF, href));
+                }
+                return node;
+            case "img":
+                node = new ASTNode(NodeType.IMAGE);
+                String src = sanitizer.attr(element, AttributeKey.SRC);
+                if (src != null && !src.isEmpty()) {
+                    node.setAttribute(AttributeKey.SRC, Interner.attribute(AttributeKey.SRC, src));
+                }
+                String width = sanitizer.attr(element, AttributeKey.WIDTH);
+                String height = sanitizer.attr(element, AttributeKey.HEIGHT);
+                if (width != null) node.setAttribute(AttributeKey.WIDTH, Interner.attribute(AttributeKey.WIDTH, width));
+                if (height != null) node.setAttribute(AttributeKey.HEIGHT, Interner.attribute(AttributeKey.HEIGHT, height));
+                return node;
+            case "code":
+            case "pre":
+                node = new ASTNode(NodeType.CODE_BLOCK);
+                node.setContent(element.text());
+                return node;
+            case "blockquote":
+                return new ASTNode(NodeType.QUOTE);
+            case "ul":
+            case "ol":
+                node = new ASTNode(NodeType.LIST);
+                node.setAttribute(AttributeKey.STYLE, tagName.equals("ol") ? "1" : "");
+                return node;
+            case "li":
+                return new ASTNode(NodeType.LIST_ITEM);
+            case "table":
+                node = new ASTNode(NodeType.TABLE);
+                String tableWidth = sanitizer.attr(element, AttributeKey.WIDTH);
+                String tableBgcolor = extractBgColor(element);
+                if (tableWidth != null) node.setAttribute(AttributeKey.WIDTH, Interner.attribute(AttributeKey.WIDTH, tableWidth));
+                if (tableBgcolor != null) node.setAttribute(AttributeKey.BGCOLOR, Interner.attribute(AttributeKey.BGCOLOR, tableBgcolor));
+                return node;
+            case "tr":
+                node = new ASTNode(NodeType.TABLE_ROW);
+                String rowBgcolor = extractBgColor(element);
+                if (rowBgcolor != null) node.setAttribute(AttributeKey.BGCOLOR, Interner.attribute(AttributeKey.BGCOLOR, rowBgcolor));
+                return node;
+            case "td":
+            case "th":
+                node = new ASTNode(NodeType.TABLE_CELL);
+                String cellWidth = sanitizer.attr(element, AttributeKey.WIDTH);
+                if (cellWidth != null) node.setAttribute(AttributeKey.WIDTH, Interner.attribute(AttributeKey.WIDTH, cellWidth));
+                return node;
+            case "br":
+                return new ASTNode(NodeType.LINEBREAK);
+            case "hr":
+                return new ASTNode(NodeType.HORIZONTAL_RULE);
+            case "font":
+                return handleFontTag(element);
+            case "div":
+            case "span":
+                return new ASTNode(NodeType.PARAGRAPH);
+            default:
+                return null;
+        }
+    }
+    
+    private ASTNode handleFontTag(DOMAdapter.DOMElement element) {
+        String color = sanitizer.attr(element, AttributeKey.COLOR);
+        String size = sanitizer.attr(element, AttributeKey.SIZE);
+        String face = sanitizer.attr(element, AttributeKey.FACE);
+        
+        if (color != null) {
+            ASTNode node = new ASTNode(NodeType.COLOR);
+            node.setAttribute(AttributeKey.COLOR, Interner.attribute(AttributeKey.COLOR, color));
+            return node;
+        } else if (size != null) {
+            ASTNode node = new ASTNode(NodeType.SIZE);
+            node.setAttribute(AttributeKey.SIZE, Interner.attribute(AttributeKey.SIZE, size));
+            return node;
+        } else if (face != null) {
+            ASTNode node = new ASTNode(NodeType.FONT);
+            node.setAttribute(AttributeKey.FACE, Interner.attribute(AttributeKey.FACE, face));
+            return node;
+        } else {
+            return new ASTNode(NodeType.PARAGRAPH);
+        }
+    }
+    
+    private static final Pattern EXTRACT_BG_COLOR_PATTERN = Pattern.compile("background-color:\\s*([^;]+)", Pattern.CASE_INSENSITIVE);
+    
+    private String extractBgColor(DOMAdapter.DOMElement element) {
+        String bgcolor = sanitizer.attr(element, AttributeKey.BGCOLOR);
+        if (bgcolor != null && !bgcolor.isEmpty()) {
+            return bgcolor;
+        }
+        
+        String style = sanitizer.attr(element, AttributeKey.STYLE);
+        if (style != null) {
+            Matcher matcher = EXTRACT_BG_COLOR_PATTERN.matcher(style);
+            if (matcher.find()) {
+                return matcher.group(1).trim();
+            }
+        }
+        
+        return null;
+    }
+}
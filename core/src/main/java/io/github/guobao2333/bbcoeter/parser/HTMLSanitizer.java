@@ -0,0 +1,275 @@
+package io.github.guobao2333.bbcoeter.parser;
+
+import io.github.guobao2333.bbcoeter.ast.AttributeKey;
+import io.github.guobao2333.bbcoeter.dom.DOMAdapter;
+
+import java.util.*;
+
+/**
+ * HTML转AST时使用的白名单清理策略
+ *
+ * 构建时编译为查找表：标签名到处理方式的映射、按AttributeKey序号索引的属性开关、允许的URL协议集合，
+ * HTMLParser在唯一的一次转换遍历中查询，不修改文档，也不需要事先单独遍历。
+ * - 允许的标签转换为对应的AST节点
+ * - 丢弃的标签连同其全部内容跳过（脚本、样式、插件等）
+ * - 其他标签只作为包装，内容并入父节点
+ * 只有AttributeKey中的属性会被读取，事件处理器（on*）等属性从不进入AST。
+ * href和src的协议不在白名单中时（如 javascript:），该属性视为不存在。
+ *
+ * 实例不可变，可在多个转换器和线程之间共享
+ */
+public final class HTMLSanitizer {
+
+    /**
+     * 标签的处理方式
+     */
+    enum TagAction {
+        ALLOW,   // 转换为AST节点
+        UNWRAP,  // 只保留内容
+        DROP     // 连同内容跳过
+    }
+
+    // HTMLParser能够转换的标签
+    private static final Set<String> CONVERTIBLE_TAGS = new HashSet<>(Arrays.asList(
+        "p", "b", "strong", "i", "em", "u", "s", "strike", "del", "a", "img", "code", "pre",
+        "blockquote", "ul", "ol", "li", "table", "tr", "td", "th", "br", "hr", "font", "div", "span"));
+
+    private static final String[] DEFAULT_DROPPED_TAGS = {
+        "script", "style", "noscript", "select", "object", "embed", "iframe"
+    };
+
+    private static final String[] DEFAULT_URL_SCHEMES = {"http", "https", "ftp", "mailto"};
+
+    /**
+     * 默认策略：允许所有可转换的标签和属性，丢弃脚本、样式和插件，链接只允许常见协议和相对地址
+     */
+    public static final HTMLSanitizer DEFAULT = builder().build();
+
+    private final Map<String, TagAction> tagActions;
+    private final boolean[] allowedAttributes;
+    private final Set<String> urlSchemes;
+    private final boolean allowRelativeUrls;
+    // 规范化的策略描述，用作缓存键的一部分
+    private final String description;
+
+    private HTMLSanitizer(Builder builder) {
+        this.tagActions = new HashMap<>();
+        for (String tag : builder.allowedTags) {
+            tagActions.put(tag, TagAction.ALLOW);
+        }
+        // 丢弃优先于允许
+        for (String tag : builder.droppedTags) {
+            tagActions.put(tag, TagAction.DROP);
+        }
+        this.allowedAttributes = new boolean[AttributeKey.values().length];
+        for (String name : builder.allowedAttributes) {
+            AttributeKey key = AttributeKey.of(name);
+            if (key != null) {
+                allowedAttributes[key.ordinal()] = true;
+            }
+        }
+        this.urlSchemes = new HashSet<>(builder.urlSchemes);
+        this.allowRelativeUrls = builder.allowRelativeUrls;
+        Set<String> allowedTags = new TreeSet<>(builder.allowedTags);
+        allowedTags.removeAll(builder.droppedTags);
+        this.description = "tags=" + allowedTags
+            + ",drop=" + new TreeSet<>(builder.droppedTags)
+            + ",attrs=" + new TreeSet<>(builder.allowedAttributes)
+            + ",schemes=" + new TreeSet<>(builder.urlSchemes)
+            + ",relative=" + allowRelativeUrls;
+    }
+
+    /**
+     * 以默认策略为基础创建构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 以当前策略为基础创建构建器
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.allowedTags.clear();
+        builder.droppedTags.clear();
+        builder.allowedAttributes.clear();
+        builder.urlSchemes.clear();
+        for (Map.Entry<String, TagAction> entry : tagActions.entrySet()) {
+            (entry.getValue() == TagAction.DROP ? builder.droppedTags : builder.allowedTags).add(entry.getKey());
+        }
+        for (AttributeKey key : AttributeKey.values()) {
+            if (allowedAttributes[key.ordinal()]) {
+                builder.allowedAttributes.add(key.getName());
+            }
+        }
+        builder.urlSchemes.addAll(urlSchemes);
+        builder.allowRelativeUrls = allowRelativeUrls;
+        return builder;
+    }
+
+    /**
+     * 小写标签名的处理方式
+     */
+    TagAction tagAction(String tagName) {
+        TagAction action = tagActions.get(tagName);
+        return action != null ? action : TagAction.UNWRAP;
+    }
+
+    /**
+     * 读取允许的属性值；属性不允许，或URL属性的协议不允许时返回null
+     */
+    String attr(DOMAdapter.DOMElement element, AttributeKey key) {
+        if (!allowedAttributes[key.ordinal()]) {
+            return null;
+        }
+        String value = element.attr(key.getName());
+        if (value != null && (key == AttributeKey.HREF || key == AttributeKey.SRC) && !isAllowedUrl(value)) {
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * 检查URL的协议
+     * 与浏览器一致，协议名中的空白和控制字符被忽略（如 "java\tscript:"），比较不区分大小写
+     */
+    boolean isAllowedUrl(String url) {
+        StringBuilder scheme = null;
+        for (int i = 0; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c <= ' ') {
+                continue;
+            }
+            if (c == ':') {
+                return scheme != null && urlSchemes.contains(scheme.toString());
+            }
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            boolean schemeChar = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                || (scheme != null && ((c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.'));
+            if (!schemeChar) {
+                break;
+            }
+            if (scheme == null) {
+                scheme = new StringBuilder(8);
+            }
+            scheme.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return allowRelativeUrls;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    /**
+     * 策略构建器，初始内容为默认策略
+     * 标签名、属性名和协议名不区分大小写
+     */
+    public static class Builder {
+        private final Set<String> allowedTags = new HashSet<>(CONVERTIBLE_TAGS);
+        private final Set<String> droppedTags = new HashSet<>(Arrays.asList(DEFAULT_DROPPED_TAGS));
+        private final Set<String> allowedAttributes = new HashSet<>();
+        private final Set<String> urlSchemes = new HashSet<>(Arrays.asList(DEFAULT_URL_SCHEMES));
+        private boolean allowRelativeUrls = true;
+
+        private Builder() {
+            for (AttributeKey key : AttributeKey.values()) {
+                allowedAttributes.add(key.getName());
+            }
+        }
+
+        /**
+         * 允许标签转换为AST节点，只对HTMLParser能够转换的标签有效
+         */
+        public Builder allowTags(String... tags) {
+            for (String tag : tags) {
+                String name = normalize(tag);
+                if (CONVERTIBLE_TAGS.contains(name)) {
+                    allowedTags.add(name);
+                }
+                droppedTags.remove(name);
+            }
+            return this;
+        }
+
+        /**
+         * 不再转换标签，只保留其内容
+         */
+        public Builder disallowTags(String... tags) {
+            for (String tag : tags) {
+                String name = normalize(tag);
+                allowedTags.remove(name);
+                droppedTags.remove(name);
+            }
+            return this;
+        }
+
+        /**
+         * 标签连同其全部内容跳过
+         */
+        public Builder dropTags(String... tags) {
+            for (String tag : tags) {
+                droppedTags.add(normalize(tag));
+            }
+            return this;
+        }
+
+        /**
+         * 允许读取属性，只对AttributeKey中的属性有效
+         */
+        public Builder allowAttributes(String... attributes) {
+            for (String attribute : attributes) {
+                String name = normalize(attribute);
+                if (AttributeKey.of(name) != null) {
+                    allowedAttributes.add(name);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * 忽略属性，转换结果中视为不存在
+         */
+        public Builder disallowAttributes(String... attributes) {
+            for (String attribute : attributes) {
+                allowedAttributes.remove(normalize(attribute));
+            }
+            return this;
+        }
+
+        public Builder allowUrlSchemes(String... schemes) {
+            for (String scheme : schemes) {
+                urlSchemes.add(normalize(scheme));
+            }
+            return this;
+        }
+
+        public Builder disallowUrlSchemes(String... schemes) {
+            for (String scheme : schemes) {
+                urlSchemes.remove(normalize(scheme));
+            }
+            return this;
+        }
+
+        /**
+         * 是否允许没有协议的相对地址，默认允许
+         */
+        public Builder allowRelativeUrls(boolean allowRelativeUrls) {
+            this.allowRelativeUrls = allowRelativeUrls;
+            return this;
+        }
+
+        public HTMLSanitizer build() {
+            return new HTMLSanitizer(this);
+        }
+
+        private static String normalize(String name) {
+            Objects.requireNonNull(name, "Name cannot be null");
+            return name.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
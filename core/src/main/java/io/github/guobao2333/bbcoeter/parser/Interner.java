@@ -0,0 +1,81 @@
+package io.github.guobao2333.bbcoeter.parser;
+
+import io.github.guobao2333.bbcoeter.ast.AttributeKey;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 解析器共用的属性值驻留表
+ * 颜色、字号、字体、图床地址等属性值在大量帖子中反复出现，驻留后AST多数时候引用同一个实例，
+ * 缓存的AST占用更少的堆。只驻留属性值：标签回退成的文本是任意用户输入，会把常用值挤出表。
+ *
+ * 表是定长的直接映射数组：槽位冲突时新值覆盖旧值，内存有界且无锁，多线程并发使用安全。
+ * 被覆盖后再出现的相等值会得到新的实例，所以驻留不保证引用相等，比较属性值仍然要用equals。
+ */
+final class Interner {
+    // 槽位数，必须是2的幂
+    private static final int TABLE_SIZE = 4096;
+    // 更长的值很少重复，不驻留
+    private static final int MAX_LENGTH = 128;
+
+    private static final AtomicReferenceArray<String> TABLE = new AtomicReferenceArray<>(TABLE_SIZE);
+
+    private Interner() {
+    }
+
+    /**
+     * 规范化并驻留属性值
+     * 颜色不区分大小写，统一为小写；URL、尺寸、字体去掉首尾空白；列表样式区分大小写，保持原样
+     */
+    static String attribute(AttributeKey key, String value) {
+        if (value == null) {
+            return null;
+        }
+        switch (key) {
+            case COLOR:
+            case BGCOLOR:
+                value = toLowerAscii(value.trim());
+                break;
+            case STYLE:
+                break;
+            default:
+                value = value.trim();
+                break;
+        }
+        return intern(value);
+    }
+
+    /**
+     * 返回表中与value相等的实例，不存在时把value放入表中
+     */
+    private static String intern(String value) {
+        if (value == null || value.length() > MAX_LENGTH) {
+            return value;
+        }
+        int hash = value.hashCode();
+        int index = (hash ^ (hash >>> 16)) & (TABLE_SIZE - 1);
+        String existing = TABLE.get(index);
+        if (existing != null && existing.equals(value)) {
+            return existing;
+        }
+        TABLE.lazySet(index, value);
+        return value;
+    }
+
+    /**
+     * ASCII小写，不含大写字母时返回原字符串
+     */
+    private static String toLowerAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                char[] chars = value.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    chars[j] = BBCodeTag.toLowerAscii(chars[j]);
+                }
+                return new String(chars);
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.guobao2333.bbcoeter.parser;
+
+import io.github.guobao2333.bbcoeter.ast.Utf8Text;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 供词法分析器扫描的UTF-8字节视图
+ * 每个字节作为一个字符（0-255），下标即字节偏移；标签语法只涉及ASCII，按字节查找与按字符查找结果相同。
+ * 取子序列时才按UTF-8解码，只用于属性值和回退为文本的标签。
+ */
+final class Utf8Input implements CharSequence {
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    Utf8Input(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * [start, end) 范围的文本，不解码
+     */
+    Utf8Text text(int start, int end) {
+        return new Utf8Text(bytes, offset + start, end - start);
+    }
+
+    int indexOf(char c, int from) {
+        byte b = (byte) c;
+        int end = offset + length;
+        for (int i = offset + from; i < end; i++) {
+            if (bytes[i] == b) {
+                return i - offset;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes[offset + index] & 0xFF);
+    }
+
+    @Override
+    public String subSequence(int start, int end) {
+        return new String(bytes, offset + start, end - start, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length);
+    }
+}
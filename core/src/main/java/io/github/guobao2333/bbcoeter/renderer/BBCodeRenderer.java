@@ -0,0 +1,364 @@
+package io.github.guobao2333.bbcoeter.renderer;
+
+import io.github.guobao2333.bbcoeter.ast.ASTCursor;
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.ast.ASTNode.NodeType;
+import io.github.guobao2333.bbcoeter.ast.AttributeKey;
+import io.github.guobao2333.bbcoeter.ast.FlatAST;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * BBCode渲染器 - 将AST转换为BBCode
+ */
+public class BBCodeRenderer {
+    private final boolean escapeHtml;
+    
+    public BBCodeRenderer() {
+        this(true);
+    }
+    
+    /**
+     * 渲染器创建后不可变，可在多线程间共享
+     * @param escapeHtml 是否转义文本中的HTML
+     */
+    public BBCodeRenderer(boolean escapeHtml) {
+        this.escapeHtml = escapeHtml;
+    }
+    
+    public boolean isEscapeHtml() {
+        return escapeHtml;
+    }
+    
+    /**
+     * 渲染AST为BBCode字符串
+     */
+    public String render(ASTNode root) {
+        if (root == null) {
+            return "";
+        }
+        
+        StringBuilder sb = RenderBuffers.acquire(RenderBuffers.estimate(root.getSizeHint()));
+        try {
+            renderNode(root.cursor(), sb);
+        } catch (IOException e) {
+            // StringBuilder不会抛出IOException
+            throw new UncheckedIOException(e);
+        }
+        return RenderBuffers.release(sb);
+    }
+    
+    /**
+     * 渲染AST并直接写入输出目标（如Writer），不在内存中保留完整结果
+     * @param root AST根节点
+     * @param out 输出目标
+     */
+    public void render(ASTNode root, Appendable out) throws IOException {
+        if (root == null) {
+            return;
+        }
+        
+        renderNode(root.cursor(), out);
+    }
+    
+    /**
+     * 渲染紧凑AST为BBCode字符串
+     */
+    public String render(FlatAST ast) {
+        if (ast == null) {
+            return "";
+        }
+        
+        StringBuilder sb = RenderBuffers.acquire(RenderBuffers.estimate(ast.getSizeHint()));
+        try {
+            renderNode(ast.cursor(), sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return RenderBuffers.release(sb);
+    }
+    
+    /**
+     * 渲染紧凑AST并直接写入输出目标
+     */
+    public void render(FlatAST ast, Appendable out) throws IOException {
+        if (ast == null) {
+            return;
+        }
+        
+        renderNode(ast.cursor(), out);
+    }
+    
+    /**
+     * 非递归遍历：enter写出节点的开始部分，exit写出结束部分
+     * 游标本身记录路径，嵌套深度不受线程栈限制
+     */
+    private void renderNode(ASTCursor node, Appendable out) throws IOException {
+        boolean open = enter(node, out);
+        while (true) {
+            if (open && node.firstChild()) {
+                open = enter(node, out);
+                continue;
+            }
+            if (open) {
+                exit(node, out);
+            }
+            // 当前子树已完成，回溯到下一个兄弟节点
+            while (!node.nextSibling()) {
+                if (!node.parent()) {
+                    return;
+                }
+                exit(node, out);
+            }
+            open = enter(node, out);
+        }
+    }
+    
+    /**
+     * 写出节点的开始部分
+     * @return 需要渲染子节点并在之后调用exit时返回true
+     */
+    private boolean enter(ASTCursor node, Appendable out) throws IOException {
+        switch (node.getType()) {
+            case DOCUMENT:
+                return true;
+            case PARAGRAPH:
+                out.append("<p>");
+                return true;
+            case TEXT:
+                renderText(node, out);
+                return false;
+            case BOLD:
+                out.append("<b>");
+                return true;
+            case ITALIC:
+                out.append("<i>");
+                return true;
+            case UNDERLINE:
+                out.append("<u>");
+                return true;
+            case STRIKETHROUGH:
+                out.append("<strike>");
+                return true;
+            case LINK:
+                openLink(node, out);
+                return true;
+            case IMAGE:
+                renderImage(node, out);
+                return false;
+            case CODE_BLOCK:
+                out.append("<div class=\"blockcode\"><blockquote>");
+                Escaper.HTML_TEXT.escape(node.getContentSequence(), out);
+                return true;
+            case QUOTE:
+                out.append("<div class=\"quote\"><blockquote>");
+                return true;
+            case LIST:
+                openList(node, out);
+                return true;
+            case LIST_ITEM:
+                out.append("<li>");
+                return true;
+            case TABLE:
+                openTable(node, out);
+                return true;
+            case TABLE_ROW:
+                openTableRow(node, out);
+                return true;
+            case TABLE_CELL:
+                openTableCell(node, out);
+                return true;
+            case COLOR:
+                openColor(node, out);
+                return true;
+            case SIZE:
+                openSize(node, out);
+                return true;
+            case FONT:
+                openFont(node, out);
+                return true;
+            case LINEBREAK:
+                out.append("<br />");
+                return false;
+            case HORIZONTAL_RULE:
+                out.append("<hr class=\"l\" />");
+                return false;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * 写出节点的结束部分
+     */
+    private void exit(ASTCursor node, Appendable out) throws IOException {
+        switch (node.getType()) {
+            case PARAGRAPH:
+                out.append("</p>\n");
+                break;
+            case BOLD:
+                out.append("</b>");
+                break;
+            case ITALIC:
+                out.append("</i>");
+                break;
+            case UNDERLINE:
+                out.append("</u>");
+                break;
+            case STRIKETHROUGH:
+                out.append("</strike>");
+                break;
+            case LINK:
+                out.append("</a>");
+                break;
+            case CODE_BLOCK:
+                out.append("</blockquote></div>");
+                break;
+            case QUOTE:
+                out.append("</blockquote></div>\n");
+                break;
+            case LIST:
+                out.append("</ul>");
+                break;
+            case LIST_ITEM:
+                out.append("</li>");
+                break;
+            case TABLE:
+                out.append("</table>");
+                break;
+            case TABLE_ROW:
+                out.append("</tr>");
+                break;
+            case TABLE_CELL:
+                out.append("</td>");
+                break;
+            case COLOR:
+            case SIZE:
+            case FONT:
+                out.append("</font>");
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private void renderText(ASTCursor node, Appendable out) throws IOException {
+        CharSequence text = node.getContentSequence();
+        int length = text.length();
+        // 单次扫描：原样字符按段直接写出，只在需要替换的位置中断
+        int run = 0;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            String replacement = null;
+            int consumed = 1;
+            // 处理换行和空格
+            if (c == '\n') {
+                replacement = "<br />";
+            } else if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                replacement = "<br />";
+                consumed = 2;
+            } else if (c == ' ' && i + 1 < length && text.charAt(i + 1) == ' ') {
+                replacement = "&nbsp;&nbsp;";
+                consumed = 2;
+            } else if (escapeHtml) {
+                replacement = Escaper.HTML_TEXT.replacement(c);
+            }
+            if (replacement != null) {
+                out.append(text, run, i).append(replacement);
+                run = i + consumed;
+            }
+            i += consumed;
+        }
+        out.append(text, run, length);
+    }
+    
+    private void openLink(ASTCursor node, Appendable out) throws IOException {
+        String href = node.getAttribute(AttributeKey.HREF);
+        out.append("<a href=\"");
+        Escaper.HTML_ATTRIBUTE.escape(href, out);
+        out.append("\" target=\"_blank\">");
+    }
+    
+    private void renderImage(ASTCursor node, Appendable out) throws IOException {
+        String src = node.getAttribute(AttributeKey.SRC);
+        String width = node.getAttribute(AttributeKey.WIDTH);
+        String height = node.getAttribute(AttributeKey.HEIGHT);
+        
+        out.append("<img src=\"");
+        Escaper.HTML_ATTRIBUTE.escape(src, out);
+        out.append("\"");
+        if (width != null) attribute(" width=\"", width, out);
+        if (height != null) attribute(" height=\"", height, out);
+        out.append(" border=\"0\" alt=\"\" />");
+    }
+    
+    private void openList(ASTCursor node, Appendable out) throws IOException {
+        String style = node.getAttribute(AttributeKey.STYLE);
+        if (style != null && !style.isEmpty()) {
+            if (style.equals("1")) {
+                out.append("<ul type=\"1\" class=\"litype_1\">");
+            } else if (style.equals("a")) {
+                out.append("<ul type=\"a\" class=\"litype_2\">");
+            } else if (style.equals("A")) {
+                out.append("<ul type=\"A\" class=\"litype_3\">");
+            } else {
+                out.append("<ul>");
+            }
+        } else {
+            out.append("<ul>");
+        }
+    }
+    
+    private void openTable(ASTCursor node, Appendable out) throws IOException {
+        String width = node.getAttribute(AttributeKey.WIDTH);
+        String bgcolor = node.getAttribute(AttributeKey.BGCOLOR);
+        
+        out.append("<table class=\"t_table\"");
+        if (width != null) attribute(" width=\"", width, out);
+        if (bgcolor != null) attribute(" style=\"background-color: ", bgcolor, out);
+        out.append(">");
+    }
+    
+    private void openTableRow(ASTCursor node, Appendable out) throws IOException {
+        String bgcolor = node.getAttribute(AttributeKey.BGCOLOR);
+        out.append("<tr");
+        if (bgcolor != null) attribute(" style=\"background-color: ", bgcolor, out);
+        out.append(">");
+    }
+    
+    private void openTableCell(ASTCursor node, Appendable out) throws IOException {
+        String width = node.getAttribute(AttributeKey.WIDTH);
+        out.append("<td");
+        if (width != null) attribute(" width=\"", width, out);
+        out.append(">");
+    }
+    
+    private void openColor(ASTCursor node, Appendable out) throws IOException {
+        String color = node.getAttribute(AttributeKey.COLOR);
+        attribute("<font color=\"", color, out);
+        out.append(">");
+    }
+    
+    private void openSize(ASTCursor node, Appendable out) throws IOException {
+        String size = node.getAttribute(AttributeKey.SIZE);
+        attribute("<font size=\"", size, out);
+        out.append(">");
+    }
+    
+    private void openFont(ASTCursor node, Appendable out) throws IOException {
+        String face = node.getAttribute(AttributeKey.FACE);
+        attribute("<font face=\"", face, out);
+        out.append(">");
+    }
+    
+    /**
+     * 写出prefix、转义后的属性值和结束引号
+     */
+    private static void attribute(String prefix, String value, Appendable out) throws IOException {
+        out.append(prefix);
+        Escaper.HTML_ATTRIBUTE.escape(value, out);
+        out.append('"');
+    }
+}
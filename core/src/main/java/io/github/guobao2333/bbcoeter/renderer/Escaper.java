@@ -0,0 +1,144 @@
+package io.github.guobao2333.bbcoeter.renderer;
+
+import io.github.guobao2333.bbcoeter.ast.Utf8Text;
+
+import java.io.IOException;
+
+/**
+ * 渲染器共用的转义
+ * 每种上下文把需要转义的ASCII字符编译为按字符索引的替换表；转义时单次扫描，
+ * 原样字符按段直接写入输出，不产生中间字符串。不含需要转义的字符时整个输入一次写出。
+ * 合法的Utf8Text写入Utf8Output时按字节扫描，原样部分直接复制字节，不解码。
+ */
+public enum Escaper {
+    /**
+     * HTML元素内容，引号同样转义，与属性值的输出保持一致
+     */
+    HTML_TEXT(
+        '&', "&amp;",
+        '<', "&lt;",
+        '>', "&gt;",
+        '"', "&quot;",
+        '\'', "&#039;"),
+
+    /**
+     * 双引号或单引号包围的HTML属性值
+     */
+    HTML_ATTRIBUTE(
+        '&', "&amp;",
+        '<', "&lt;",
+        '>', "&gt;",
+        '"', "&quot;",
+        '\'', "&#039;"),
+
+    /**
+     * Markdown行内文本：强调、代码、链接、删除线、表格和HTML的标记字符加反斜杠
+     * 行首才有意义的标记（标题、列表、引用）不处理
+     */
+    MARKDOWN(
+        '\\', "\\\\",
+        '`', "\\`",
+        '*', "\\*",
+        '_', "\\_",
+        '[', "\\[",
+        ']', "\\]",
+        '~', "\\~",
+        '|', "\\|",
+        '<', "\\<",
+        '>', "\\>"),
+
+    /**
+     * Markdown链接和图片的地址：会提前结束 ](...) 的字符按百分号编码
+     */
+    MARKDOWN_URL(
+        ' ', "%20",
+        '\t', "%09",
+        '\n', "%0A",
+        '\r', "%0D",
+        '(', "%28",
+        ')', "%29",
+        '<', "%3C",
+        '>', "%3E",
+        '\\', "%5C");
+
+    private static final int TABLE_SIZE = 128;
+
+    private final String[] replacements = new String[TABLE_SIZE];
+
+    Escaper(Object... pairs) {
+        for (int i = 0; i < pairs.length; i += 2) {
+            replacements[(Character) pairs[i]] = (String) pairs[i + 1];
+        }
+    }
+
+    /**
+     * 字符的替换文本，不需要转义时为null
+     */
+    public String replacement(char c) {
+        return c < TABLE_SIZE ? replacements[c] : null;
+    }
+
+    /**
+     * 转义text并写入out，text为null时不写入任何内容
+     */
+    public void escape(CharSequence text, Appendable out) throws IOException {
+        if (text == null) {
+            return;
+        }
+        if (text instanceof Utf8Text && out instanceof Utf8Output && ((Utf8Text) text).isWellFormed()) {
+            escapeBytes((Utf8Text) text, (Utf8Output) out);
+            return;
+        }
+        int first = indexOfEscape(text);
+        if (first == text.length()) {
+            out.append(text);
+            return;
+        }
+        escapeFrom(text, first, out);
+    }
+
+    /**
+     * 从第一个需要转义的位置first开始转义，之前的部分原样写出
+     */
+    private void escapeFrom(CharSequence text, int first, Appendable out) throws IOException {
+        int length = text.length();
+        int run = 0;
+        for (int i = first; i < length; i++) {
+            String replacement = replacement(text.charAt(i));
+            if (replacement != null) {
+                out.append(text, run, i).append(replacement);
+                run = i + 1;
+            }
+        }
+        out.append(text, run, length);
+    }
+
+    /**
+     * 需要转义的都是ASCII字符，多字节序列的字节都不小于0x80，不会被误替换
+     */
+    private void escapeBytes(Utf8Text text, Utf8Output out) throws IOException {
+        byte[] bytes = text.getBytes();
+        int end = text.getOffset() + text.getByteLength();
+        int run = text.getOffset();
+        for (int i = run; i < end; i++) {
+            byte b = bytes[i];
+            if (b >= 0 && replacements[b] != null) {
+                out.write(bytes, run, i - run);
+                out.append(replacements[b]);
+                run = i + 1;
+            }
+        }
+        out.write(bytes, run, end - run);
+    }
+
+    private int indexOfEscape(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < TABLE_SIZE && replacements[c] != null) {
+                return i;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,463 @@
+package io.github.guobao2333.bbcoeter.renderer;
+
+import io.github.guobao2333.bbcoeter.ast.ASTCursor;
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.ast.ASTNode.NodeType;
+import io.github.guobao2333.bbcoeter.ast.AttributeKey;
+import io.github.guobao2333.bbcoeter.ast.FlatAST;
+import io.github.guobao2333.bbcoeter.ast.Utf8Text;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * HTML渲染器 - 将AST转换为HTML
+ */
+public class HTMLRenderer {
+    // 固定标记，输出为Utf8Output时直接复制预先编码的字节
+    private static final Markup P_OPEN = new Markup("<p>");
+    private static final Markup B_OPEN = new Markup("<b>");
+    private static final Markup I_OPEN = new Markup("<i>");
+    private static final Markup U_OPEN = new Markup("<u>");
+    private static final Markup STRIKE_OPEN = new Markup("<strike>");
+    private static final Markup CODE_OPEN = new Markup("<div class=\"blockcode\"><blockquote>");
+    private static final Markup QUOTE_OPEN = new Markup("<div class=\"quote\"><blockquote>");
+    private static final Markup LI_OPEN = new Markup("<li>");
+    private static final Markup BR = new Markup("<br />");
+    private static final Markup HR = new Markup("<hr class=\"l\" />");
+    private static final Markup P_CLOSE = new Markup("</p>\n");
+    private static final Markup B_CLOSE = new Markup("</b>");
+    private static final Markup I_CLOSE = new Markup("</i>");
+    private static final Markup U_CLOSE = new Markup("</u>");
+    private static final Markup STRIKE_CLOSE = new Markup("</strike>");
+    private static final Markup A_CLOSE = new Markup("</a>");
+    private static final Markup CODE_CLOSE = new Markup("</blockquote></div>");
+    private static final Markup QUOTE_CLOSE = new Markup("</blockquote></div>\n");
+    private static final Markup UL_CLOSE = new Markup("</ul>");
+    private static final Markup LI_CLOSE = new Markup("</li>");
+    private static final Markup TABLE_CLOSE = new Markup("</table>");
+    private static final Markup TR_CLOSE = new Markup("</tr>");
+    private static final Markup TD_CLOSE = new Markup("</td>");
+    private static final Markup FONT_CLOSE = new Markup("</font>");
+    private static final Markup A_OPEN = new Markup("<a href=\"");
+    private static final Markup A_OPEN_END = new Markup("\" target=\"_blank\">");
+    private static final Markup IMG_OPEN = new Markup("<img src=\"");
+    private static final Markup IMG_END = new Markup(" border=\"0\" alt=\"\" />");
+    private static final Markup UL_OPEN_DECIMAL = new Markup("<ul type=\"1\" class=\"litype_1\">");
+    private static final Markup UL_OPEN_LOWER_ALPHA = new Markup("<ul type=\"a\" class=\"litype_2\">");
+    private static final Markup UL_OPEN_UPPER_ALPHA = new Markup("<ul type=\"A\" class=\"litype_3\">");
+    private static final Markup UL_OPEN = new Markup("<ul>");
+    private static final Markup TABLE_OPEN = new Markup("<table class=\"t_table\"");
+    private static final Markup TR_OPEN = new Markup("<tr");
+    private static final Markup TD_OPEN = new Markup("<td");
+    
+    private final boolean escapeHtml;
+    
+    public HTMLRenderer() {
+        this(true);
+    }
+    
+    /**
+     * 渲染器创建后不可变，可在多线程间共享
+     * @param escapeHtml 是否转义文本中的HTML
+     */
+    public HTMLRenderer(boolean escapeHtml) {
+        this.escapeHtml = escapeHtml;
+    }
+    
+    public boolean isEscapeHtml() {
+        return escapeHtml;
+    }
+    
+    /**
+     * 渲染AST为HTML字符串
+     * @param root AST根节点
+     * @return HTML字符串
+     */
+    public String render(ASTNode root) {
+        if (root == null) {
+            return "";
+        }
+        
+        StringBuilder sb = RenderBuffers.acquire(RenderBuffers.estimate(root.getSizeHint()));
+        try {
+            renderNode(root.cursor(), sb);
+        } catch (IOException e) {
+            // StringBuilder不会抛出IOException
+            throw new UncheckedIOException(e);
+        }
+        return RenderBuffers.release(sb);
+    }
+    
+    /**
+     * 渲染AST并直接写入输出目标（如Writer），不在内存中保留完整结果
+     * @param root AST根节点
+     * @param out 输出目标
+     */
+    public void render(ASTNode root, Appendable out) throws IOException {
+        if (root == null) {
+            return;
+        }
+        
+        renderNode(root.cursor(), out);
+    }
+    
+    /**
+     * 渲染紧凑AST为HTML字符串
+     */
+    public String render(FlatAST ast) {
+        if (ast == null) {
+            return "";
+        }
+        
+        StringBuilder sb = RenderBuffers.acquire(RenderBuffers.estimate(ast.getSizeHint()));
+        try {
+            renderNode(ast.cursor(), sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return RenderBuffers.release(sb);
+    }
+    
+    /**
+     * 渲染紧凑AST并直接写入输出目标
+     */
+    public void render(FlatAST ast, Appendable out) throws IOException {
+        if (ast == null) {
+            return;
+        }
+        
+        renderNode(ast.cursor(), out);
+    }
+    
+    /**
+     * 渲染AST并以UTF-8字节写入流（如HTTP响应），不生成中间的String
+     * 完成后流会被flush但不会被关闭
+     */
+    public void render(ASTNode root, OutputStream out) throws IOException {
+        Utf8Output utf8 = new Utf8Output(out);
+        render(root, utf8);
+        utf8.flush();
+    }
+    
+    /**
+     * 渲染紧凑AST并以UTF-8字节写入流
+     */
+    public void render(FlatAST ast, OutputStream out) throws IOException {
+        Utf8Output utf8 = new Utf8Output(out);
+        render(ast, utf8);
+        utf8.flush();
+    }
+    
+    /**
+     * 非递归遍历：enter写出节点的开始部分，exit写出结束部分
+     * 游标本身记录路径，嵌套深度不受线程栈限制
+     */
+    private void renderNode(ASTCursor node, Appendable out) throws IOException {
+        boolean open = enter(node, out);
+        while (true) {
+            if (open && node.firstChild()) {
+                open = enter(node, out);
+                continue;
+            }
+            if (open) {
+                exit(node, out);
+            }
+            // 当前子树已完成，回溯到下一个兄弟节点
+            while (!node.nextSibling()) {
+                if (!node.parent()) {
+                    return;
+                }
+                exit(node, out);
+            }
+            open = enter(node, out);
+        }
+    }
+    
+    /**
+     * 写出节点的开始部分
+     * @return 需要渲染子节点并在之后调用exit时返回true
+     */
+    private boolean enter(ASTCursor node, Appendable out) throws IOException {
+        switch (node.getType()) {
+            case DOCUMENT:
+                return true;
+            case PARAGRAPH:
+                P_OPEN.appendTo(out);
+                return true;
+            case TEXT:
+                renderText(node, out);
+                return false;
+            case BOLD:
+                B_OPEN.appendTo(out);
+                return true;
+            case ITALIC:
+                I_OPEN.appendTo(out);
+                return true;
+            case UNDERLINE:
+                U_OPEN.appendTo(out);
+                return true;
+            case STRIKETHROUGH:
+                STRIKE_OPEN.appendTo(out);
+                return true;
+            case LINK:
+                openLink(node, out);
+                return true;
+            case IMAGE:
+                renderImage(node, out);
+                return false;
+            case CODE_BLOCK:
+                CODE_OPEN.appendTo(out);
+                Escaper.HTML_TEXT.escape(node.getContentSequence(), out);
+                return true;
+            case QUOTE:
+                QUOTE_OPEN.appendTo(out);
+                return true;
+            case LIST:
+                openList(node, out);
+                return true;
+            case LIST_ITEM:
+                LI_OPEN.appendTo(out);
+                return true;
+            case TABLE:
+                openTable(node, out);
+                return true;
+            case TABLE_ROW:
+                openTableRow(node, out);
+                return true;
+            case TABLE_CELL:
+                openTableCell(node, out);
+                return true;
+            case COLOR:
+                openColor(node, out);
+                return true;
+            case SIZE:
+                openSize(node, out);
+                return true;
+            case FONT:
+                openFont(node, out);
+                return true;
+            case LINEBREAK:
+                BR.appendTo(out);
+                return false;
+            case HORIZONTAL_RULE:
+                HR.appendTo(out);
+                return false;
+            default:
+                // 未处理的节点类型，尝试渲染其子节点
+                return true;
+        }
+    }
+    
+    /**
+     * 写出节点的结束部分
+     */
+    private void exit(ASTCursor node, Appendable out) throws IOException {
+        switch (node.getType()) {
+            case PARAGRAPH:
+                P_CLOSE.appendTo(out);
+                break;
+            case BOLD:
+                B_CLOSE.appendTo(out);
+                break;
+            case ITALIC:
+                I_CLOSE.appendTo(out);
+                break;
+            case UNDERLINE:
+                U_CLOSE.appendTo(out);
+                break;
+            case STRIKETHROUGH:
+                STRIKE_CLOSE.appendTo(out);
+                break;
+            case LINK:
+                A_CLOSE.appendTo(out);
+                break;
+            case CODE_BLOCK:
+                CODE_CLOSE.appendTo(out);
+                break;
+            case QUOTE:
+                QUOTE_CLOSE.appendTo(out);
+                break;
+            case LIST:
+                UL_CLOSE.appendTo(out);
+                break;
+            case LIST_ITEM:
+                LI_CLOSE.appendTo(out);
+                break;
+            case TABLE:
+                TABLE_CLOSE.appendTo(out);
+                break;
+            case TABLE_ROW:
+                TR_CLOSE.appendTo(out);
+                break;
+            case TABLE_CELL:
+                TD_CLOSE.appendTo(out);
+                break;
+            case COLOR:
+            case SIZE:
+            case FONT:
+                FONT_CLOSE.appendTo(out);
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private void renderText(ASTCursor node, Appendable out) throws IOException {
+        CharSequence text = node.getContentSequence();
+        if (out instanceof Utf8Output && text instanceof Utf8Text && ((Utf8Text) text).isWellFormed()) {
+            renderText((Utf8Text) text, (Utf8Output) out);
+            return;
+        }
+        int length = text.length();
+        // 单次扫描：原样字符按段直接写出，只在需要替换的位置中断
+        int run = 0;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            String replacement = null;
+            int consumed = 1;
+            // 处理换行和空格
+            if (c == '\n') {
+                replacement = "<br />";
+            } else if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                replacement = "<br />";
+                consumed = 2;
+            } else if (c == ' ' && i + 1 < length && text.charAt(i + 1) == ' ') {
+                replacement = "&nbsp;&nbsp;";
+                consumed = 2;
+            } else if (escapeHtml) {
+                replacement = Escaper.HTML_TEXT.replacement(c);
+            }
+            if (replacement != null) {
+                out.append(text, run, i).append(replacement);
+                run = i + consumed;
+            }
+            i += consumed;
+        }
+        out.append(text, run, length);
+    }
+    
+    /**
+     * 按字节解析的文本写入UTF-8输出：规则与按字符处理相同，
+     * 触发替换的都是ASCII字符，原样部分直接复制字节
+     */
+    private void renderText(Utf8Text text, Utf8Output out) throws IOException {
+        byte[] bytes = text.getBytes();
+        int end = text.getOffset() + text.getByteLength();
+        int run = text.getOffset();
+        int i = run;
+        while (i < end) {
+            byte b = bytes[i];
+            String replacement = null;
+            int consumed = 1;
+            if (b == '\n') {
+                replacement = "<br />";
+            } else if (b == '\r' && i + 1 < end && bytes[i + 1] == '\n') {
+                replacement = "<br />";
+                consumed = 2;
+            } else if (b == ' ' && i + 1 < end && bytes[i + 1] == ' ') {
+                replacement = "&nbsp;&nbsp;";
+                consumed = 2;
+            } else if (escapeHtml && b >= 0) {
+                replacement = Escaper.HTML_TEXT.replacement((char) b);
+            }
+            if (replacement != null) {
+                out.write(bytes, run, i - run);
+                out.append(replacement);
+                run = i + consumed;
+            }
+            i += consumed;
+        }
+        out.write(bytes, run, end - run);
+    }
+    
+    private void openLink(ASTCursor node, Appendable out) throws IOException {
+        String href = node.getAttribute(AttributeKey.HREF);
+        A_OPEN.appendTo(out);
+        Escaper.HTML_ATTRIBUTE.escape(href, out);
+        A_OPEN_END.appendTo(out);
+    }
+    
+    private void renderImage(ASTCursor node, Appendable out) throws IOException {
+        String src = node.getAttribute(AttributeKey.SRC);
+        String width = node.getAttribute(AttributeKey.WIDTH);
+        String height = node.getAttribute(AttributeKey.HEIGHT);
+        
+        IMG_OPEN.appendTo(out);
+        Escaper.HTML_ATTRIBUTE.escape(src, out);
+        out.append("\"");
+        if (width != null) attribute(" width=\"", width, out);
+        if (height != null) attribute(" height=\"", height, out);
+        IMG_END.appendTo(out);
+    }
+    
+    private void openList(ASTCursor node, Appendable out) throws IOException {
+        String style = node.getAttribute(AttributeKey.STYLE);
+        if (style != null && !style.isEmpty()) {
+            if (style.equals("1")) {
+                UL_OPEN_DECIMAL.appendTo(out);
+            } else if (style.equals("a")) {
+                UL_OPEN_LOWER_ALPHA.appendTo(out);
+            } else if (style.equals("A")) {
+                UL_OPEN_UPPER_ALPHA.appendTo(out);
+            } else {
+                UL_OPEN.appendTo(out);
+            }
+        } else {
+            UL_OPEN.appendTo(out);
+        }
+    }
+    
+    private void openTable(ASTCursor node, Appendable out) throws IOException {
+        String width = node.getAttribute(AttributeKey.WIDTH);
+        String bgcolor = node.getAttribute(AttributeKey.BGCOLOR);
+        
+        TABLE_OPEN.appendTo(out);
+        if (width != null) attribute(" width=\"", width, out);
+        if (bgcolor != null) attribute(" style=\"background-color: ", bgcolor, out);
+        out.append(">");
+    }
+    
+    private void openTableRow(ASTCursor node, Appendable out) throws IOException {
+        String bgcolor = node.getAttribute(AttributeKey.BGCOLOR);
+        TR_OPEN.appendTo(out);
+        if (bgcolor != null) attribute(" style=\"background-color: ", bgcolor, out);
+        out.append(">");
+    }
+    
+    private void openTableCell(ASTCursor node, Appendable out) throws IOException {
+        String width = node.getAttribute(AttributeKey.WIDTH);
+        TD_OPEN.appendTo(out);
+        if (width != null) attribute(" width=\"", width, out);
+        out.append(">");
+    }
+    
+    private void openColor(ASTCursor node, Appendable out) throws IOException {
+        String color = node.getAttribute(AttributeKey.COLOR);
+        attribute("<font color=\"", color, out);
+        out.append(">");
+    }
+    
+    private void openSize(ASTCursor node, Appendable out) throws IOException {
+        String size = node.getAttribute(AttributeKey.SIZE);
+        attribute("<font size=\"", size, out);
+        out.append(">");
+    }
+    
+    private void openFont(ASTCursor node, Appendable out) throws IOException {
+        String face = node.getAttribute(AttributeKey.FACE);
+        attribute("<font face=\"", face, out);
+        out.append(">");
+    }
+    
+    /**
+     * 写出prefix、转义后的属性值和结束引号
+     */
+    private static void attribute(String prefix, String value, Appendable out) throws IOException {
+        out.append(prefix);
+        Escaper.HTML_ATTRIBUTE.escape(value, out);
+        out.append('"');
+    }
+}
@@ -0,0 +1,383 @@
+package io.github.guobao2333.bbcoeter.renderer;
+
+import io.github.guobao2333.bbcoeter.ast.ASTCursor;
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.ast.ASTNode.NodeType;
+import io.github.guobao2333.bbcoeter.ast.AttributeKey;
+import io.github.guobao2333.bbcoeter.ast.FlatAST;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Markdown渲染器 - 展示如何轻松添加新的格式支持
+ */
+public class MarkdownRenderer {
+    
+    /**
+     * 渲染AST为Markdown字符串
+     */
+    public String render(ASTNode root) {
+        if (root == null) {
+            return "";
+        }
+        
+        StringBuilder sb = RenderBuffers.acquire(RenderBuffers.estimate(root.getSizeHint()));
+        try {
+            renderNode(root.cursor(), sb);
+        } catch (IOException e) {
+            // StringBuilder不会抛出IOException
+            throw new UncheckedIOException(e);
+        }
+        return RenderBuffers.release(sb);
+    }
+    
+    /**
+     * 渲染AST并直接写入输出目标（如Writer），不在内存中保留完整结果
+     * @param root AST根节点
+     * @param out 输出目标
+     */
+    public void render(ASTNode root, Appendable out) throws IOException {
+        if (root == null) {
+            return;
+        }
+        
+        renderNode(root.cursor(), out);
+    }
+    
+    /**
+     * 渲染紧凑AST为Markdown字符串
+     */
+    public String render(FlatAST ast) {
+        if (ast == null) {
+            return "";
+        }
+        
+        StringBuilder sb = RenderBuffers.acquire(RenderBuffers.estimate(ast.getSizeHint()));
+        try {
+            renderNode(ast.cursor(), sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return RenderBuffers.release(sb);
+    }
+    
+    /**
+     * 渲染紧凑AST并直接写入输出目标
+     */
+    public void render(FlatAST ast, Appendable out) throws IOException {
+        if (ast == null) {
+            return;
+        }
+        
+        renderNode(ast.cursor(), out);
+    }
+    
+    /**
+     * 渲染AST并以UTF-8字节写入流（如HTTP响应），不生成中间的String
+     * 完成后流会被flush但不会被关闭
+     */
+    public void render(ASTNode root, OutputStream out) throws IOException {
+        Utf8Output utf8 = new Utf8Output(out);
+        render(root, utf8);
+        utf8.flush();
+    }
+    
+    /**
+     * 渲染紧凑AST并以UTF-8字节写入流
+     */
+    public void render(FlatAST ast, OutputStream out) throws IOException {
+        Utf8Output utf8 = new Utf8Output(out);
+        render(ast, utf8);
+        utf8.flush();
+    }
+    
+    /**
+     * 非递归遍历：enter写出节点的开始部分，exit写出结束部分
+     * 游标本身记录路径，列表缩进和表格状态记录在Frames中，嵌套深度不受线程栈限制
+     */
+    private void renderNode(ASTCursor node, Appendable out) throws IOException {
+        Frames frames = new Frames();
+        boolean open = enter(node, out, frames);
+        while (true) {
+            if (open && node.firstChild()) {
+                open = enter(node, out, frames);
+                continue;
+            }
+            if (open) {
+                exit(node, out, frames);
+            }
+            // 当前子树已完成，回溯到下一个兄弟节点
+            while (!node.nextSibling()) {
+                if (!node.parent()) {
+                    return;
+                }
+                exit(node, out, frames);
+            }
+            open = enter(node, out, frames);
+        }
+    }
+    
+    /**
+     * 写出节点的开始部分
+     * @return 需要渲染子节点并在之后调用exit时返回true，此时已压入一个Frame
+     */
+    private boolean enter(ASTCursor node, Appendable out, Frames frames) throws IOException {
+        NodeType type = node.getType();
+        byte parentKind = frames.kind();
+        int listDepth = frames.listDepth();
+        
+        // 简化的表格渲染：表格中只渲染行，行中只渲染单元格
+        if (parentKind == Frames.TABLE && type != NodeType.TABLE_ROW) {
+            return false;
+        }
+        if (parentKind == Frames.TABLE_ROW && type != NodeType.TABLE_CELL) {
+            return false;
+        }
+        
+        switch (type) {
+            case TEXT:
+                if (parentKind == Frames.CODE) {
+                    // 代码块中的内容原样输出
+                    out.append(node.getContentSequence());
+                } else {
+                    Escaper.MARKDOWN.escape(node.getContentSequence(), out);
+                }
+                return false;
+            case BOLD:
+                out.append("**");
+                break;
+            case ITALIC:
+                out.append("*");
+                break;
+            case UNDERLINE:
+                // Markdown不直接支持下划线，使用HTML
+                out.append("<u>");
+                break;
+            case STRIKETHROUGH:
+                out.append("~~");
+                break;
+            case LINK:
+                out.append("[");
+                break;
+            case IMAGE:
+                out.append("![");
+                break;
+            case CODE_BLOCK:
+                if (frames.fence() > 0) {
+                    // 代码块中的代码块：围栏内的内容都是原样文本，不再写围栏，沿用外层的围栏
+                    out.append(node.getContentSequence());
+                    frames.push(Frames.CODE, listDepth);
+                    return true;
+                }
+                // 围栏比整个代码块（包括嵌套的代码块）中最长的连续反引号更长，代码内容不会提前结束代码块
+                // 只有最外层的代码块扫描子树，每个节点最多扫描一次
+                int fence = Math.max(3, longestBacktickRun(node) + 1);
+                appendBackticks(fence, out);
+                out.append("\n");
+                out.append(node.getContentSequence());
+                frames.push(Frames.CODE, listDepth);
+                frames.setFence(fence);
+                return true;
+            case QUOTE:
+                out.append("> ");
+                break;
+            case LIST_ITEM:
+                for (int i = 0; i < listDepth; i++) {
+                    out.append("  ");
+                }
+                out.append("- ");
+                frames.push(Frames.NORMAL, listDepth + 1);
+                return true;
+            case TABLE:
+                frames.push(Frames.TABLE, listDepth);
+                return true;
+            case TABLE_ROW:
+                if (parentKind == Frames.TABLE) {
+                    out.append("|");
+                    frames.push(Frames.TABLE_ROW, listDepth);
+                    return true;
+                }
+                break;
+            case TABLE_CELL:
+                if (parentKind == Frames.TABLE_ROW) {
+                    out.append(" ");
+                    // 单元格内容不继承列表缩进
+                    frames.push(Frames.TABLE_CELL, 0);
+                    return true;
+                }
+                break;
+            case HORIZONTAL_RULE:
+                out.append("\n---\n\n");
+                return false;
+            case LINEBREAK:
+                out.append("  \n");
+                return false;
+            default:
+                break;
+        }
+        frames.push(Frames.NORMAL, listDepth);
+        return true;
+    }
+    
+    /**
+     * 写出节点的结束部分并弹出对应的Frame
+     */
+    private void exit(ASTCursor node, Appendable out, Frames frames) throws IOException {
+        int fence = frames.fence();
+        byte kind = frames.pop();
+        switch (node.getType()) {
+            case PARAGRAPH:
+                out.append("\n\n");
+                break;
+            case BOLD:
+                out.append("**");
+                break;
+            case ITALIC:
+                out.append("*");
+                break;
+            case UNDERLINE:
+                out.append("</u>");
+                break;
+            case STRIKETHROUGH:
+                out.append("~~");
+                break;
+            case LINK:
+                out.append("](");
+                Escaper.MARKDOWN_URL.escape(node.getAttribute(AttributeKey.HREF), out);
+                out.append(")");
+                break;
+            case IMAGE:
+                out.append("](");
+                Escaper.MARKDOWN_URL.escape(node.getAttribute(AttributeKey.SRC), out);
+                out.append(")");
+                break;
+            case CODE_BLOCK:
+                if (frames.fence() == 0) {
+                    out.append("\n");
+                    appendBackticks(fence, out);
+                    out.append("\n");
+                }
+                break;
+            case QUOTE:
+            case LIST:
+            case LIST_ITEM:
+            case TABLE:
+                out.append("\n");
+                break;
+            case TABLE_ROW:
+                if (kind == Frames.TABLE_ROW) {
+                    out.append("\n");
+                }
+                break;
+            case TABLE_CELL:
+                if (kind == Frames.TABLE_CELL) {
+                    out.append(" |");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * 节点及其子树的内容按输出顺序连接后最长的连续反引号数，游标最终回到该节点
+     * 相邻节点的反引号在输出中相连，连续计数跨节点保留
+     */
+    private static int longestBacktickRun(ASTCursor node) {
+        BacktickRun run = new BacktickRun();
+        run.scan(node.getContentSequence());
+        if (!node.firstChild()) {
+            return run.longest;
+        }
+        int depth = 1;
+        while (true) {
+            run.scan(node.getContentSequence());
+            if (node.firstChild()) {
+                depth++;
+                continue;
+            }
+            while (!node.nextSibling()) {
+                node.parent();
+                if (--depth == 0) {
+                    return run.longest;
+                }
+            }
+        }
+    }
+    
+    private static final class BacktickRun {
+        int current;
+        int longest;
+        
+        void scan(CharSequence text) {
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '`') {
+                    longest = Math.max(longest, ++current);
+                } else {
+                    current = 0;
+                }
+            }
+        }
+    }
+    
+    private static void appendBackticks(int count, Appendable out) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.append('`');
+        }
+    }
+    
+    /**
+     * 已进入的容器节点栈：记录容器在表格中的角色以及其子节点使用的列表缩进
+     */
+    private static final class Frames {
+        static final byte NORMAL = 0;
+        // 表格：只渲染TABLE_ROW子节点
+        static final byte TABLE = 1;
+        // 表格中的行：只渲染TABLE_CELL子节点
+        static final byte TABLE_ROW = 2;
+        static final byte TABLE_CELL = 3;
+        // 代码块：文本不转义
+        static final byte CODE = 4;
+        
+        private byte[] kinds = new byte[16];
+        private int[] listDepths = new int[16];
+        // 所在的最外层代码块的围栏长度，不在代码块中时为0
+        private int[] fences = new int[16];
+        private int size;
+        
+        void push(byte kind, int listDepth) {
+            if (size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, size * 2);
+                listDepths = Arrays.copyOf(listDepths, size * 2);
+                fences = Arrays.copyOf(fences, size * 2);
+            }
+            kinds[size] = kind;
+            listDepths[size] = listDepth;
+            fences[size] = size > 0 ? fences[size - 1] : 0;
+            size++;
+        }
+        
+        void setFence(int fence) {
+            fences[size - 1] = fence;
+        }
+        
+        int fence() {
+            return size > 0 ? fences[size - 1] : 0;
+        }
+        
+        byte pop() {
+            return kinds[--size];
+        }
+        
+        byte kind() {
+            return size > 0 ? kinds[size - 1] : NORMAL;
+        }
+        
+        int listDepth() {
+            return size > 0 ? listDepths[size - 1] : 0;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.guobao2333.bbcoeter.renderer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 渲染器输出的固定标记，同时保存字符串和预先编码的UTF-8字节
+ * 输出目标为Utf8Output时直接复制字节，其他目标按字符串追加
+ */
+final class Markup {
+    private final String text;
+    private final byte[] bytes;
+
+    Markup(String text) {
+        this.text = text;
+        this.bytes = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    void appendTo(Appendable out) throws IOException {
+        if (out instanceof Utf8Output) {
+            ((Utf8Output) out).write(bytes);
+        } else {
+            out.append(text);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
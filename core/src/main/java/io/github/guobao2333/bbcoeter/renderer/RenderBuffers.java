@@ -0,0 +1,56 @@
+package io.github.guobao2333.bbcoeter.renderer;
+
+/**
+ * 渲染为字符串时使用的缓冲区
+ *
+ * 每个线程保留一个StringBuilder，在多次渲染之间复用，避免每次从默认容量开始反复翻倍扩容。
+ * 初始容量按AST的大小提示预估。容量超过上限的缓冲区用完后不保留，
+ * 单个超大帖子不会让线程一直占用大数组。
+ * 取用时从线程中移出，渲染过程中嵌套的渲染会得到独立的缓冲区。
+ */
+final class RenderBuffers {
+    // 每个线程保留的最大容量（字符）
+    static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<>();
+
+    private RenderBuffers() {
+    }
+
+    /**
+     * 按源文本长度预估输出长度：标签展开后通常比源文本略长
+     */
+    static int estimate(int sizeHint) {
+        if (sizeHint <= 0) {
+            return DEFAULT_CAPACITY;
+        }
+        long estimate = sizeHint + (sizeHint >> 2) + 16L;
+        return (int) Math.min(estimate, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * 取得一个空缓冲区，容量至少为estimate
+     */
+    static StringBuilder acquire(int estimate) {
+        StringBuilder sb = BUFFER.get();
+        if (sb == null) {
+            return new StringBuilder(Math.max(estimate, DEFAULT_CAPACITY));
+        }
+        BUFFER.set(null);
+        sb.ensureCapacity(estimate);
+        return sb;
+    }
+
+    /**
+     * 取出缓冲区的内容并归还缓冲区
+     */
+    static String release(StringBuilder sb) {
+        String result = sb.toString();
+        if (sb.capacity() <= MAX_RETAINED_CAPACITY) {
+            sb.setLength(0);
+            BUFFER.set(sb);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,208 @@
+package io.github.guobao2333.bbcoeter.renderer;
+
+import io.github.guobao2333.bbcoeter.ast.Utf8Text;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * UTF-8字节输出目标
+ *
+ * 作为Appendable传给渲染器时，字符直接编码为UTF-8写入内部缓冲区，缓冲区满时写入OutputStream或ByteBuffer，
+ * 不需要先生成完整的String再整体编码。渲染器的固定标记使用预先编码好的字节数组直接复制，
+ * 按字节解析得到的合法Utf8Text文本也直接复制原始字节。
+ * 无法配对的代理字符按String.getBytes的方式写为 '?'。
+ *
+ * 写入完成后必须调用flush()，不会关闭底层的OutputStream。实例不是线程安全的。
+ */
+public final class Utf8Output implements Appendable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream stream;
+    private final ByteBuffer target;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+    // 等待与下一个低代理配对的高代理，没有时为0
+    private char highSurrogate;
+
+    /**
+     * 输出到流
+     */
+    public Utf8Output(OutputStream out) {
+        this.stream = Objects.requireNonNull(out, "OutputStream cannot be null");
+        this.target = null;
+    }
+
+    /**
+     * 输出到ByteBuffer，从其当前位置开始写入；剩余空间不足时flush抛出BufferOverflowException
+     */
+    public Utf8Output(ByteBuffer target) {
+        this.stream = null;
+        this.target = Objects.requireNonNull(target, "ByteBuffer cannot be null");
+    }
+
+    @Override
+    public Utf8Output append(CharSequence csq) throws IOException {
+        CharSequence text = csq != null ? csq : "null";
+        return append(text, 0, text.length());
+    }
+
+    @Override
+    public Utf8Output append(CharSequence csq, int start, int end) throws IOException {
+        CharSequence text = csq != null ? csq : "null";
+        if (text instanceof Utf8Text && appendBytes((Utf8Text) text, start, end)) {
+            return this;
+        }
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c < 0x80 && highSurrogate == 0) {
+                // ASCII连续段
+                int room = BUFFER_SIZE - count;
+                if (room == 0) {
+                    drain();
+                    room = BUFFER_SIZE;
+                }
+                int limit = Math.min(end, i + room);
+                byte[] buf = buffer;
+                int n = count;
+                do {
+                    buf[n++] = (byte) c;
+                    if (++i == limit) {
+                        break;
+                    }
+                    c = text.charAt(i);
+                } while (c < 0x80);
+                count = n;
+            } else {
+                append(c);
+                i++;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public Utf8Output append(char c) throws IOException {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                writeCodePoint(Character.toCodePoint(high, c));
+                return this;
+            }
+            ensure(1);
+            buffer[count++] = '?';
+        }
+        if (c < 0x80) {
+            ensure(1);
+            buffer[count++] = (byte) c;
+        } else if (c < 0x800) {
+            ensure(2);
+            buffer[count++] = (byte) (0xC0 | (c >> 6));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            ensure(1);
+            buffer[count++] = '?';
+        } else {
+            ensure(3);
+            buffer[count++] = (byte) (0xE0 | (c >> 12));
+            buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return this;
+    }
+
+    /**
+     * 写入已经编码好的字节
+     */
+    public void write(byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 写入已经编码好的字节的 [offset, offset + length) 部分
+     */
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        flushSurrogate();
+        if (length > BUFFER_SIZE - count) {
+            drain();
+            if (length > BUFFER_SIZE) {
+                writeTarget(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    /**
+     * 字符范围能对应到原始字节时直接复制：全部为ASCII，或取整段合法文本
+     */
+    private boolean appendBytes(Utf8Text text, int start, int end) throws IOException {
+        if (text.isAscii()) {
+            if (start < 0 || end > text.getByteLength() || start > end) {
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + text.length());
+            }
+            write(text.getBytes(), text.getOffset() + start, end - start);
+            return true;
+        }
+        if (text.isWellFormed() && start == 0 && end == text.length()) {
+            write(text.getBytes(), text.getOffset(), text.getByteLength());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 写出缓冲区中的全部内容；末尾未配对的高代理写为 '?'
+     */
+    public void flush() throws IOException {
+        flushSurrogate();
+        drain();
+        if (stream != null) {
+            stream.flush();
+        }
+    }
+
+    private void writeCodePoint(int codePoint) throws IOException {
+        ensure(4);
+        buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+    }
+
+    private void flushSurrogate() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            ensure(1);
+            buffer[count++] = '?';
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (count + bytes > BUFFER_SIZE) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (count > 0) {
+            writeTarget(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    private void writeTarget(byte[] bytes, int offset, int length) throws IOException {
+        if (stream != null) {
+            stream.write(bytes, offset, length);
+        } else {
+            target.put(bytes, offset, length);
+        }
+    }
+}
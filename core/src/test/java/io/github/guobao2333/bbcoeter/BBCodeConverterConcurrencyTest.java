@@ -0,0 +1,139 @@
+package io.github.guobao2333.bbcoeter;
+
+import io.github.guobao2333.bbcoeter.dom.NativeDOMAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多个配置不同的转换器在多线程间共享时，输出与单线程完全相同
+ */
+class BBCodeConverterConcurrencyTest {
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int ROUNDS = 30;
+
+    private static final String[] FRAGMENTS = {
+        "[b]粗体 & \"引号\"[/b]",
+        "[i]斜体 <script>alert('x')</script>[/i]",
+        "[url=https://example.com/?a=1&b=2]链接[/url]",
+        "[img]https://img.example.com/a.png[/img]",
+        "[quote=作者][u]引用[/u][/quote]",
+        "[color=#FF0000]红色[/color] [size=5]大[/size]",
+        "[code]if (a < b && c > d) {}[/code]",
+        "[list][*]一[*]二[/list]",
+        "普通文本 😀 行尾\n第二行  两个空格",
+        "[b]未闭合 [i]嵌套",
+        "[unknown]x[/unknown] [/b]",
+    };
+
+    private static List<String> posts() {
+        Random random = new Random(20240601L);
+        List<String> posts = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            StringBuilder post = new StringBuilder();
+            int parts = 1 + random.nextInt(12);
+            for (int j = 0; j < parts; j++) {
+                post.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]).append(' ');
+            }
+            posts.add(post.toString());
+        }
+        return posts;
+    }
+
+    private static List<BBCodeConverter> converters() {
+        NativeDOMAdapter adapter = new NativeDOMAdapter();
+        List<BBCodeConverter> converters = new ArrayList<>();
+        converters.add(BBCodeConverter.builder(adapter).build());
+        converters.add(BBCodeConverter.builder(adapter).escapeHtmlInOutput(false).build());
+        converters.add(BBCodeConverter.builder(adapter).allowImgCode(false).optimizeAST(false).build());
+        converters.add(BBCodeConverter.builder(adapter).escapeHtmlInOutput(false).optimizeAST(false).build());
+        return converters;
+    }
+
+    @Test
+    void sharedConvertersMatchSingleThreadedOutput() throws Exception {
+        List<String> posts = posts();
+        List<BBCodeConverter> converters = converters();
+
+        String[][] expectedHtml = new String[converters.size()][posts.size()];
+        String[][] expectedBBCode = new String[converters.size()][posts.size()];
+        for (int c = 0; c < converters.size(); c++) {
+            for (int p = 0; p < posts.size(); p++) {
+                expectedHtml[c][p] = converters.get(c).bbcodeToHtml(posts.get(p));
+                expectedBBCode[c][p] = converters.get(c).htmlToBBCode(expectedHtml[c][p]);
+            }
+        }
+        // 不同的转义设置必须产生不同的输出，否则测试区分不出配置串用
+        boolean escapeMatters = false;
+        for (int p = 0; p < posts.size(); p++) {
+            escapeMatters |= !expectedHtml[0][p].equals(expectedHtml[1][p]);
+        }
+        assertTrue(escapeMatters, "escape settings should change the output");
+
+        Queue<String> mismatches = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int seed = t;
+                futures.add(threads.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (int i = 0; i < posts.size(); i++) {
+                            // 每个线程从不同位置开始，同一时刻各线程使用不同的转换器和输入
+                            int p = (i + seed * 7) % posts.size();
+                            int c = (i + seed + round) % converters.size();
+                            check(converters.get(c), posts.get(p), expectedHtml[c][p], expectedBBCode[c][p],
+                                "converter " + c + ", post " + p, mismatches);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(0, mismatches.size(), () -> "mismatches: " + mismatches);
+    }
+
+    private static void check(BBCodeConverter converter, String post, String html, String bbcode, String where,
+                              Queue<String> mismatches) throws IOException {
+        if (!html.equals(converter.bbcodeToHtml(post))) {
+            mismatches.add(where + " (String)");
+        }
+        StringWriter writer = new StringWriter();
+        converter.bbcodeToHtml(post, writer);
+        if (!html.equals(writer.toString())) {
+            mismatches.add(where + " (Writer)");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        converter.bbcodeToHtml(post.getBytes(StandardCharsets.UTF_8), bytes);
+        if (!html.equals(new String(bytes.toByteArray(), StandardCharsets.UTF_8))) {
+            mismatches.add(where + " (UTF-8)");
+        }
+        if (!bbcode.equals(converter.htmlToBBCode(html))) {
+            mismatches.add(where + " (htmlToBBCode)");
+        }
+    }
+}
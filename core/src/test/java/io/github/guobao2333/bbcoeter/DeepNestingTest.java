@@ -0,0 +1,208 @@
+package io.github.guobao2333.bbcoeter;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.ast.ASTNode.NodeType;
+import io.github.guobao2333.bbcoeter.ast.ASTOptimizer;
+import io.github.guobao2333.bbcoeter.ast.FlatAST;
+import io.github.guobao2333.bbcoeter.dom.NativeDOMAdapter;
+import io.github.guobao2333.bbcoeter.parser.BBCodeParser;
+import io.github.guobao2333.bbcoeter.renderer.BBCodeRenderer;
+import io.github.guobao2333.bbcoeter.renderer.HTMLRenderer;
+import io.github.guobao2333.bbcoeter.renderer.MarkdownRenderer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 嵌套深度10^5的输入：解析、优化、渲染和紧凑树转换都不能依赖线程栈深度
+ */
+class DeepNestingTest {
+    private static final int DEPTH = 100_000;
+
+    private final BBCodeConverter converter = BBCodeConverter.builder(new NativeDOMAdapter()).build();
+
+    private static String nested(String open, String close, String text, int depth) {
+        StringBuilder input = new StringBuilder(depth * (open.length() + close.length()) + text.length());
+        for (int i = 0; i < depth; i++) {
+            input.append(open);
+        }
+        input.append(text);
+        for (int i = 0; i < depth; i++) {
+            input.append(close);
+        }
+        return input.toString();
+    }
+
+    /**
+     * 深层输出应当是单层输出的开始、结束部分各重复depth次
+     */
+    private void assertNestedHtml(String open, String close) {
+        String single = converter.bbcodeToHtml(open + "x" + close);
+        int x = single.indexOf('x');
+        String expected = nested(single.substring(0, x), single.substring(x + 1), "x", DEPTH);
+        assertEquals(expected, converter.bbcodeToHtml(nested(open, close, "x", DEPTH)));
+    }
+
+    @Test
+    void bbcodeToHtmlNestedQuote() {
+        assertNestedHtml("[quote]", "[/quote]");
+    }
+
+    @Test
+    void bbcodeToHtmlNestedBold() {
+        assertNestedHtml("[b]", "[/b]");
+    }
+
+    @Test
+    void bbcodeToHtmlUnclosedTags() {
+        String input = nested("[quote][b]", "", "x", DEPTH);
+        String html = converter.bbcodeToHtml(input);
+        assertTrue(html.contains("x"));
+    }
+
+    /**
+     * DOCUMENT下交替嵌套QUOTE和BOLD，最深处为文本
+     */
+    private static ASTNode deepTree(int depth) {
+        ASTNode root = new ASTNode(NodeType.DOCUMENT);
+        ASTNode current = root;
+        for (int i = 0; i < depth; i++) {
+            ASTNode child = new ASTNode(i % 2 == 0 ? NodeType.QUOTE : NodeType.BOLD);
+            current.appendChild(child);
+            current = child;
+        }
+        current.appendChild(new ASTNode(NodeType.TEXT, "x"));
+        return root;
+    }
+
+    /**
+     * 由两层（QUOTE、BOLD）的输出得到DEPTH层的预期输出
+     */
+    private static String repeatPair(String pair) {
+        int x = pair.indexOf('x');
+        return nested(pair.substring(0, x), pair.substring(x + 1), "x", DEPTH / 2);
+    }
+
+    @Test
+    void htmlRendererDeepTree() {
+        HTMLRenderer renderer = new HTMLRenderer();
+        String expected = repeatPair(renderer.render(deepTree(2)));
+        assertEquals(expected, renderer.render(deepTree(DEPTH)));
+        assertEquals(expected, renderer.render(FlatAST.fromASTNode(deepTree(DEPTH))));
+    }
+
+    @Test
+    void bbcodeRendererDeepTree() {
+        BBCodeRenderer renderer = new BBCodeRenderer();
+        String expected = repeatPair(renderer.render(deepTree(2)));
+        assertEquals(expected, renderer.render(deepTree(DEPTH)));
+        assertEquals(expected, renderer.render(FlatAST.fromASTNode(deepTree(DEPTH))));
+    }
+
+    @Test
+    void markdownRendererDeepTree() {
+        MarkdownRenderer renderer = new MarkdownRenderer();
+        String markdown = renderer.render(deepTree(DEPTH));
+        assertTrue(markdown.contains("x"));
+        assertEquals(markdown, renderer.render(FlatAST.fromASTNode(deepTree(DEPTH))));
+    }
+
+    /**
+     * 嵌套的[code]只在最外层写一次围栏，围栏比各层连在一起的反引号更长
+     */
+    @Test
+    void markdownNestedCodeBlocks() {
+        ASTNode root = new BBCodeParser().parse(nested("[code]`", "[/code]", "x", DEPTH));
+        String fence = repeat('`', DEPTH + 1);
+        String expected = fence + "\n" + repeat('`', DEPTH) + "x\n" + fence + "\n";
+        MarkdownRenderer renderer = new MarkdownRenderer();
+        assertEquals(expected, renderer.render(root));
+        assertEquals(expected, renderer.render(FlatAST.fromASTNode(root)));
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 每层都有需要合并的相邻文本，优化后每层只剩一个文本节点和下一层
+     */
+    private static ASTNode unoptimizedTree(int depth) {
+        ASTNode root = new ASTNode(NodeType.DOCUMENT);
+        ASTNode current = root;
+        for (int i = 0; i < depth; i++) {
+            current.appendChild(new ASTNode(NodeType.TEXT, "a"));
+            current.appendChild(new ASTNode(NodeType.TEXT, "b"));
+            ASTNode child = new ASTNode(NodeType.BOLD);
+            current.appendChild(child);
+            current = child;
+        }
+        current.appendChild(new ASTNode(NodeType.TEXT, "x"));
+        return root;
+    }
+
+    @Test
+    void optimizeDeepTree() {
+        ASTNode root = new ASTOptimizer().optimize(unoptimizedTree(DEPTH));
+        ASTNode current = root;
+        for (int i = 0; i < DEPTH; i++) {
+            List<ASTNode> children = current.getChildren();
+            assertEquals(2, children.size(), "children at depth " + i);
+            assertEquals("ab", children.get(0).getContent());
+            current = children.get(1);
+        }
+        assertEquals("x", current.getChildren().get(0).getContent());
+    }
+
+    @Test
+    void optimizeDeepFlatTree() {
+        FlatAST ast = new ASTOptimizer().optimize(FlatAST.fromASTNode(unoptimizedTree(DEPTH)));
+        int node = ast.getRoot();
+        for (int i = 0; i < DEPTH; i++) {
+            assertEquals(2, ast.getChildCount(node), "children at depth " + i);
+            int text = ast.getFirstChild(node);
+            assertEquals("ab", ast.getContent(text));
+            node = ast.getNextSibling(text);
+        }
+        assertEquals("x", ast.getContent(ast.getFirstChild(node)));
+    }
+
+    @Test
+    void flatASTRoundTrip() {
+        ASTNode original = unoptimizedTree(DEPTH);
+        ASTNode copy = FlatAST.fromASTNode(original).toASTNode();
+        assertSameTree(original, copy);
+    }
+
+    /**
+     * 用显式栈逐个比较两棵树的类型、内容、属性和子节点数
+     */
+    private static void assertSameTree(ASTNode expected, ASTNode actual) {
+        Deque<ASTNode[]> pending = new ArrayDeque<>();
+        pending.push(new ASTNode[] {expected, actual});
+        int count = 0;
+        while (!pending.isEmpty()) {
+            ASTNode[] pair = pending.pop();
+            assertEquals(pair[0].getType(), pair[1].getType());
+            assertEquals(pair[0].getContent(), pair[1].getContent());
+            assertEquals(pair[0].getAttributes(), pair[1].getAttributes());
+            List<ASTNode> left = pair[0].getChildren();
+            List<ASTNode> right = pair[1].getChildren();
+            assertEquals(left.size(), right.size());
+            for (int i = 0; i < left.size(); i++) {
+                pending.push(new ASTNode[] {left.get(i), right.get(i)});
+            }
+            count++;
+        }
+        assertEquals(DEPTH * 3 + 2, count);
+    }
+}
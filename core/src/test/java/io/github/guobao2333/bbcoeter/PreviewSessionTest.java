@@ -0,0 +1,220 @@
+package io.github.guobao2333.bbcoeter;
+
+import io.github.guobao2333.bbcoeter.dom.NativeDOMAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 增量预览在任意编辑序列后与bbcodeToHtml的完整转换结果一致
+ */
+class PreviewSessionTest {
+    private static final int EDITS = 400;
+    private static final int MAX_LENGTH = 3000;
+
+    private static final String[] FRAGMENTS = {
+        "[b]粗体 & \"引号\"[/b]",
+        "[i]斜体 <script>[/i]",
+        "[url=https://example.com/?a=1&b=2]链接[/url]",
+        "[url]https://example.com/plain[/url]",
+        "[img]https://img.example.com/a.png[/img]",
+        "[quote=作者][u]引用[/u][/quote]",
+        "[color=#FF0000]红色[/color] [size=5]大[/size]",
+        "[code]if (a < b) { [b]x[/b] }[/code]",
+        "[list][*]一[*]二[/list]",
+        "普通文本 😀\n第二行",
+        "[hr][br]",
+        "[unknown]x[/unknown] [/b]",
+        "\n\n",
+    };
+
+    private static final String[] OPEN_TAGS = {
+        "[b]", "[i]", "[quote]", "[quote=某人]", "[url=https://a.example/]", "[list]", "[code]", "[color=red]", "[*]"
+    };
+
+    private static final String[] CLOSE_TAGS = {
+        "[/b]", "[/i]", "[/quote]", "[/url]", "[/list]", "[/code]", "[/color]", "[/*]", "[/hr]"
+    };
+
+    private static List<BBCodeConverter> converters() {
+        NativeDOMAdapter adapter = new NativeDOMAdapter();
+        return Arrays.asList(
+            BBCodeConverter.builder(adapter).optimizeAST(true).build(),
+            BBCodeConverter.builder(adapter).optimizeAST(false).build());
+    }
+
+    @Test
+    void randomEditsMatchFullConversion() {
+        for (BBCodeConverter converter : converters()) {
+            Random random = new Random(20240701L);
+            StringBuilder initial = new StringBuilder();
+            for (int i = 0; i < 40; i++) {
+                initial.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            PreviewSession session = converter.newPreviewSession(initial.toString());
+            assertMatches(converter, session, "initial");
+            for (int i = 0; i < EDITS; i++) {
+                int step = i;
+                String text = session.getText();
+                int[] edit = randomEdit(random, text);
+                String inserted = edit.length > 2 ? insertion(random, edit[2]) : "";
+                apply(converter, session, edit[0], edit[1], inserted,
+                    () -> "optimize=" + converter.isOptimizeAST() + ", edit #" + step);
+            }
+        }
+    }
+
+    @Test
+    void editInsideOpeningTagResegments() {
+        for (BBCodeConverter converter : converters()) {
+            PreviewSession session = converter.newPreviewSession("[b]a[/b][i]b[/i][u]c[/u]");
+            assertEquals(3, session.getSegmentCount());
+            // 把第二段的开头标签改为未知标签，这里不再是分段点
+            apply(converter, session, 9, 1, "x", () -> "rename");
+            assertEquals(2, session.getSegmentCount());
+            // 补全被拆开的标签：先删掉右括号，再加回来
+            apply(converter, session, 10, 1, "", () -> "cut");
+            apply(converter, session, 9, 1, "i]", () -> "restore");
+            assertEquals(3, session.getSegmentCount());
+            // 在[url=...]的属性中编辑
+            session.setText("[url=https://a.example/]a[/url][url=https://b.example/]b[/url]");
+            apply(converter, session, 40, 0, "x", () -> "attribute");
+            int close = session.getText().lastIndexOf("]b[");
+            apply(converter, session, close, 1, "", () -> "attribute end");
+            apply(converter, session, close - 1, 0, "]", () -> "attribute close");
+        }
+    }
+
+    @Test
+    void unclosedTagReachesEndOfDocument() {
+        for (BBCodeConverter converter : converters()) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 2000; i++) {
+                text.append("[b]").append(i).append("[/b]");
+            }
+            PreviewSession session = converter.newPreviewSession(text.toString());
+            int segments = session.getSegmentCount();
+            // 未闭合的开放标签使之后的整个文档成为一个分段，查找范围需要多次加倍
+            apply(converter, session, 0, 0, "[quote]", () -> "open");
+            assertEquals(1, session.getSegmentCount());
+            apply(converter, session, 0, 7, "", () -> "remove");
+            assertEquals(segments, session.getSegmentCount());
+        }
+    }
+
+    @Test
+    void resyncBeyondFirstWindowReusesTail() {
+        for (BBCodeConverter converter : converters()) {
+            StringBuilder text = new StringBuilder("[quote]");
+            for (int i = 0; i < 1000; i++) {
+                text.append("正文").append(i).append(' ');
+            }
+            text.append("[/quote]");
+            for (int i = 0; i < 1000; i++) {
+                text.append("[i]").append(i).append("[/i]");
+            }
+            PreviewSession session = converter.newPreviewSession(text.toString());
+            int segments = session.getSegmentCount();
+            String before = session.getHtml();
+            // 第一个分段长于查找窗口，需要加倍后才能找到重合的分段点
+            PreviewSession.Change change = apply(converter, session, 10, 0, "x", () -> "inside quote");
+            assertEquals(segments, session.getSegmentCount());
+            assertEquals(0, change.getHtmlOffset());
+            assertTrue(change.getRemovedLength() < before.length() / 2, change::toString);
+
+            // 编辑后面的一个分段只重新渲染这一段
+            int offset = session.getText().indexOf("[i]500[/i]") + 4;
+            change = apply(converter, session, offset, 1, "9", () -> "tail segment");
+            assertEquals(segments, session.getSegmentCount());
+            assertEquals(converter.bbcodeToHtml("[i]590[/i]"), change.getHtml());
+        }
+    }
+
+    /**
+     * 编辑位置、删除长度和插入类型；偏向标签附近和[url=...]属性内部
+     */
+    private static int[] randomEdit(Random random, String text) {
+        int length = text.length();
+        if (length > MAX_LENGTH) {
+            int from = random.nextInt(length / 2);
+            return new int[]{from, length / 3};
+        }
+        int kind = random.nextInt(6);
+        if (kind == 0 && length > 0) {
+            int from = random.nextInt(length);
+            return new int[]{from, random.nextInt(Math.min(20, length - from) + 1)};
+        }
+        if (kind == 1) {
+            // 在[url=...]的属性中插入或删除，也可能删掉右括号
+            int url = text.indexOf("[url=", random.nextInt(length + 1));
+            if (url >= 0) {
+                int close = text.indexOf(']', url);
+                int end = close >= 0 ? close + 1 : length;
+                int at = url + 5 + random.nextInt(end - url - 5 + 1);
+                int removed = at < length ? random.nextInt(Math.min(2, length - at) + 1) : 0;
+                return new int[]{at, removed, random.nextInt(3)};
+            }
+        }
+        if (kind == 2) {
+            // 删除一个完整的标签
+            int open = text.indexOf('[', random.nextInt(length + 1));
+            int close = open >= 0 ? text.indexOf(']', open) : -1;
+            if (close >= 0) {
+                return new int[]{open, close + 1 - open};
+            }
+        }
+        int at = random.nextInt(length + 1);
+        // 插入到标签附近
+        int bracket = text.indexOf('[', at);
+        if (bracket >= 0 && random.nextBoolean()) {
+            at = bracket + random.nextInt(Math.min(3, length - bracket) + 1);
+        }
+        return new int[]{at, 0, 3 + random.nextInt(4)};
+    }
+
+    private static String insertion(Random random, int kind) {
+        switch (kind) {
+            case 0:
+                return "x";
+            case 1:
+                return "\"";
+            case 2:
+                return "]";
+            case 3:
+                return OPEN_TAGS[random.nextInt(OPEN_TAGS.length)];
+            case 4:
+                return CLOSE_TAGS[random.nextInt(CLOSE_TAGS.length)];
+            case 5:
+                return "[";
+            default:
+                return FRAGMENTS[random.nextInt(FRAGMENTS.length)];
+        }
+    }
+
+    private static PreviewSession.Change apply(BBCodeConverter converter, PreviewSession session,
+                                               int offset, int removed, String inserted,
+                                               Supplier<String> description) {
+        String before = session.getHtml();
+        PreviewSession.Change change = session.edit(offset, removed, inserted);
+        String message = description.get() + ": edit(" + offset + ", " + removed + ", \"" + inserted + "\")";
+        assertMatches(converter, session, message);
+        assertEquals(session.getHtml(), change.applyTo(before), message);
+        return change;
+    }
+
+    /**
+     * 输出与完整转换相同，分段也与重新创建的会话相同
+     */
+    private static void assertMatches(BBCodeConverter converter, PreviewSession session, String message) {
+        assertEquals(converter.bbcodeToHtml(session.getText()), session.getHtml(),
+            () -> message + " on " + session.getText());
+        assertEquals(converter.newPreviewSession(session.getText()).getSegmentCount(), session.getSegmentCount(),
+            message + " segments");
+    }
+}
@@ -0,0 +1,198 @@
+package io.github.guobao2333.bbcoeter.cache;
+
+import io.github.guobao2333.bbcoeter.BBCodeConverter;
+import io.github.guobao2333.bbcoeter.dom.NativeDOMAdapter;
+import io.github.guobao2333.bbcoeter.parser.HTMLSanitizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 渲染缓存：并发未命中合并、失败不缓存、按总量淘汰与准入、不同配置互不共用
+ */
+class RenderCacheTest {
+    private static final int THREADS = 8;
+
+    @Test
+    void concurrentMissesRenderOnce() throws Exception {
+        RenderCache cache = new RenderCache(1 << 20);
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, String> renderer = input -> {
+            renders.incrementAndGet();
+            await(release);
+            return "<b>" + input + "</b>";
+        };
+
+        List<Future<String>> results = submitAll(() -> cache.get("v", "key", renderer), cache, release);
+
+        for (Future<String> result : results) {
+            assertEquals("<b>key</b>", result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, renders.get());
+        assertEquals(1, cache.getStats().getLoadCount());
+        assertEquals(THREADS, cache.getStats().getMissCount());
+        assertEquals("<b>key</b>", cache.getIfPresent("v", "key"));
+    }
+
+    @Test
+    void failedRenderReachesEveryWaiterAndIsNotCached() throws Exception {
+        RenderCache cache = new RenderCache(1 << 20);
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("render failed");
+        Function<String, String> failing = input -> {
+            renders.incrementAndGet();
+            await(release);
+            throw failure;
+        };
+
+        List<Future<String>> results = submitAll(() -> cache.get("v", "key", failing), cache, release);
+
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        }
+        assertEquals(1, renders.get());
+        assertEquals(0, cache.size());
+        assertNull(cache.getIfPresent("v", "key"));
+        // 失败之后的请求重新渲染
+        assertEquals("ok", cache.get("v", "key", input -> "ok"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void weightIsBounded() {
+        RenderCache cache = new RenderCache(20_000);
+        AtomicInteger renders = new AtomicInteger();
+        for (int i = 0; i < 2000; i++) {
+            cache.get("v", "post-" + i, input -> {
+                renders.incrementAndGet();
+                return input + input;
+            });
+            assertTrue(cache.getWeightedSize() <= cache.getMaximumWeight(), "weight " + cache.getWeightedSize());
+        }
+        assertEquals(2000, renders.get());
+        assertTrue(cache.size() < 2000);
+        assertTrue(cache.getStats().getEvictionCount() > 0);
+        assertEquals(2000 - cache.size(), cache.getStats().getEvictionCount());
+
+        // 超过总容量的条目不缓存
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            large.append('x');
+        }
+        String huge = large.toString();
+        int size = cache.size();
+        assertEquals(huge, cache.get("v", huge, Function.identity()));
+        assertEquals(size, cache.size());
+        assertNull(cache.getIfPresent("v", huge));
+    }
+
+    @Test
+    void frequentEntriesSurviveScan() {
+        RenderCache cache = new RenderCache(20_000);
+        // 先填满缓存，频率表随条目数扩大时会重新计数
+        for (int i = 0; i < 1000; i++) {
+            cache.get("v", "warm-" + i, String::toUpperCase);
+        }
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 20; i++) {
+                cache.get("v", "hot-" + i, String::toUpperCase);
+            }
+        }
+        // 两次访问热门条目之间流过的一次性条目超过缓存容量，LRU会把热门条目全部淘汰
+        for (int i = 0; i < 5000; i++) {
+            cache.get("v", "cold-" + i, String::toUpperCase);
+            if (i % 500 == 499) {
+                for (int j = 0; j < 20; j++) {
+                    assertNotNull(cache.getIfPresent("v", "hot-" + j), "hot-" + j + " after cold-" + i);
+                }
+            }
+        }
+        assertTrue(cache.getWeightedSize() <= cache.getMaximumWeight());
+    }
+
+    @Test
+    void variantsDoNotShareEntries() {
+        RenderCache cache = new RenderCache(1 << 20);
+        assertEquals("a", cache.get("one", "input", input -> "a"));
+        assertEquals("b", cache.get("two", "input", input -> "b"));
+        assertEquals("a", cache.getIfPresent("one", "input"));
+        assertEquals("b", cache.getIfPresent("two", "input"));
+
+        NativeDOMAdapter adapter = new NativeDOMAdapter();
+        BBCodeConverter escaped = BBCodeConverter.builder(adapter).renderCache(cache).build();
+        BBCodeConverter unescaped = BBCodeConverter.builder(adapter).escapeHtmlInOutput(false).renderCache(cache).build();
+        String bbcode = "[b]<i>x</i>[/b]";
+        String first = escaped.bbcodeToHtml(bbcode);
+        String second = unescaped.bbcodeToHtml(bbcode);
+        assertNotEquals(first, second);
+        assertEquals(BBCodeConverter.builder(adapter).build().bbcodeToHtml(bbcode), first);
+        assertEquals(BBCodeConverter.builder(adapter).escapeHtmlInOutput(false).build().bbcodeToHtml(bbcode), second);
+        // 再次转换命中各自的条目
+        assertEquals(first, escaped.bbcodeToHtml(bbcode));
+        assertEquals(second, unescaped.bbcodeToHtml(bbcode));
+
+        BBCodeConverter strict = BBCodeConverter.builder(adapter)
+            .htmlSanitizer(HTMLSanitizer.builder().disallowTags("b").build())
+            .renderCache(cache)
+            .build();
+        String html = "<b>x</b>";
+        assertNotEquals(escaped.htmlToBBCode(html), strict.htmlToBBCode(html));
+        assertEquals(BBCodeConverter.builder(adapter).build().htmlToBBCode(html), escaped.htmlToBBCode(html));
+    }
+
+    /**
+     * 所有线程都已未命中并等待同一次渲染后，才放行渲染
+     */
+    private static List<Future<String>> submitAll(Callable<String> task, RenderCache cache,
+                                                  CountDownLatch release) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(pool.submit(task));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (cache.getStats().getMissCount() < THREADS && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            // 最后一个未命中的线程计数之后还要找到正在进行的渲染
+            Thread.sleep(50);
+            release.countDown();
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new AssertionError("timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+}
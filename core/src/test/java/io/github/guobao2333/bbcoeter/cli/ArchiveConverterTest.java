@@ -0,0 +1,342 @@
+package io.github.guobao2333.bbcoeter.cli;
+
+import io.github.guobao2333.bbcoeter.BBCodeConverter;
+import io.github.guobao2333.bbcoeter.dom.NativeDOMAdapter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 归档转换：分块对齐、输出顺序、单条记录失败隔离以及清单增量转换
+ */
+class ArchiveConverterTest {
+    private static final BBCodeConverter CONVERTER = new BBCodeConverter(new NativeDOMAdapter());
+
+    @TempDir
+    Path dir;
+
+    private static List<String> posts(int count) {
+        List<String> posts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            posts.add("[b]帖子" + i + "[/b] <tag> & \"引号\"\n[url=https://example.com/?a=" + i + "&b=2]链接[/url]");
+        }
+        // 比分块大得多的记录
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            large.append("[i]长记录").append(i).append("[/i] ");
+        }
+        posts.add(count / 2, large.toString());
+        return posts;
+    }
+
+    private static ArchiveConverter.Builder jsonl(BBCodeConverter converter) {
+        return ArchiveConverter.builder(converter).format(ArchiveFormat.JSONL).threads(4).chunkSize(64);
+    }
+
+    private static ArchiveConverter.Builder lengthPrefixed(BBCodeConverter converter) {
+        return ArchiveConverter.builder(converter).format(ArchiveFormat.LENGTH_PREFIXED).threads(4).chunkSize(64);
+    }
+
+    @Test
+    void jsonlChunksAlignToLinesAndKeepOrder() throws IOException {
+        List<String> posts = posts(40);
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < posts.size(); i++) {
+            input.append("{\"id\":").append(i).append(",\"bbcode\":").append(json(posts.get(i))).append('}');
+            // 最后一行没有换行
+            if (i < posts.size() - 1) {
+                input.append('\n');
+            }
+            expected.append("{\"id\":").append(i).append(",\"html\":")
+                .append(json(CONVERTER.bbcodeToHtml(posts.get(i)))).append("}\n");
+        }
+        Path in = write("in.jsonl", input.toString());
+        Path out = dir.resolve("out.jsonl");
+
+        ArchiveSummary summary = jsonl(CONVERTER).build().convert(in, out);
+
+        assertEquals(expected.toString(), read(out));
+        assertEquals(posts.size(), summary.getRecords());
+        assertTrue(summary.getFailures().isEmpty(), () -> summary.getFailures().toString());
+        assertTrue(summary.getChunks() > 1, "chunks=" + summary.getChunks());
+        assertEquals(Files.size(in), summary.getBytesIn());
+        assertEquals(Files.size(out), summary.getBytesOut());
+    }
+
+    @Test
+    void failedRecordIsIsolated() throws IOException {
+        String[] lines = {
+            "{\"id\":\"a\",\"bbcode\":\"[b]一[/b]\"}",
+            "",
+            "{\"id\":\"b\",\"bbcode\":",
+            "{\"id\":\"c\",\"bbcode\":42}",
+            "{\"id\":12x,\"bbcode\":\"x\"}",
+            "\"[i]整行字符串[/i]\"",
+        };
+        Path in = write("in.jsonl", String.join("\n", lines) + "\n");
+        Path out = dir.resolve("out.jsonl");
+
+        ArchiveSummary summary = jsonl(CONVERTER).chunkSize(16).build().convert(in, out);
+
+        String[] output = read(out).split("\n");
+        assertEquals(5, output.length);
+        assertEquals("{\"id\":\"a\",\"html\":" + json(CONVERTER.bbcodeToHtml("[b]一[/b]")) + "}", output[0]);
+        for (int i = 1; i <= 3; i++) {
+            // 读取失败的记录不复制id
+            assertTrue(output[i].startsWith("{\"error\":\""), output[i]);
+        }
+        assertEquals("{\"html\":" + json(CONVERTER.bbcodeToHtml("[i]整行字符串[/i]")) + "}", output[4]);
+
+        assertEquals(5, summary.getRecords());
+        List<ArchiveSummary.Failure> failures = summary.getFailures();
+        assertEquals(3, failures.size());
+        long offset = utf8Length(lines[0]) + 1 + 1;
+        for (int i = 0; i < 3; i++) {
+            // 空行不计入记录序号
+            assertEquals(i + 1, failures.get(i).getIndex());
+            assertEquals(offset, failures.get(i).getOffset());
+            offset += utf8Length(lines[i + 2]) + 1;
+        }
+    }
+
+    @Test
+    void lengthPrefixedChunksAlignToRecords() throws IOException {
+        List<String> posts = posts(30);
+        posts.add(3, "");
+        Path in = dir.resolve("in.bin");
+        Files.write(in, frame(posts));
+        Path out = dir.resolve("out.bin");
+
+        ArchiveSummary summary = lengthPrefixed(CONVERTER).build().convert(in, out);
+
+        List<String> expected = new ArrayList<>();
+        for (String post : posts) {
+            expected.add(CONVERTER.bbcodeToHtml(post));
+        }
+        assertEquals(expected, unframe(Files.readAllBytes(out)));
+        assertEquals(posts.size(), summary.getRecords());
+        assertTrue(summary.getChunks() > 1, "chunks=" + summary.getChunks());
+    }
+
+    @Test
+    void truncatedLengthPrefixIsRejected() throws IOException {
+        byte[] complete = frame(Arrays.asList("[b]一[/b]", "二"));
+        Path out = dir.resolve("out.bin");
+
+        // 长度前缀本身不完整
+        Path in = dir.resolve("prefix.bin");
+        Files.write(in, concat(complete, new byte[]{0, 0}));
+        IOException e = assertThrows(IOException.class, () -> lengthPrefixed(CONVERTER).build().convert(in, out));
+        assertEquals("Truncated record at offset " + complete.length, e.getMessage());
+
+        // 长度超出文件末尾
+        Path body = dir.resolve("body.bin");
+        Files.write(body, concat(complete, new byte[]{0, 0, 0, 100, 'x'}));
+        e = assertThrows(IOException.class, () -> lengthPrefixed(CONVERTER).build().convert(body, out));
+        assertEquals("Truncated record at offset " + complete.length, e.getMessage());
+    }
+
+    @Test
+    void manifestCopiesUnchangedRecords() throws IOException {
+        List<String> posts = posts(20);
+        Path in = dir.resolve("in.bin");
+        Path out = dir.resolve("out.bin");
+        Path manifest = dir.resolve("out.manifest");
+        Files.write(in, frame(posts));
+
+        ArchiveSummary first = lengthPrefixed(CONVERTER).manifest(manifest).build().convert(in, out);
+        assertTrue(first.isIncremental());
+        assertEquals(0, first.getReused());
+        assertEquals(posts.size(), first.getChanged());
+        byte[] firstOutput = Files.readAllBytes(out);
+
+        ArchiveSummary second = lengthPrefixed(CONVERTER).manifest(manifest).build().convert(in, out);
+        assertEquals(posts.size(), second.getReused());
+        assertEquals(0, second.getChanged());
+        assertArrayEquals(firstOutput, Files.readAllBytes(out));
+
+        posts.set(7, "[u]改过的记录[/u]");
+        Files.write(in, frame(posts));
+        ArchiveSummary third = lengthPrefixed(CONVERTER).manifest(manifest).build().convert(in, out);
+        assertEquals(posts.size() - 1, third.getReused());
+        assertEquals(1, third.getChanged());
+        assertArrayEquals(fullConversion(CONVERTER, in), Files.readAllBytes(out));
+    }
+
+    @Test
+    void changedFingerprintReconvertsEverything() throws IOException {
+        List<String> posts = posts(10);
+        Path in = dir.resolve("in.bin");
+        Path out = dir.resolve("out.bin");
+        Path manifest = dir.resolve("out.manifest");
+        Files.write(in, frame(posts));
+        lengthPrefixed(CONVERTER).manifest(manifest).build().convert(in, out);
+
+        BBCodeConverter unescaped = CONVERTER.toBuilder().escapeHtmlInOutput(false).build();
+        ArchiveSummary summary = lengthPrefixed(unescaped).manifest(manifest).build().convert(in, out);
+
+        assertEquals(0, summary.getReused());
+        assertArrayEquals(fullConversion(unescaped, in), Files.readAllBytes(out));
+    }
+
+    @Test
+    void tamperedOutputIsReconverted() throws IOException {
+        List<String> posts = posts(10);
+        Path in = dir.resolve("in.jsonl");
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < posts.size(); i++) {
+            input.append("{\"id\":").append(i).append(",\"bbcode\":").append(json(posts.get(i))).append("}\n");
+        }
+        Files.write(in, input.toString().getBytes(StandardCharsets.UTF_8));
+        Path out = dir.resolve("out.jsonl");
+        Path manifest = dir.resolve("out.manifest");
+        jsonl(CONVERTER).manifest(manifest).build().convert(in, out);
+        byte[] original = Files.readAllBytes(out);
+
+        // 改动第一条记录的输出
+        byte[] tampered = original.clone();
+        int at = new String(original, StandardCharsets.UTF_8).indexOf("\"html\":\"") + 8;
+        tampered[at] = '#';
+        Files.write(out, tampered);
+
+        ArchiveSummary summary = jsonl(CONVERTER).manifest(manifest).build().convert(in, out);
+        assertEquals(posts.size() - 1, summary.getReused());
+        // 重新转换的输出与清单一致，不算变化
+        assertEquals(0, summary.getChanged());
+        assertArrayEquals(original, Files.readAllBytes(out));
+    }
+
+    @Test
+    void failedRunKeepsPreviousFiles() throws IOException {
+        List<String> posts = posts(10);
+        Path in = dir.resolve("in.bin");
+        Path out = dir.resolve("out.bin");
+        Path manifest = dir.resolve("out.manifest");
+        Files.write(in, frame(posts));
+        lengthPrefixed(CONVERTER).manifest(manifest).build().convert(in, out);
+        byte[] output = Files.readAllBytes(out);
+        byte[] entries = Files.readAllBytes(manifest);
+
+        posts.set(0, "[b]改过的记录[/b]");
+        Files.write(in, concat(frame(posts), new byte[]{0, 0, 0, 9}));
+        assertThrows(IOException.class, () -> lengthPrefixed(CONVERTER).manifest(manifest).build().convert(in, out));
+
+        assertArrayEquals(output, Files.readAllBytes(out));
+        assertArrayEquals(entries, Files.readAllBytes(manifest));
+        assertFalse(Files.exists(dir.resolve("out.bin.tmp")));
+        assertFalse(Files.exists(dir.resolve("out.manifest.tmp")));
+    }
+
+    @Test
+    void commandLineReportsFailures() throws IOException {
+        Path in = write("in.jsonl", "{\"bbcode\":\"[b]x[/b]\"}\nnot json\n");
+        Path out = dir.resolve("out.jsonl");
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+        int status = ArchiveConverter.run(new String[]{in.toString(), out.toString()},
+            new PrintStream(log, true, "UTF-8"));
+
+        assertEquals(1, status, () -> new String(log.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(2, read(out).split("\n").length);
+        assertEquals(2, ArchiveConverter.run(new String[]{in.toString()}, new PrintStream(log, true, "UTF-8")));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path path = dir.resolve(name);
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    private byte[] fullConversion(BBCodeConverter converter, Path in) throws IOException {
+        Path out = dir.resolve("full.out");
+        ArchiveConverter.builder(converter).format(ArchiveFormat.LENGTH_PREFIXED).threads(1).build().convert(in, out);
+        return Files.readAllBytes(out);
+    }
+
+    private static int utf8Length(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static byte[] frame(List<String> records) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String record : records) {
+            byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+            out.write(bytes.length >>> 24);
+            out.write(bytes.length >>> 16);
+            out.write(bytes.length >>> 8);
+            out.write(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<String> unframe(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        List<String> records = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            byte[] record = new byte[buffer.getInt()];
+            buffer.get(record);
+            records.add(new String(record, StandardCharsets.UTF_8));
+        }
+        return records;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static String json(String text) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                    break;
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
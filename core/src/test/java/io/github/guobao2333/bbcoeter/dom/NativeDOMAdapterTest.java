@@ -0,0 +1,55 @@
+package io.github.guobao2333.bbcoeter.dom;
+
+import io.github.guobao2333.bbcoeter.dom.DOMAdapter.DOMElement;
+import io.github.guobao2333.bbcoeter.dom.DOMAdapter.DOMNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 不构成标签的 '<' 和被跳过的注释不会把文本拆成多个节点，解析时间与输入长度成线性
+ */
+class NativeDOMAdapterTest {
+    private static final int REPEAT = 200_000;
+
+    private final NativeDOMAdapter adapter = new NativeDOMAdapter();
+
+    private static String repeat(String text, int count) {
+        StringBuilder sb = new StringBuilder(text.length() * count);
+        for (int i = 0; i < count; i++) {
+            sb.append(text);
+        }
+        return sb.toString();
+    }
+
+    private List<DOMNode> bodyNodes(String html) {
+        DOMElement body = adapter.parseHTML(html).body();
+        return body.childNodes();
+    }
+
+    @Test
+    void lessThanSignsStayInOneTextNode() {
+        String html = repeat("a < ", REPEAT);
+        List<DOMNode> nodes = bodyNodes(html);
+        assertEquals(1, nodes.size());
+        assertEquals(html, nodes.get(0).nodeText());
+    }
+
+    @Test
+    void textAroundCommentsIsMerged() {
+        List<DOMNode> nodes = bodyNodes(repeat("a<!---->", REPEAT));
+        assertEquals(1, nodes.size());
+        assertEquals(repeat("a", REPEAT), nodes.get(0).nodeText());
+    }
+
+    @Test
+    void textSeparatedByTagsStaysSeparate() {
+        List<DOMNode> nodes = bodyNodes("x < 1<b>y</b>z<!-- c -->w <");
+        assertEquals(3, nodes.size());
+        assertEquals("x < 1", nodes.get(0).nodeText());
+        assertEquals("b", ((DOMElement) nodes.get(1)).tagName());
+        assertEquals("zw <", nodes.get(2).nodeText());
+    }
+}
@@ -0,0 +1,173 @@
+package io.github.guobao2333.bbcoeter.parser;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 手写词法分析器和事件驱动的构建器与原来基于正则表达式的解析器产生相同的AST
+ */
+class BBCodeParserTest {
+    /**
+     * 输入和原正则解析器（TAG_PATTERN + 递归匹配闭合标签）生成的树
+     */
+    private static final String[][] CASES = {
+        // 未知标签按文本保留，标签名转为小写
+        {"[foo]x[/foo]", "DOCUMENT[TEXT'[foo]x[/foo]']"},
+        {"[FOO=Bar]x[/Foo]", "DOCUMENT[TEXT'[foo=Bar]x[/foo]']"},
+        {"a[unknown=1 2]b", "DOCUMENT[TEXT'a[unknown=1 2]b']"},
+        // 标签名不区分大小写
+        {"[b]x[/B]", "DOCUMENT[BOLD[TEXT'x']]"},
+        {"[B]x[/b]", "DOCUMENT[BOLD[TEXT'x']]"},
+        // 没有右括号或参数为空的[url=
+        {"[url=http://a.com", "DOCUMENT[TEXT'[url=http://a.com']"},
+        {"[url=http://a.com]x", "DOCUMENT[LINK{href=http://a.com}[TEXT'x']]"},
+        {"[url=]x[/url]", "DOCUMENT[TEXT'[url=]x[/url]']"},
+        {"[url=a=b]x[/url]", "DOCUMENT[LINK{href=a=b}[TEXT'x']]"},
+        {"[url=[b]x[/b]", "DOCUMENT[LINK{href=[b}[TEXT'x[/b]']]"},
+        // [/*]和[/hr]没有对应的开放标签
+        {"[list][*]a[/*][*]b[/list]", "DOCUMENT[LIST[LIST_ITEM[TEXT'a[/*]', LIST_ITEM[TEXT'b']]]]"},
+        {"[hr]x[/hr]", "DOCUMENT[HORIZONTAL_RULE, TEXT'x[/hr]']"},
+        {"[HR][/hr]", "DOCUMENT[HORIZONTAL_RULE, TEXT'[/hr]']"},
+        {"[/*]", "DOCUMENT[TEXT'[/*]']"},
+        // 交错和不匹配的闭合标签
+        {"[b][i]x[/b]y[/i]", "DOCUMENT[BOLD[ITALIC[TEXT'x']], TEXT'y[/i]']"},
+        {"[i]x[/b]y", "DOCUMENT[ITALIC[TEXT'x[/b]y']]"},
+        {"[b]x[/u][/b]", "DOCUMENT[BOLD[TEXT'x[/u]']]"},
+        {"[quote][b]x[/quote]", "DOCUMENT[QUOTE[BOLD[TEXT'x']]]"},
+        // 文档结束时未闭合的标签
+        {"[b]open", "DOCUMENT[BOLD[TEXT'open']]"},
+        {"[b][i][u]deep", "DOCUMENT[BOLD[ITALIC[UNDERLINE[TEXT'deep']]]]"},
+        {"[url=http://a.com][b]x", "DOCUMENT[LINK{href=http://a.com}[BOLD[TEXT'x']]]"},
+        {"[code]x[b]y", "DOCUMENT[CODE_BLOCK[TEXT'x', BOLD[TEXT'y']]]"},
+        {"[*]item", "DOCUMENT[LIST_ITEM[TEXT'item']]"},
+        // 不构成标签的括号
+        {"[]", "DOCUMENT[TEXT'[]']"},
+        {"[/]", "DOCUMENT[TEXT'[/]']"},
+        {"[b ]x[/b]", "DOCUMENT[TEXT'[b ]x[/b]']"},
+        {"[ b]", "DOCUMENT[TEXT'[ b]']"},
+        {"[b]]x[[/b]", "DOCUMENT[BOLD[TEXT']x[']]"},
+        {"[[b]x[/b]]", "DOCUMENT[TEXT'[', BOLD[TEXT'x'], TEXT']']"},
+        // 带参数的标签和别名
+        {"[b=1]x[/b]", "DOCUMENT[BOLD[TEXT'x']]"},
+        {"[table=100,red][tr=blue][td=50]c[/td][/tr][/table]",
+            "DOCUMENT[TABLE{bgcolor=red, width=100}[TABLE_ROW{bgcolor=blue}[TABLE_CELL{width=50}[TEXT'c']]]]"},
+        {"[img=http://i/x.png][/img]", "DOCUMENT[IMAGE{src=http://i/x.png}]"},
+        {"text [color=red]r[/color][size=5]s[/size][font=Arial]f[/font]",
+            "DOCUMENT[TEXT'text ', COLOR{color=red}[TEXT'r'], SIZE{size=5}[TEXT's'], FONT{face=Arial}[TEXT'f']]"},
+        {"[s]a[/strike][strike]b[/s]", "DOCUMENT[STRIKETHROUGH[TEXT'a'], STRIKETHROUGH[TEXT'b']]"},
+        {"[strong]a[/b][em]b[/i]", "DOCUMENT[BOLD[TEXT'a'], ITALIC[TEXT'b']]"},
+    };
+
+    @Test
+    void matchesRegexParser() {
+        BBCodeParser parser = new BBCodeParser();
+        for (String[] c : CASES) {
+            assertEquals(c[1], dump(parser.parse(c[0])), c[0]);
+        }
+    }
+
+    @Test
+    void buildersProduceSameTree() {
+        for (BBCodeParser parser : Arrays.asList(new BBCodeParser(false), new BBCodeParser(true))) {
+            for (String[] c : CASES) {
+                String message = "optimize=" + parser.isOptimize() + ": " + c[0];
+                String tree = dump(parser.parse(c[0]));
+                assertEquals(tree, dump(parser.parseFlat(c[0]).toASTNode()), message);
+                assertEquals(tree, dump(parser.parse(c[0].getBytes(StandardCharsets.UTF_8))), message);
+            }
+        }
+    }
+
+    @Test
+    void listenerReceivesImplicitEndTags() {
+        assertEquals(Arrays.asList("<b>", "<i>", "x", "</i>", "</b>", "y[/i]"), events("[b][i]x[/b]y[/i]"));
+        assertEquals(Arrays.asList("<list>", "<*>", "a[/*]", "<*>", "b", "</*>", "</*>", "</list>"),
+            events("[list][*]a[/*][*]b[/list]"));
+        assertEquals(Arrays.asList("<hr/>", "x[/hr]"), events("[hr]x[/hr]"));
+        assertEquals(Arrays.asList("<url=http://a.com>", "<b>", "x", "</b>", "</url>"), events("[url=http://a.com][b]x"));
+        assertEquals(Arrays.asList("[url=http://a.com"), events("[url=http://a.com"));
+    }
+
+    /**
+     * 按顺序记录解析事件，相邻的文本事件合并
+     */
+    private static List<String> events(String input) {
+        List<String> events = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        new BBCodeParser().parse(input, new BBCodeListener() {
+            @Override
+            public void startTag(BBCodeTag tag, String attribute) {
+                flush();
+                events.add("<" + tag.getName() + (attribute != null ? "=" + attribute : "") + ">");
+            }
+
+            @Override
+            public void endTag(BBCodeTag tag) {
+                flush();
+                events.add("</" + tag.getName() + ">");
+            }
+
+            @Override
+            public void selfClosing(BBCodeTag tag, String attribute) {
+                flush();
+                events.add("<" + tag.getName() + "/>");
+            }
+
+            @Override
+            public void text(CharSequence chars, int start, int end) {
+                text.append(chars, start, end);
+            }
+
+            private void flush() {
+                if (text.length() > 0) {
+                    events.add(text.toString());
+                    text.setLength(0);
+                }
+            }
+        });
+        if (text.length() > 0) {
+            events.add(text.toString());
+        }
+        return events;
+    }
+
+    /**
+     * 类型、属性、文本内容和子节点的紧凑表示
+     */
+    private static String dump(ASTNode node) {
+        StringBuilder sb = new StringBuilder();
+        dump(node, sb);
+        return sb.toString();
+    }
+
+    private static void dump(ASTNode node, StringBuilder sb) {
+        sb.append(node.getType());
+        Map<String, String> attributes = new TreeMap<>(node.getAttributes());
+        if (!attributes.isEmpty()) {
+            sb.append(attributes);
+        }
+        if (node.getContent().length() > 0) {
+            sb.append('\'').append(node.getContent()).append('\'');
+        }
+        List<ASTNode> children = node.getChildren();
+        if (!children.isEmpty()) {
+            sb.append('[');
+            for (int i = 0; i < children.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                dump(children.get(i), sb);
+            }
+            sb.append(']');
+        }
+    }
+}
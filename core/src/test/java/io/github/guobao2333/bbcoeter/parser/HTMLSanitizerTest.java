@@ -0,0 +1,157 @@
+package io.github.guobao2333.bbcoeter.parser;
+
+import io.github.guobao2333.bbcoeter.BBCodeConverter;
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.dom.DOMAdapter;
+import io.github.guobao2333.bbcoeter.dom.JsoupDOMAdapter;
+import io.github.guobao2333.bbcoeter.dom.NativeDOMAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HTML转AST的清理策略，Jsoup和内置解析器的结果必须一致
+ */
+class HTMLSanitizerTest {
+    private static final List<DOMAdapter> ADAPTERS = Arrays.asList(new JsoupDOMAdapter(), new NativeDOMAdapter());
+
+    private static void assertTree(String expected, String html) {
+        assertTree(expected, html, HTMLSanitizer.DEFAULT);
+    }
+
+    /**
+     * 不优化AST，直接比较清理后的结构（优化会为没有href的链接补上文本地址）
+     */
+    private static void assertTree(String expected, String html, HTMLSanitizer sanitizer) {
+        for (DOMAdapter adapter : ADAPTERS) {
+            ASTNode root = new HTMLParser(adapter, false, sanitizer).parse(html);
+            assertEquals(expected, dump(root), () -> adapter.getClass().getSimpleName() + ": " + html);
+        }
+    }
+
+    @Test
+    void javascriptUrlsAreRemoved() {
+        String[] hrefs = {
+            "javascript:alert(1)",
+            "JaVaScRiPt:alert(1)",
+            "java&#9;script:alert(1)",
+            "java\tscript:alert(1)",
+            "java&#10;script:alert(1)",
+            " &#1;javascript:alert(1)",
+            "vbscript:msgbox(1)",
+        };
+        for (String href : hrefs) {
+            assertTree("DOCUMENT[LINK[TEXT'x']]", "<a href=\"" + href + "\">x</a>");
+        }
+        assertTree("DOCUMENT[LINK{href=https://e.com/?q=javascript:x}[TEXT'x']]",
+            "<a href=\"https://e.com/?q=javascript:x\">x</a>");
+        assertTree("DOCUMENT[LINK{href=/javascript:x}[TEXT'x']]", "<a href=\"/javascript:x\">x</a>");
+    }
+
+    @Test
+    void urlSchemeIgnoresWhitespaceAndControlCharacters() {
+        HTMLSanitizer sanitizer = HTMLSanitizer.DEFAULT;
+        assertFalse(sanitizer.isAllowedUrl("\u0000javascript:alert(1)"));
+        assertFalse(sanitizer.isAllowedUrl("java\nscript:alert(1)"));
+        assertFalse(sanitizer.isAllowedUrl("java\u001Fscript:alert(1)"));
+        assertFalse(sanitizer.isAllowedUrl(" JAVASCRIPT :alert(1)"));
+        assertTrue(sanitizer.isAllowedUrl(" HTTPS://example.com"));
+        assertTrue(sanitizer.isAllowedUrl("page.html?next=javascript:x"));
+        assertTrue(sanitizer.isAllowedUrl("#top"));
+        assertFalse(HTMLSanitizer.builder().allowRelativeUrls(false).build().isAllowedUrl("/relative"));
+    }
+
+    @Test
+    void dataImagesAreRemoved() {
+        assertTree("DOCUMENT[IMAGE{height=, width=}]", "<img src=\"data:image/png;base64,AAAA\">");
+        assertTree("DOCUMENT[IMAGE{height=, width=}]", "<img src=\" DATA:text/html,<script>alert(1)</script>\">");
+        assertTree("DOCUMENT[IMAGE{height=, src=https://e.com/a.png, width=}]", "<img src=\"https://e.com/a.png\">");
+    }
+
+    @Test
+    void eventHandlersAreNotCopied() {
+        assertTree("DOCUMENT[IMAGE{height=, src=https://e.com/a.png, width=}]",
+            "<img src=\"https://e.com/a.png\" onerror=\"alert(1)\" ONLOAD=\"alert(2)\">");
+        assertTree("DOCUMENT[PARAGRAPH[TEXT't']]", "<p onclick=\"alert(1)\" onmouseover=\"x()\">t</p>");
+        assertTree("DOCUMENT[LINK{href=https://e.com}[TEXT'x']]",
+            "<a href=\"https://e.com\" onfocus=\"alert(1)\">x</a>");
+    }
+
+    @Test
+    void droppedTagsSkipTheirText() {
+        assertTree("DOCUMENT[BOLD[TEXT'a'], TEXT'c']",
+            "<b>a</b><script>var x = '<b>no</b>';</script><style>p { color: red }</style>c");
+        assertTree("DOCUMENT[TEXT'a b']", "a <noscript><b>no</b> script</noscript><iframe src=\"x\">f</iframe>b");
+    }
+
+    @Test
+    void unwrappedTagsKeepChildren() {
+        assertTree("DOCUMENT[BOLD[TEXT'kept'], TEXT' text']", "<section><b>kept</b> text</section>");
+        assertTree("DOCUMENT[ITALIC[TEXT'a'], TEXT' b']", "<custom-tag><mark><i>a</i></mark> b</custom-tag>");
+    }
+
+    @Test
+    void policyChangesOutput() {
+        HTMLSanitizer strict = HTMLSanitizer.builder()
+            .disallowTags("b")
+            .dropTags("i")
+            .disallowAttributes("src")
+            .disallowUrlSchemes("http")
+            .build();
+        assertTree("DOCUMENT[TEXT'b', LINK[TEXT'h'], LINK{href=https://e.com}[TEXT's'], IMAGE{height=, width=}]",
+            "<b>b</b><i>i</i><a href=\"http://e.com\">h</a><a href=\"https://e.com\">s</a>"
+                + "<img src=\"https://e.com/a.png\">",
+            strict);
+        // 重新允许的标签恢复转换
+        assertTree("DOCUMENT[ITALIC[TEXT'i']]", "<i>i</i>", strict.toBuilder().allowTags("i").build());
+
+        String html = "<b>b</b><i>i</i><a href=\"http://e.com\">h</a>";
+        for (DOMAdapter adapter : ADAPTERS) {
+            BBCodeConverter permissive = new BBCodeConverter(adapter);
+            BBCodeConverter restricted = BBCodeConverter.builder(adapter).htmlSanitizer(strict).build();
+            String name = adapter.getClass().getSimpleName();
+            assertNotEquals(permissive.htmlToBBCode(html), restricted.htmlToBBCode(html), name);
+            assertEquals(new BBCodeConverter(adapter).htmlToBBCode(html), permissive.htmlToBBCode(html), name);
+            assertFalse(restricted.htmlToBBCode(html).contains("http://e.com"), name);
+        }
+    }
+
+    /**
+     * 类型、属性、文本内容和子节点的紧凑表示
+     */
+    private static String dump(ASTNode node) {
+        StringBuilder sb = new StringBuilder();
+        dump(node, sb);
+        return sb.toString();
+    }
+
+    private static void dump(ASTNode node, StringBuilder sb) {
+        sb.append(node.getType());
+        Map<String, String> attributes = new TreeMap<>(node.getAttributes());
+        if (!attributes.isEmpty()) {
+            sb.append(attributes);
+        }
+        if (node.getContent().length() > 0) {
+            sb.append('\'').append(node.getContent()).append('\'');
+        }
+        List<ASTNode> children = node.getChildren();
+        if (!children.isEmpty()) {
+            sb.append('[');
+            for (int i = 0; i < children.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                dump(children.get(i), sb);
+            }
+            sb.append(']');
+        }
+    }
+}
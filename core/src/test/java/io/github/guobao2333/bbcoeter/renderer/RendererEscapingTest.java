@@ -0,0 +1,60 @@
+package io.github.guobao2333.bbcoeter.renderer;
+
+import io.github.guobao2333.bbcoeter.ast.ASTNode;
+import io.github.guobao2333.bbcoeter.ast.ASTNode.NodeType;
+import io.github.guobao2333.bbcoeter.ast.FlatAST;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 文本、链接地址和代码块的转义不会改变输出结构
+ */
+class RendererEscapingTest {
+    private final MarkdownRenderer markdown = new MarkdownRenderer();
+
+    private static ASTNode document(ASTNode child) {
+        ASTNode root = new ASTNode(NodeType.DOCUMENT);
+        root.appendChild(child);
+        return root;
+    }
+
+    private String renderMarkdown(ASTNode root) {
+        String output = markdown.render(root);
+        assertEquals(output, markdown.render(FlatAST.fromASTNode(root)));
+        return output;
+    }
+
+    @Test
+    void htmlTextEscapesQuotes() {
+        ASTNode root = document(new ASTNode(NodeType.TEXT, "\"a\" & 'b' <c>"));
+        String expected = "&quot;a&quot; &amp; &#039;b&#039; &lt;c&gt;";
+        assertEquals(expected, new HTMLRenderer().render(root));
+        assertEquals(expected, new BBCodeRenderer().render(root));
+    }
+
+    @Test
+    void markdownLinkAddressIsPercentEncoded() {
+        ASTNode link = new ASTNode(NodeType.LINK);
+        link.setAttribute("href", "https://example.com/a (b)\nc\\d");
+        link.appendChild(new ASTNode(NodeType.TEXT, "t"));
+        assertEquals("[t](https://example.com/a%20%28b%29%0Ac%5Cd)", renderMarkdown(document(link)));
+
+        ASTNode image = new ASTNode(NodeType.IMAGE);
+        image.setAttribute("src", "a b).png");
+        assertEquals("![](a%20b%29.png)", renderMarkdown(document(image)));
+    }
+
+    @Test
+    void codeFenceIsLongerThanBacktickRuns() {
+        ASTNode code = new ASTNode(NodeType.CODE_BLOCK, "x ``` y\n");
+        code.appendChild(new ASTNode(NodeType.TEXT, "````` z"));
+        assertEquals("``````\nx ``` y\n````` z\n``````\n", renderMarkdown(document(code)));
+    }
+
+    @Test
+    void codeFenceDefaultsToThreeBackticks() {
+        ASTNode code = new ASTNode(NodeType.CODE_BLOCK, "a ` b");
+        assertEquals("```\na ` b\n```\n", renderMarkdown(document(code)));
+    }
+}
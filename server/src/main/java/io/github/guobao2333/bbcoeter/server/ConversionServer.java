@@ -0,0 +1,601 @@
+package io.github.guobao2333.bbcoeter.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.guobao2333.bbcoeter.BBCodeConverter;
+import io.github.guobao2333.bbcoeter.dom.NativeDOMAdapter;
+import io.github.guobao2333.bbcoeter.renderer.Utf8Output;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 本地转换服务：基于JDK内置的HTTP服务器（com.sun.net.httpserver），通过HTTP/1.1提供转换接口
+ *
+ * <pre>
+ * POST /bbcode-to-html   请求体为UTF-8的BBCode，响应text/html
+ * POST /html-to-bbcode   请求体为UTF-8的HTML，响应text/plain
+ * GET  /health           存活检查
+ * </pre>
+ *
+ * 请求在按需创建的线程池中处理；Java 21及以上可以改为每个请求一个虚拟线程，Java 24及以上默认如此，
+ * 原因见{@link Builder#virtualThreads(boolean)}。
+ * BBCode请求体按UTF-8字节直接解析，响应边渲染边以分块编码写出，不生成完整的结果字符串。
+ * 同时处理（包括读取请求体）的转换请求数超过上限时立即返回503并关闭连接，不读取请求体，也不排队。
+ *
+ * 请求体不是流式解析的，而是先完整读入一个字节数组：BBCode解析器需要在整个输入中查找结束标签，
+ * DOMAdapter只接受完整的HTML字符串，两者都不能从流中增量读取。HTML请求体还要再解码为String。
+ * 因此每个请求最多缓冲maxRequestBytes字节（HTML另加解码后的字符串），
+ * 请求体缓冲占用的内存上限约为maxConcurrentRequests乘以maxRequestBytes，需要按可用堆大小设置这两个上限。
+ *
+ * 响应开始写出后转换才失败时无法再改状态码，服务直接断开连接，客户端会读到不完整的分块响应。
+ */
+public final class ConversionServer implements AutoCloseable {
+    private static final String HTML_TYPE = "text/html; charset=utf-8";
+    private static final String TEXT_TYPE = "text/plain; charset=utf-8";
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final BBCodeConverter converter;
+    private final String host;
+    private final int port;
+    private final int backlog;
+    private final int maxConcurrentRequests;
+    private final int maxRequestBytes;
+    private final boolean virtualThreads;
+    private final boolean tcpNoDelay;
+    private final Semaphore permits;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private ConversionServer(Builder builder) {
+        this.converter = builder.converter;
+        this.host = builder.host;
+        this.port = builder.port;
+        this.backlog = builder.backlog;
+        this.maxConcurrentRequests = builder.maxConcurrentRequests;
+        this.maxRequestBytes = builder.maxRequestBytes;
+        this.virtualThreads = builder.virtualThreads != null
+            ? builder.virtualThreads && RequestExecutors.isVirtualSupported()
+            : RequestExecutors.isVirtualDefault();
+        this.tcpNoDelay = builder.tcpNoDelay;
+        this.permits = new Semaphore(builder.maxConcurrentRequests);
+    }
+
+    public static Builder builder(BBCodeConverter converter) {
+        return new Builder(converter);
+    }
+
+    /**
+     * 绑定端口并开始接受请求
+     * 开启了{@link Builder#tcpNoDelay(boolean)}时在创建服务器之前设置对应的系统属性
+     * @throws IOException 端口绑定失败
+     * @throws IllegalStateException 已经启动
+     */
+    public synchronized ConversionServer start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        if (tcpNoDelay && System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+        HttpServer created = HttpServer.create(new InetSocketAddress(host, port), backlog);
+        ExecutorService requests = RequestExecutors.newRequestExecutor(virtualThreads);
+        created.createContext("/", this::handle);
+        created.setExecutor(requests);
+        created.start();
+        this.server = created;
+        this.executor = requests;
+        return this;
+    }
+
+    /**
+     * 实际监听的地址，端口为0时可以由此得到系统分配的端口
+     * @throws IllegalStateException 尚未启动
+     */
+    public synchronized InetSocketAddress getAddress() {
+        if (server == null) {
+            throw new IllegalStateException("Server not started");
+        }
+        return server.getAddress();
+    }
+
+    /**
+     * 停止接受新连接，最多等待delaySeconds秒让进行中的请求完成
+     */
+    public synchronized void stop(int delaySeconds) {
+        if (server == null) {
+            return;
+        }
+        server.stop(delaySeconds);
+        executor.shutdown();
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * 立即停止，等同于stop(0)
+     */
+    @Override
+    public void close() {
+        stop(0);
+    }
+
+    /**
+     * 请求是否运行在虚拟线程上
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public int getMaxRequestBytes() {
+        return maxRequestBytes;
+    }
+
+    // ============ 请求处理 ============
+
+    /**
+     * 把请求体转换后写入响应体
+     */
+    private interface Conversion {
+        void convert(ByteBuffer body, OutputStream out) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        switch (path) {
+            case "/bbcode-to-html":
+                convert(exchange, HTML_TYPE, this::bbcodeToHtml);
+                break;
+            case "/html-to-bbcode":
+                convert(exchange, TEXT_TYPE, this::htmlToBBCode);
+                break;
+            case "/health":
+                health(exchange);
+                break;
+            default:
+                sendError(exchange, 404, "Not found: " + path);
+        }
+    }
+
+    private void bbcodeToHtml(ByteBuffer body, OutputStream out) throws IOException {
+        Utf8Output utf8 = new Utf8Output(out);
+        converter.bbcodeToHtml(body, utf8);
+        utf8.flush();
+    }
+
+    private void htmlToBBCode(ByteBuffer body, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        String html = new String(body.array(), body.arrayOffset() + body.position(), body.remaining(),
+            StandardCharsets.UTF_8);
+        converter.htmlToBBCode(html, writer);
+        writer.flush();
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+            sendError(exchange, 405, "Method not allowed: " + method);
+            return;
+        }
+        byte[] ok = "ok\n".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", TEXT_TYPE);
+        if ("HEAD".equals(method)) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, ok.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(ok);
+        }
+    }
+
+    private void convert(HttpExchange exchange, String contentType, Conversion conversion) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (!"POST".equals(method)) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            sendError(exchange, 405, "Method not allowed: " + method);
+            return;
+        }
+        String requestType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (!isUtf8(requestType)) {
+            sendError(exchange, 415, "Request body must be UTF-8: " + requestType);
+            return;
+        }
+        if (!permits.tryAcquire()) {
+            // 不读取请求体，响应后关闭连接：被拒绝的请求不能在没有许可的情况下占用线程读取最多maxRequestBytes字节
+            // 客户端仍在上传较大的请求体时可能只看到连接被重置
+            exchange.getResponseHeaders().set("Connection", "close");
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, 503, "Too many concurrent requests, limit is " + maxConcurrentRequests);
+            return;
+        }
+        try {
+            ByteBuffer body = readBody(exchange);
+            if (body == null) {
+                exchange.getResponseHeaders().set("Connection", "close");
+                sendError(exchange, 413, "Request body exceeds " + maxRequestBytes + " bytes");
+                return;
+            }
+            ResponseBody response = new ResponseBody(exchange, contentType);
+            try {
+                conversion.convert(body, response);
+            } catch (RuntimeException | StackOverflowError e) {
+                if (response.isCommitted()) {
+                    // 不关闭exchange：关闭会写出结束分块，让截断的响应看起来是完整的；抛出后服务器断开连接
+                    throw new IOException("Conversion failed after the response was committed", e);
+                }
+                sendError(exchange, 500, "Conversion failed: " + e);
+                return;
+            }
+            response.finish();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 读取完整的请求体，超过maxRequestBytes时返回null
+     * 有Content-Length时按声明的大小一次分配，否则从8KB开始按需扩大
+     */
+    private ByteBuffer readBody(HttpExchange exchange) throws IOException {
+        long declared = contentLength(exchange);
+        if (declared > maxRequestBytes) {
+            return null;
+        }
+        byte[] buffer = new byte[declared >= 0 ? (int) declared : Math.min(8192, maxRequestBytes)];
+        InputStream in = exchange.getRequestBody();
+        int size = 0;
+        while (true) {
+            if (size == buffer.length) {
+                // 缓冲区已满，多读一个字节确认是否已经到达末尾
+                int next = in.read();
+                if (next < 0) {
+                    break;
+                }
+                if (size >= maxRequestBytes) {
+                    return null;
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min(Math.max(buffer.length * 2L, 16), maxRequestBytes));
+                buffer[size++] = (byte) next;
+                continue;
+            }
+            int read = in.read(buffer, size, buffer.length - size);
+            if (read < 0) {
+                break;
+            }
+            size += read;
+        }
+        return ByteBuffer.wrap(buffer, 0, size);
+    }
+
+    /**
+     * 请求声明的Content-Length，没有或无法解析时返回-1
+     */
+    private static long contentLength(HttpExchange exchange) {
+        String value = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 请求体是否为UTF-8：没有Content-Type或没有charset参数时按UTF-8处理，US-ASCII是UTF-8的子集
+     */
+    static boolean isUtf8(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String[] parts = contentType.split(";");
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.regionMatches(true, 0, "charset=", 0, 8)) {
+                String charset = parameter.substring(8).replace("\"", "").trim().toLowerCase(Locale.ROOT);
+                return charset.equals("utf-8") || charset.equals("utf8") || charset.equals("us-ascii");
+            }
+        }
+        return true;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", TEXT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * 响应体：第一次写入时才发送200和分块编码的响应头，在此之前转换失败仍然可以返回500
+     * 转换器的输出经过缓冲，较短的结果在转换完成后才第一次写入
+     */
+    private static final class ResponseBody extends OutputStream {
+        private final HttpExchange exchange;
+        private OutputStream body;
+
+        ResponseBody(HttpExchange exchange, String contentType) {
+            this.exchange = exchange;
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+
+        boolean isCommitted() {
+            return body != null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            commit().write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length > 0) {
+                commit().write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (body != null) {
+                body.flush();
+            }
+        }
+
+        /**
+         * 结束响应；没有写入任何内容时发送空的200响应
+         */
+        void finish() throws IOException {
+            if (body == null) {
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+            body.close();
+        }
+
+        private OutputStream commit() throws IOException {
+            if (body == null) {
+                exchange.sendResponseHeaders(200, 0);
+                body = exchange.getResponseBody();
+            }
+            return body;
+        }
+    }
+
+    // ============ 命令行 ============
+
+    private static final String USAGE = String.join("\n",
+        "用法: java -cp bbcoeter-server.jar:bbcoeter-core.jar " + ConversionServer.class.getName() + " [选项]",
+        "",
+        "  --host HOST           监听地址，默认127.0.0.1",
+        "  --port N              监听端口，默认8080；0表示由系统分配",
+        "  --max-concurrent N    同时处理的转换请求数上限，超过时返回503，默认256",
+        "  --max-request-size SIZE  请求体大小上限，可用K/M后缀，默认16M",
+        "  --virtual-threads     每个请求一个虚拟线程（需要Java 21，Java 24及以上默认开启）",
+        "  --platform-threads    使用平台线程池",
+        "  --no-escape-html      不转义输出中的HTML",
+        "  --no-img              不转换[img]标签",
+        "  --no-optimize         不优化AST");
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 1 && ("-h".equals(args[0]) || "--help".equals(args[0]))) {
+            System.err.println(USAGE);
+            return;
+        }
+        ConversionServer server = parse(args, System.err);
+        if (server == null) {
+            System.exit(2);
+            return;
+        }
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "bbcoeter-http-shutdown"));
+        InetSocketAddress address = server.getAddress();
+        System.err.println("Listening on http://" + address.getHostString() + ":" + address.getPort()
+            + (server.isVirtualThreads() ? " (virtual threads)" : ""));
+    }
+
+    /**
+     * 解析命令行参数，参数错误时输出用法并返回null
+     */
+    static ConversionServer parse(String[] args, PrintStream log) {
+        BBCodeConverter.Builder converterOptions = BBCodeConverter.builder(new NativeDOMAdapter());
+        String host = "127.0.0.1";
+        int port = 8080;
+        int maxConcurrent = 256;
+        int maxRequestBytes = 16 << 20;
+        Boolean virtualThreads = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--host":
+                        host = value(args, ++i, arg);
+                        break;
+                    case "--port":
+                        port = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "--max-concurrent":
+                        maxConcurrent = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "--max-request-size":
+                        maxRequestBytes = parseSize(value(args, ++i, arg));
+                        break;
+                    case "--virtual-threads":
+                        virtualThreads = true;
+                        break;
+                    case "--platform-threads":
+                        virtualThreads = false;
+                        break;
+                    case "--no-escape-html":
+                        converterOptions.escapeHtmlInOutput(false);
+                        break;
+                    case "--no-img":
+                        converterOptions.allowImgCode(false);
+                        break;
+                    case "--no-optimize":
+                        converterOptions.optimizeAST(false);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            // 独立运行的服务独占JVM，可以设置全局的TCP_NODELAY
+            Builder builder = builder(converterOptions.build())
+                .tcpNoDelay(true)
+                .host(host)
+                .port(port)
+                .maxConcurrentRequests(maxConcurrent)
+                .maxRequestBytes(maxRequestBytes);
+            if (virtualThreads != null) {
+                builder.virtualThreads(virtualThreads);
+            }
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            log.println(e.getMessage());
+            log.println(USAGE);
+            return null;
+        }
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[i];
+    }
+
+    private static int parseSize(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        int shift = 0;
+        if (lower.endsWith("k")) {
+            shift = 10;
+        } else if (lower.endsWith("m")) {
+            shift = 20;
+        }
+        long value = Long.parseLong(shift == 0 ? lower : lower.substring(0, lower.length() - 1)) << shift;
+        if (value <= 0 || value > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Invalid request size: " + text);
+        }
+        return (int) value;
+    }
+
+    /**
+     * 转换服务构建器
+     */
+    public static class Builder {
+        private final BBCodeConverter converter;
+        private String host = "127.0.0.1";
+        private int port = 8080;
+        private int backlog;
+        private int maxConcurrentRequests = 256;
+        private int maxRequestBytes = 16 << 20;
+        private Boolean virtualThreads;
+        private boolean tcpNoDelay;
+
+        private Builder(BBCodeConverter converter) {
+            this.converter = Objects.requireNonNull(converter, "BBCodeConverter cannot be null");
+        }
+
+        /**
+         * 监听地址，默认只监听本机回环地址127.0.0.1
+         */
+        public Builder host(String host) {
+            this.host = Objects.requireNonNull(host, "Host cannot be null");
+            return this;
+        }
+
+        /**
+         * 监听端口，默认8080；0表示由系统分配，启动后通过getAddress()得到
+         */
+        public Builder port(int port) {
+            if (port < 0 || port > 65535) {
+                throw new IllegalArgumentException("port out of range: " + port);
+            }
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * 等待接受的连接队列长度，0表示使用系统默认值
+         */
+        public Builder backlog(int backlog) {
+            if (backlog < 0) {
+                throw new IllegalArgumentException("backlog must not be negative: " + backlog);
+            }
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * 同时处理的转换请求数上限，超过时立即返回503；默认256
+         */
+        public Builder maxConcurrentRequests(int maxConcurrentRequests) {
+            if (maxConcurrentRequests <= 0) {
+                throw new IllegalArgumentException("maxConcurrentRequests must be positive: " + maxConcurrentRequests);
+            }
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        /**
+         * 请求体大小上限（字节），超过时返回413；默认16MB
+         */
+        public Builder maxRequestBytes(int maxRequestBytes) {
+            if (maxRequestBytes <= 0) {
+                throw new IllegalArgumentException("maxRequestBytes must be positive: " + maxRequestBytes);
+            }
+            this.maxRequestBytes = maxRequestBytes;
+            return this;
+        }
+
+        /**
+         * 是否每个请求一个虚拟线程；运行时低于Java 21时忽略，仍使用平台线程池
+         * 默认只在Java 24及以上开启：JDK内置HTTP服务器的请求体、响应体流使用synchronized方法，
+         * Java 24（JEP 491）之前在其中阻塞会把虚拟线程固定在载体线程上，上传缓慢的请求
+         * 可能占满全部载体线程。客户端都在本机、上传很快时，Java 21到23也可以开启。
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * 是否开启TCP_NODELAY，默认不开启
+         * JDK内置服务器默认不开启TCP_NODELAY，响应头和响应体分两次写出，Nagle算法与客户端的延迟确认叠加，
+         * 每个响应要多等约40ms。开启后start()在系统属性sun.net.httpserver.nodelay未设置时把它设为true；
+         * 这是JVM全局的设置，同一JVM中之后创建的所有HttpServer都会受影响，并且只在JVM中第一次创建HttpServer之前
+         * 设置才起作用。嵌入其他应用时也可以不开启，改为用 -Dsun.net.httpserver.nodelay=true 启动JVM。
+         */
+        public Builder tcpNoDelay(boolean tcpNoDelay) {
+            this.tcpNoDelay = tcpNoDelay;
+            return this;
+        }
+
+        public ConversionServer build() {
+            return new ConversionServer(this);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.guobao2333.bbcoeter.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 处理请求的线程
+ *
+ * Java 8版本：按需创建的守护线程池，空闲线程60秒后回收。
+ * Java 21及以上运行时使用jar中META-INF/versions/21下的版本，可以每个请求一个虚拟线程。
+ * 同时处理的请求数都由ConversionServer的并发上限限制。
+ */
+final class RequestExecutors {
+
+    private RequestExecutors() {
+    }
+
+    /**
+     * 运行时是否支持虚拟线程
+     */
+    static boolean isVirtualSupported() {
+        return false;
+    }
+
+    /**
+     * 默认是否使用虚拟线程
+     */
+    static boolean isVirtualDefault() {
+        return false;
+    }
+
+    /**
+     * @param virtual 是否使用虚拟线程，不支持时忽略
+     */
+    static ExecutorService newRequestExecutor(boolean virtual) {
+        return Executors.newCachedThreadPool(new RequestThreadFactory());
+    }
+
+    private static final class RequestThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "bbcoeter-http-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
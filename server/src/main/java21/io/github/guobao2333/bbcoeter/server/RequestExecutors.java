@@ -0,0 +1,43 @@
+package io.github.guobao2333.bbcoeter.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 处理请求的线程
+ *
+ * Java 21版本：虚拟线程模式下每个请求一个虚拟线程，阻塞在读请求体、写响应体上时不占用平台线程。
+ * JDK内置HTTP服务器的请求体和响应体流的读写方法是synchronized的，Java 24（JEP 491）之前
+ * 在其中阻塞会把虚拟线程固定在载体线程上：载体线程数默认等于CPU核数，几个上传缓慢的请求
+ * 就能占满全部载体线程，让其他请求无法运行。所以只在Java 24及以上默认使用虚拟线程，
+ * Java 21到23需要显式开启，否则与Java 8版本相同，使用按需创建的平台线程池。
+ */
+final class RequestExecutors {
+
+    private RequestExecutors() {
+    }
+
+    /**
+     * 运行时是否支持虚拟线程
+     */
+    static boolean isVirtualSupported() {
+        return true;
+    }
+
+    /**
+     * 默认是否使用虚拟线程：Java 24及以上
+     */
+    static boolean isVirtualDefault() {
+        return Runtime.version().feature() >= 24;
+    }
+
+    /**
+     * @param virtual 是否使用虚拟线程
+     */
+    static ExecutorService newRequestExecutor(boolean virtual) {
+        if (virtual) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bbcoeter-http-", 1).factory());
+        }
+        return Executors.newCachedThreadPool(Thread.ofPlatform().name("bbcoeter-http-", 1).daemon(true).factory());
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.guobao2333.bbcoeter.server;
+
+import io.github.guobao2333.bbcoeter.BBCodeConverter;
+import io.github.guobao2333.bbcoeter.dom.NativeDOMAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在系统分配的端口上启动服务，检查转换、413和503
+ */
+class ConversionServerTest {
+    private final BBCodeConverter converter = BBCodeConverter.builder(new NativeDOMAdapter()).build();
+
+    private static final class Response {
+        final int status;
+        final String body;
+        final String retryAfter;
+        final String connection;
+
+        Response(HttpURLConnection connection) throws IOException {
+            this.status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            this.body = in != null ? read(in) : "";
+            this.retryAfter = connection.getHeaderField("Retry-After");
+            this.connection = connection.getHeaderField("Connection");
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) >= 0) {
+                bytes.write(buffer, 0, read);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Response post(ConversionServer server, String path, byte[] body) throws IOException {
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "text/plain; charset=utf-8");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        try {
+            return new Response(connection);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void convertsBothDirections() throws IOException {
+        try (ConversionServer server = ConversionServer.builder(converter).port(0).build().start()) {
+            String bbcode = "[b]粗体[/b] [url=https://example.com/?a=1&b=2]链接[/url] <x>";
+            Response html = post(server, "/bbcode-to-html", utf8(bbcode));
+            assertEquals(200, html.status);
+            assertEquals(converter.bbcodeToHtml(bbcode), html.body);
+
+            Response back = post(server, "/html-to-bbcode", utf8(html.body));
+            assertEquals(200, back.status);
+            assertEquals(converter.htmlToBBCode(html.body), back.body);
+        }
+    }
+
+    @Test
+    void rejectsOversizedBody() throws IOException {
+        try (ConversionServer server = ConversionServer.builder(converter).port(0).maxRequestBytes(16).build().start()) {
+            Response response = post(server, "/bbcode-to-html", new byte[100]);
+            assertEquals(413, response.status);
+            assertEquals("close", response.connection);
+
+            assertEquals(200, post(server, "/bbcode-to-html", utf8("[b]ok[/b]")).status);
+        }
+    }
+
+    /**
+     * 第一个请求只发送一半请求体并占住唯一的许可，之后的请求立即得到503
+     */
+    @Test
+    void rejectsRequestsOverConcurrencyLimit() throws Exception {
+        try (ConversionServer server = ConversionServer.builder(converter)
+                .port(0)
+                .maxConcurrentRequests(1)
+                .virtualThreads(false)
+                .build()
+                .start();
+             Socket slow = new Socket("127.0.0.1", server.getAddress().getPort())) {
+            OutputStream out = slow.getOutputStream();
+            out.write(utf8("POST /bbcode-to-html HTTP/1.1\r\nHost: localhost\r\nContent-Length: 8\r\n\r\n[b]x"));
+            out.flush();
+
+            // 服务收到请求头并取得许可之前，其他请求仍然可能成功
+            Response rejected = null;
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (rejected == null && System.nanoTime() < deadline) {
+                Response response = post(server, "/bbcode-to-html", utf8("[i]y[/i]"));
+                if (response.status == 503) {
+                    rejected = response;
+                } else {
+                    assertEquals(200, response.status);
+                    Thread.sleep(10);
+                }
+            }
+            assertTrue(rejected != null, "expected 503 while the permit is held");
+            assertEquals("1", rejected.retryAfter);
+            assertEquals("close", rejected.connection);
+
+            out.write(utf8("[/b]"));
+            out.flush();
+            String head = readHead(slow.getInputStream());
+            assertTrue(head.startsWith("HTTP/1.1 200"), head);
+        }
+    }
+
+    private static String readHead(InputStream in) throws IOException {
+        StringBuilder head = new StringBuilder();
+        int c;
+        while ((c = in.read()) >= 0) {
+            head.append((char) c);
+            if (head.length() >= 4 && head.substring(head.length() - 4).equals("\r\n\r\n")) {
+                break;
+            }
+        }
+        return head.toString();
+    }
+}